@@ -0,0 +1,88 @@
+package com.nuxplanet.issuetracker.async;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread pool task executor publishing its metrics, under "com.nuxplanet.issuetracker.async.executor.{name}":
+ * active threads, pool size and queue depth gauges, timers of the time tasks wait in the queue and of the time they
+ * run, and a meter of the rejected tasks.
+ * <p>
+ * The pool grows up to "maxPoolSize" threads before tasks are queued, and idle threads stop after "keepAliveSeconds":
+ * the plain ThreadPoolExecutor only grows past its core size once its queue is full.
+ * </p>
+ */
+public class MonitoredThreadPoolTaskExecutor extends ThreadPoolTaskExecutor {
+
+    private final String name;
+
+    private final MetricRegistry metricRegistry;
+
+    private final Timer waiting;
+
+    private final Timer running;
+
+    private final Meter rejected;
+
+    public MonitoredThreadPoolTaskExecutor(String name, MetricRegistry metricRegistry) {
+        this.name = name;
+        this.metricRegistry = metricRegistry;
+        waiting = metricRegistry.timer(metricName("wait"));
+        running = metricRegistry.timer(metricName("run"));
+        rejected = metricRegistry.meter(metricName("rejected"));
+        setThreadNamePrefix(name + "-");
+        setAllowCoreThreadTimeOut(true);
+        setTaskDecorator(this::monitor);
+    }
+
+    /**
+     * Set the number of threads, which are all started before tasks are queued.
+     */
+    @Override
+    public void setMaxPoolSize(int maxPoolSize) {
+        super.setCorePoolSize(maxPoolSize);
+        super.setMaxPoolSize(maxPoolSize);
+    }
+
+    @Override
+    protected ExecutorService initializeExecutor(ThreadFactory threadFactory,
+                                                 RejectedExecutionHandler rejectedExecutionHandler) {
+        ExecutorService executor = super.initializeExecutor(threadFactory, (task, pool) -> {
+            rejected.mark();
+            throw new RejectedExecutionException("Executor " + name + " is saturated: " +
+                pool.getActiveCount() + " active threads and " + pool.getQueue().size() + " queued tasks");
+        });
+        metricRegistry.register(metricName("active"), (Gauge<Integer>) this::getActiveCount);
+        metricRegistry.register(metricName("pool-size"), (Gauge<Integer>) this::getPoolSize);
+        metricRegistry.register(metricName("queue-depth"),
+            (Gauge<Integer>) () -> getThreadPoolExecutor().getQueue().size());
+        return executor;
+    }
+
+    private Runnable monitor(Runnable task) {
+        long submitted = System.nanoTime();
+        return () -> {
+            long started = System.nanoTime();
+            waiting.update(started - submitted, TimeUnit.NANOSECONDS);
+            try {
+                task.run();
+            } finally {
+                running.update(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    private String metricName(String metric) {
+        return MetricRegistry.name(MonitoredThreadPoolTaskExecutor.class.getPackage().getName(), "executor", name,
+            metric);
+    }
+}
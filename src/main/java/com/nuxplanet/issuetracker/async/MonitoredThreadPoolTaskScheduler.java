@@ -0,0 +1,79 @@
+package com.nuxplanet.issuetracker.async;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread pool task scheduler publishing its metrics, under "com.nuxplanet.issuetracker.async.executor.{name}":
+ * active threads and scheduled tasks gauges, timers of how late tasks start after their scheduled time and of the
+ * time they run, and a meter of the rejected tasks.
+ */
+public class MonitoredThreadPoolTaskScheduler extends ThreadPoolTaskScheduler {
+
+    private final String name;
+
+    private final MetricRegistry metricRegistry;
+
+    private final Timer waiting;
+
+    private final Timer running;
+
+    private final Meter rejected;
+
+    private final ThreadLocal<Long> started = new ThreadLocal<>();
+
+    public MonitoredThreadPoolTaskScheduler(String name, MetricRegistry metricRegistry) {
+        this.name = name;
+        this.metricRegistry = metricRegistry;
+        waiting = metricRegistry.timer(metricName("wait"));
+        running = metricRegistry.timer(metricName("run"));
+        rejected = metricRegistry.meter(metricName("rejected"));
+        setThreadNamePrefix(name + "-");
+    }
+
+    @Override
+    protected ScheduledExecutorService createExecutor(int poolSize, ThreadFactory threadFactory,
+                                                      RejectedExecutionHandler rejectedExecutionHandler) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(poolSize, threadFactory,
+            (task, pool) -> {
+                rejected.mark();
+                throw new RejectedExecutionException("Scheduler " + name + " is shut down");
+            }) {
+
+            @Override
+            protected void beforeExecute(Thread thread, Runnable task) {
+                if (task instanceof Delayed) {
+                    // The delay of a task which is due is negative: it is how late the task starts
+                    waiting.update(Math.max(0, -((Delayed) task).getDelay(TimeUnit.NANOSECONDS)),
+                        TimeUnit.NANOSECONDS);
+                }
+                started.set(System.nanoTime());
+            }
+
+            @Override
+            protected void afterExecute(Runnable task, Throwable t) {
+                running.update(System.nanoTime() - started.get(), TimeUnit.NANOSECONDS);
+            }
+        };
+        metricRegistry.register(metricName("active"), (Gauge<Integer>) this::getActiveCount);
+        metricRegistry.register(metricName("pool-size"), (Gauge<Integer>) this::getPoolSize);
+        metricRegistry.register(metricName("queue-depth"), (Gauge<Integer>) () -> executor.getQueue().size());
+        return executor;
+    }
+
+    private String metricName(String metric) {
+        return MetricRegistry.name(MonitoredThreadPoolTaskScheduler.class.getPackage().getName(), "executor", name,
+            metric);
+    }
+}
@@ -0,0 +1,52 @@
+package com.nuxplanet.issuetracker.async;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual threads, which are only available on Java 21 and later: they are created through reflection, as the
+ * application is compiled for Java 8.
+ * <p>
+ * A virtual thread blocked on I/O releases its carrier thread, so that many slow requests can wait at once without
+ * growing thread pools. The JDBC connection pool then limits how many of them use the database at the same time.
+ * A virtual thread blocked inside a synchronized block, as the PostgreSQL driver does while it runs a query, keeps
+ * its carrier thread, so the number of carrier threads ("jdk.virtualThreadScheduler.parallelism", the number of
+ * CPUs by default) should be at least the size of the connection pool.
+ * </p>
+ */
+public final class VirtualThreads {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @param prefix the prefix of the thread names, which are numbered
+     * @return a factory of virtual threads, or empty if this Java version has no virtual threads
+     */
+    public static Optional<ThreadFactory> threadFactory(String prefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return Optional.of((ThreadFactory) builderClass.getMethod("factory").invoke(builder));
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads are not available on Java {}, platform threads are used",
+                System.getProperty("java.version"));
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param threadFactory a factory of virtual threads
+     * @return an executor starting a new virtual thread per task
+     */
+    public static Executor threadPerTaskExecutor(ThreadFactory threadFactory) {
+        return task -> threadFactory.newThread(task).start();
+    }
+}
@@ -1,42 +1,81 @@
 package com.nuxplanet.issuetracker.config;
 
 import com.nuxplanet.issuetracker.async.ExceptionHandlingAsyncTaskExecutor;
+import com.nuxplanet.issuetracker.async.MonitoredThreadPoolTaskExecutor;
+import com.nuxplanet.issuetracker.async.MonitoredThreadPoolTaskScheduler;
+import com.nuxplanet.issuetracker.async.VirtualThreads;
 
+import com.codahale.metrics.MetricRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.*;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-
-import java.util.concurrent.Executor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 
 import javax.inject.Inject;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
 
+/**
+ * Executors of the background work, each with its own threads and metrics: the "task" executor runs the @Async
+ * methods and Liquibase, and the "maintenance" scheduler runs the @Scheduled jobs, so that a long nightly job does
+ * not delay the frequent ones. E-mails, Elasticsearch indexing and audit events have their own dedicated threads.
+ * <p>
+ * When "jhipster.async.virtualThreads" is true, and the JVM has virtual threads, the "task" executor starts a virtual
+ * thread per task instead, and has no metrics.
+ * </p>
+ */
 @Configuration
 @EnableAsync
 @EnableScheduling
-public class AsyncConfiguration implements AsyncConfigurer {
+public class AsyncConfiguration implements AsyncConfigurer, SchedulingConfigurer {
 
     private final Logger log = LoggerFactory.getLogger(AsyncConfiguration.class);
 
     @Inject
     private JHipsterProperties jHipsterProperties;
 
+    @Inject
+    private MetricRegistry metricRegistry;
+
     @Override
     @Bean(name = "taskExecutor")
     public Executor getAsyncExecutor() {
         log.debug("Creating Async Task Executor");
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(jHipsterProperties.getAsync().getCorePoolSize());
+        if (jHipsterProperties.getAsync().isVirtualThreads()) {
+            Optional<ThreadFactory> threadFactory = VirtualThreads.threadFactory("task-");
+            if (threadFactory.isPresent()) {
+                log.info("Running @Async methods on virtual threads");
+                return new ExceptionHandlingAsyncTaskExecutor(new SimpleAsyncTaskExecutor(threadFactory.get()));
+            }
+        }
+        MonitoredThreadPoolTaskExecutor executor = new MonitoredThreadPoolTaskExecutor("task", metricRegistry);
         executor.setMaxPoolSize(jHipsterProperties.getAsync().getMaxPoolSize());
         executor.setQueueCapacity(jHipsterProperties.getAsync().getQueueCapacity());
-        executor.setThreadNamePrefix("issue-tracker-Executor-");
         return new ExceptionHandlingAsyncTaskExecutor(executor);
     }
 
+    @Bean(name = "maintenanceScheduler")
+    public ThreadPoolTaskScheduler maintenanceScheduler() {
+        log.debug("Creating Maintenance Task Scheduler");
+        MonitoredThreadPoolTaskScheduler scheduler = new MonitoredThreadPoolTaskScheduler("maintenance",
+            metricRegistry);
+        scheduler.setPoolSize(jHipsterProperties.getAsync().getMaintenance().getPoolSize());
+        scheduler.setErrorHandler(t -> log.error("Scheduled task failed", t));
+        return scheduler;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.setTaskScheduler(maintenanceScheduler());
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return new SimpleAsyncUncaughtExceptionHandler();
@@ -2,9 +2,11 @@ package com.nuxplanet.issuetracker.config;
 
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.ehcache.InstrumentedEhcache;
+import net.sf.ehcache.config.ConfigurationFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.data.jpa.EntityManagerFactoryDependsOnPostProcessor;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.*;
@@ -12,8 +14,6 @@ import org.springframework.cache.ehcache.EhCacheCacheManager;
 
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
-import javax.persistence.EntityManager;
-import javax.persistence.PersistenceContext;
 import java.util.SortedSet;
 import java.util.stream.Stream;
 
@@ -25,14 +25,20 @@ public class CacheConfiguration {
 
     private final Logger log = LoggerFactory.getLogger(CacheConfiguration.class);
 
-    @PersistenceContext
-    private EntityManager entityManager;
-
     @Inject
     private MetricRegistry metricRegistry;
 
     private net.sf.ehcache.CacheManager cacheManager;
 
+    /**
+     * Start Ehcache before Hibernate, so that the Hibernate regions use the caches configured and instrumented
+     * here: Hibernate keeps the caches it finds when the entity manager factory is built.
+     */
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnCacheManager() {
+        return new EntityManagerFactoryDependsOnPostProcessor("cacheManager");
+    }
+
     @PreDestroy
     public void destroy() {
         log.info("Remove Cache Manager metrics");
@@ -45,8 +51,11 @@ public class CacheConfiguration {
     @Bean
     public CacheManager cacheManager(JHipsterProperties jHipsterProperties) {
         log.debug("Starting Ehcache");
-        cacheManager = net.sf.ehcache.CacheManager.create();
-        cacheManager.getConfiguration().setMaxBytesLocalHeap(jHipsterProperties.getCache().getEhcache().getMaxBytesLocalHeap());
+        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+        net.sf.ehcache.config.Configuration configuration = ConfigurationFactory.parseConfiguration();
+        configuration.setMaxBytesLocalHeap(ehcache.getMaxBytesLocalHeap());
+        ehcache.getRegions().forEach(region -> configureRegion(configuration, region));
+        cacheManager = net.sf.ehcache.CacheManager.create(configuration);
         log.debug("Registering Ehcache Metrics gauges");
         Stream.of(cacheManager.getCacheNames()).forEach(name -> {
             net.sf.ehcache.Cache cache = cacheManager.getCache(name);
@@ -56,4 +65,22 @@ public class CacheConfiguration {
         ehCacheManager.setCacheManager(cacheManager);
         return ehCacheManager;
     }
+
+    private void configureRegion(net.sf.ehcache.config.Configuration configuration,
+        JHipsterProperties.Cache.Ehcache.Region region) {
+
+        net.sf.ehcache.config.CacheConfiguration cache = configuration.getCacheConfigurations().get(region.getName());
+        if (cache == null) {
+            cache = configuration.getDefaultCacheConfiguration().clone().name(region.getName());
+            configuration.addCache(cache);
+        }
+        if (region.getMaxBytesLocalHeap() != null) {
+            cache.setMaxBytesLocalHeap(region.getMaxBytesLocalHeap());
+        }
+        if (region.getTimeToLiveSeconds() != null) {
+            cache.setTimeToLiveSeconds(region.getTimeToLiveSeconds());
+        }
+        log.debug("Configured cache region {}: maxBytesLocalHeap={}, timeToLiveSeconds={}", region.getName(),
+            cache.getMaxBytesLocalHeapAsString(), cache.getTimeToLiveSeconds());
+    }
 }
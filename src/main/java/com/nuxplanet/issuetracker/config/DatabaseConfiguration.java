@@ -16,6 +16,7 @@ import org.springframework.data.elasticsearch.repository.config.EnableElasticsea
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 
 import javax.inject.Inject;
 import javax.sql.DataSource;
@@ -68,4 +69,14 @@ public class DatabaseConfiguration {
     public Hibernate4Module hibernate4Module() {
         return new Hibernate4Module();
     }
+
+    /**
+     * Validator of the entities and DTOs which are not validated by Spring MVC, such as imported rows.
+     *
+     * @return the Bean Validation validator
+     */
+    @Bean
+    public LocalValidatorFactoryBean validator() {
+        return new LocalValidatorFactoryBean();
+    }
 }
@@ -4,6 +4,10 @@ import javax.validation.constraints.NotNull;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.web.cors.CorsConfiguration;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Properties specific to JHipster.
  *
@@ -34,6 +38,12 @@ public class JHipsterProperties {
 
     private final Ribbon ribbon = new Ribbon();
 
+    private final Elasticsearch elasticsearch = new Elasticsearch();
+
+    private final Attachments attachments = new Attachments();
+
+    private final Audit audit = new Audit();
+
     public Async getAsync() {
         return async;
     }
@@ -74,21 +84,27 @@ public class JHipsterProperties {
         return ribbon;
     }
 
-    public static class Async {
+    public Elasticsearch getElasticsearch() {
+        return elasticsearch;
+    }
+
+    public Attachments getAttachments() {
+        return attachments;
+    }
 
-        private int corePoolSize = 2;
+    public Audit getAudit() {
+        return audit;
+    }
+
+    public static class Async {
 
         private int maxPoolSize = 50;
 
         private int queueCapacity = 10000;
 
-        public int getCorePoolSize() {
-            return corePoolSize;
-        }
+        private boolean virtualThreads = false;
 
-        public void setCorePoolSize(int corePoolSize) {
-            this.corePoolSize = corePoolSize;
-        }
+        private final Maintenance maintenance = new Maintenance();
 
         public int getMaxPoolSize() {
             return maxPoolSize;
@@ -105,6 +121,31 @@ public class JHipsterProperties {
         public void setQueueCapacity(int queueCapacity) {
             this.queueCapacity = queueCapacity;
         }
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public void setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+
+        public Maintenance getMaintenance() {
+            return maintenance;
+        }
+
+        public static class Maintenance {
+
+            private int poolSize = 4;
+
+            public int getPoolSize() {
+                return poolSize;
+            }
+
+            public void setPoolSize(int poolSize) {
+                this.poolSize = poolSize;
+            }
+        }
     }
 
     public static class Http {
@@ -132,14 +173,48 @@ public class JHipsterProperties {
     public static class Cache {
         private final Ehcache ehcache = new Ehcache();
 
+        private final IssueResponses issueResponses = new IssueResponses();
+
         public Ehcache getEhcache() {
             return ehcache;
         }
 
+        public IssueResponses getIssueResponses() {
+            return issueResponses;
+        }
+
+        /**
+         * The serialized responses of GET /api/issues/{id} kept by each node, see IssueResponseCache.
+         */
+        public static class IssueResponses {
+
+            private int maxEntries = 1000;
+
+            private long timeToLiveSeconds = 5;
+
+            public int getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(int maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+
         public static class Ehcache {
 
             private String maxBytesLocalHeap = "16M";
 
+            private final List<Region> regions = new ArrayList<>();
+
             public String getMaxBytesLocalHeap() {
                 return maxBytesLocalHeap;
             }
@@ -147,6 +222,49 @@ public class JHipsterProperties {
             public void setMaxBytesLocalHeap(String maxBytesLocalHeap) {
                 this.maxBytesLocalHeap = maxBytesLocalHeap;
             }
+
+            public List<Region> getRegions() {
+                return regions;
+            }
+
+            /**
+             * Overrides the ehcache.xml configuration of one cache region.
+             * <p>
+             * Regions without their own size share what the other regions leave of the CacheManager heap.
+             * </p>
+             */
+            public static class Region {
+
+                private String name;
+
+                private String maxBytesLocalHeap;
+
+                private Long timeToLiveSeconds;
+
+                public String getName() {
+                    return name;
+                }
+
+                public void setName(String name) {
+                    this.name = name;
+                }
+
+                public String getMaxBytesLocalHeap() {
+                    return maxBytesLocalHeap;
+                }
+
+                public void setMaxBytesLocalHeap(String maxBytesLocalHeap) {
+                    this.maxBytesLocalHeap = maxBytesLocalHeap;
+                }
+
+                public Long getTimeToLiveSeconds() {
+                    return timeToLiveSeconds;
+                }
+
+                public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                    this.timeToLiveSeconds = timeToLiveSeconds;
+                }
+            }
         }
     }
 
@@ -154,6 +272,14 @@ public class JHipsterProperties {
 
         private String from = "IssueTracker@localhost";
 
+        private boolean async = true;
+
+        private int queueCapacity = 10000;
+
+        private int batchSize = 50;
+
+        private double ratePerSecond = 10;
+
         public String getFrom() {
             return from;
         }
@@ -161,21 +287,63 @@ public class JHipsterProperties {
         public void setFrom(String from) {
             this.from = from;
         }
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        public void setAsync(boolean async) {
+            this.async = async;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public double getRatePerSecond() {
+            return ratePerSecond;
+        }
+
+        public void setRatePerSecond(double ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+        }
     }
 
     public static class Security {
 
         private final RememberMe rememberMe = new RememberMe();
 
+        private final Password password = new Password();
+
         public RememberMe getRememberMe() {
             return rememberMe;
         }
 
+        public Password getPassword() {
+            return password;
+        }
+
         public static class RememberMe {
 
             @NotNull
             private String key;
 
+            private boolean writeBehind = false;
+
+            private long flushIntervalMs = 1000;
+
             public String getKey() {
                 return key;
             }
@@ -183,6 +351,85 @@ public class JHipsterProperties {
             public void setKey(String key) {
                 this.key = key;
             }
+
+            public boolean isWriteBehind() {
+                return writeBehind;
+            }
+
+            public void setWriteBehind(boolean writeBehind) {
+                this.writeBehind = writeBehind;
+            }
+
+            public long getFlushIntervalMs() {
+                return flushIntervalMs;
+            }
+
+            public void setFlushIntervalMs(long flushIntervalMs) {
+                this.flushIntervalMs = flushIntervalMs;
+            }
+        }
+
+        public static class Password {
+
+            private String algorithm = "bcrypt";
+
+            private int bcryptStrength = 10;
+
+            private int pbkdf2Iterations = 185000;
+
+            private int poolSize = Runtime.getRuntime().availableProcessors();
+
+            private int queueCapacity = 100;
+
+            private long timeoutMs = 10000;
+
+            public String getAlgorithm() {
+                return algorithm;
+            }
+
+            public void setAlgorithm(String algorithm) {
+                this.algorithm = algorithm;
+            }
+
+            public int getBcryptStrength() {
+                return bcryptStrength;
+            }
+
+            public void setBcryptStrength(int bcryptStrength) {
+                this.bcryptStrength = bcryptStrength;
+            }
+
+            public int getPbkdf2Iterations() {
+                return pbkdf2Iterations;
+            }
+
+            public void setPbkdf2Iterations(int pbkdf2Iterations) {
+                this.pbkdf2Iterations = pbkdf2Iterations;
+            }
+
+            public int getPoolSize() {
+                return poolSize;
+            }
+
+            public void setPoolSize(int poolSize) {
+                this.poolSize = poolSize;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public long getTimeoutMs() {
+                return timeoutMs;
+            }
+
+            public void setTimeoutMs(long timeoutMs) {
+                this.timeoutMs = timeoutMs;
+            }
         }
     }
 
@@ -481,4 +728,257 @@ public class JHipsterProperties {
             this.displayOnActiveProfiles = displayOnActiveProfiles;
         }
     }
+
+    public static class Elasticsearch {
+
+        private final Indexing indexing = new Indexing();
+
+        private final Reindex reindex = new Reindex();
+
+        public Indexing getIndexing() {
+            return indexing;
+        }
+
+        public Reindex getReindex() {
+            return reindex;
+        }
+
+        public static class Indexing {
+
+            private boolean async = true;
+
+            private int queueCapacity = 10000;
+
+            private int bulkSize = 500;
+
+            private long flushIntervalMs = 1000;
+
+            private int maxRetries = 5;
+
+            private long retryBackoffMs = 200;
+
+            public boolean isAsync() {
+                return async;
+            }
+
+            public void setAsync(boolean async) {
+                this.async = async;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public int getBulkSize() {
+                return bulkSize;
+            }
+
+            public void setBulkSize(int bulkSize) {
+                this.bulkSize = bulkSize;
+            }
+
+            public long getFlushIntervalMs() {
+                return flushIntervalMs;
+            }
+
+            public void setFlushIntervalMs(long flushIntervalMs) {
+                this.flushIntervalMs = flushIntervalMs;
+            }
+
+            public int getMaxRetries() {
+                return maxRetries;
+            }
+
+            public void setMaxRetries(int maxRetries) {
+                this.maxRetries = maxRetries;
+            }
+
+            public long getRetryBackoffMs() {
+                return retryBackoffMs;
+            }
+
+            public void setRetryBackoffMs(long retryBackoffMs) {
+                this.retryBackoffMs = retryBackoffMs;
+            }
+        }
+
+        public static class Reindex {
+
+            private int parallelism = 4;
+
+            private int chunkSize = 1000;
+
+            public int getParallelism() {
+                return parallelism;
+            }
+
+            public void setParallelism(int parallelism) {
+                this.parallelism = parallelism;
+            }
+
+            public int getChunkSize() {
+                return chunkSize;
+            }
+
+            public void setChunkSize(int chunkSize) {
+                this.chunkSize = chunkSize;
+            }
+        }
+    }
+
+    public static class Attachments {
+
+        private String path = "attachments";
+
+        private long maxSize = 10 * 1024 * 1024;
+
+        /**
+         * Content types which attachments are served with; other attachments are served as
+         * "application/octet-stream". Types which browsers render as active content, such as HTML or SVG, must not be
+         * listed.
+         */
+        private List<String> allowedContentTypes = new ArrayList<>(Arrays.asList(
+            "application/pdf", "application/zip", "image/gif", "image/jpeg", "image/png", "text/plain"));
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public List<String> getAllowedContentTypes() {
+            return allowedContentTypes;
+        }
+
+        public void setAllowedContentTypes(List<String> allowedContentTypes) {
+            this.allowedContentTypes = allowedContentTypes;
+        }
+    }
+
+    public static class Audit {
+
+        /**
+         * What to do with an audit event when the queue is full.
+         */
+        public enum OverflowPolicy {
+            /** Drop the event, and count it in the "dropped" meter. */
+            DROP,
+            /** Wait until the background thread makes room in the queue, up to "blockTimeoutMs", then drop it. */
+            BLOCK
+        }
+
+        private boolean async = true;
+
+        private int queueCapacity = 10000;
+
+        private int batchSize = 100;
+
+        private long flushIntervalMs = 1000;
+
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+        private long blockTimeoutMs = 1000;
+
+        private int maxRetries = 3;
+
+        private long retryBackoffMs = 500;
+
+        private int retentionMonths = 12;
+
+        private int maxQueryResults = 10000;
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        public void setAsync(boolean async) {
+            this.async = async;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public long getBlockTimeoutMs() {
+            return blockTimeoutMs;
+        }
+
+        public void setBlockTimeoutMs(long blockTimeoutMs) {
+            this.blockTimeoutMs = blockTimeoutMs;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public long getRetryBackoffMs() {
+            return retryBackoffMs;
+        }
+
+        public void setRetryBackoffMs(long retryBackoffMs) {
+            this.retryBackoffMs = retryBackoffMs;
+        }
+
+        public int getRetentionMonths() {
+            return retentionMonths;
+        }
+
+        public void setRetentionMonths(int retentionMonths) {
+            this.retentionMonths = retentionMonths;
+        }
+
+        public int getMaxQueryResults() {
+            return maxQueryResults;
+        }
+
+        public void setMaxQueryResults(int maxQueryResults) {
+            this.maxQueryResults = maxQueryResults;
+        }
+    }
 }
@@ -3,7 +3,7 @@ package com.nuxplanet.issuetracker.config;
 import com.nuxplanet.issuetracker.security.*;
 import com.nuxplanet.issuetracker.config.JHipsterProperties;
 
-import org.springframework.beans.factory.BeanInitializationException;
+import com.codahale.metrics.MetricRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -13,9 +13,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.data.repository.query.SecurityEvaluationContextExtension;
 import org.springframework.security.web.authentication.RememberMeServices;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
@@ -43,25 +40,24 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
     private Http401UnauthorizedEntryPoint authenticationEntryPoint;
 
     @Inject
-    private UserDetailsService userDetailsService;
+    private UpgradingAuthenticationProvider upgradingAuthenticationProvider;
 
     @Inject
     private RememberMeServices rememberMeServices;
 
+    /**
+     * Static, so that the services hashing passwords, which the authentication provider depends on, do not depend
+     * on this configuration.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public static ConfigurablePasswordEncoder passwordEncoder(JHipsterProperties jHipsterProperties,
+        MetricRegistry metricRegistry) {
+        return new ConfigurablePasswordEncoder(jHipsterProperties.getSecurity().getPassword(), metricRegistry);
     }
 
     @Inject
     public void configureGlobal(AuthenticationManagerBuilder auth) {
-        try {
-            auth
-                .userDetailsService(userDetailsService)
-                    .passwordEncoder(passwordEncoder());
-        } catch (Exception e) {
-            throw new BeanInitializationException("Security configuration failed", e);
-        }
+        auth.authenticationProvider(upgradingAuthenticationProvider);
     }
 
     @Override
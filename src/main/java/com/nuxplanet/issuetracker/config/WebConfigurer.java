@@ -3,6 +3,7 @@ package com.nuxplanet.issuetracker.config;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.servlet.InstrumentedFilter;
 import com.codahale.metrics.servlets.MetricsServlet;
+import com.nuxplanet.issuetracker.async.VirtualThreads;
 import com.nuxplanet.issuetracker.web.filter.CachingHttpHeadersFilter;
 
 import org.slf4j.Logger;
@@ -10,6 +11,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.embedded.*;
+import org.springframework.boot.context.embedded.undertow.UndertowEmbeddedServletContainerFactory;
 import org.springframework.boot.web.servlet.ServletContextInitializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -21,6 +23,7 @@ import org.springframework.web.filter.CorsFilter;
 import java.io.File;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.Executor;
 import javax.inject.Inject;
 import javax.servlet.*;
 
@@ -70,6 +73,24 @@ public class WebConfigurer implements ServletContextInitializer, EmbeddedServlet
         container.setMimeMappings(mappings);
         // When running in an IDE or with ./mvnw spring-boot:run, set location of the static web assets.
         setLocationForStaticAssets(container);
+        if (jHipsterProperties.getAsync().isVirtualThreads() &&
+            container instanceof UndertowEmbeddedServletContainerFactory) {
+            setVirtualThreadsExecutor((UndertowEmbeddedServletContainerFactory) container);
+        }
+    }
+
+    /**
+     * Run the servlet requests on virtual threads, instead of the Undertow worker threads.
+     */
+    private void setVirtualThreadsExecutor(UndertowEmbeddedServletContainerFactory container) {
+        VirtualThreads.threadFactory("http-").ifPresent(threadFactory -> {
+            log.info("Running HTTP requests on virtual threads");
+            Executor executor = VirtualThreads.threadPerTaskExecutor(threadFactory);
+            container.addDeploymentInfoCustomizers(deploymentInfo -> {
+                deploymentInfo.setExecutor(executor);
+                deploymentInfo.setAsyncExecutor(executor);
+            });
+        });
     }
 
     private void setLocationForStaticAssets(ConfigurableEmbeddedServletContainer container) {
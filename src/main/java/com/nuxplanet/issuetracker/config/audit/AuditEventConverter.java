@@ -2,6 +2,7 @@ package com.nuxplanet.issuetracker.config.audit;
 
 import com.nuxplanet.issuetracker.domain.PersistentAuditEvent;
 
+import org.hibernate.Hibernate;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.stereotype.Component;
@@ -9,6 +10,8 @@ import org.springframework.stereotype.Component;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 @Component
 public class AuditEventConverter {
@@ -23,11 +26,9 @@ public class AuditEventConverter {
         if (persistentAuditEvents == null) {
             return Collections.emptyList();
         }
-        List<AuditEvent> auditEvents = new ArrayList<>();
-        for (PersistentAuditEvent persistentAuditEvent : persistentAuditEvents) {
-            auditEvents.add(convertToAuditEvent(persistentAuditEvent));
-        }
-        return auditEvents;
+        return StreamSupport.stream(persistentAuditEvents.spliterator(), false)
+            .map(this::convertToAuditEvent)
+            .collect(Collectors.toList());
     }
 
     /**
@@ -44,19 +45,20 @@ public class AuditEventConverter {
 
     /**
      * Internal conversion. This is needed to support the current SpringBoot actuator AuditEventRepository interface
+     * <p>
+     * The data is not copied: the result is a read-only view of it, which is loaded now, so that it can still be
+     * read once the session is closed.
+     * </p>
      *
      * @param data the data to convert
      * @return a map of String, Object
      */
     public Map<String, Object> convertDataToObjects(Map<String, String> data) {
-        Map<String, Object> results = new HashMap<>();
-
-        if (data != null) {
-            for (Map.Entry<String, String> entry : data.entrySet()) {
-                results.put(entry.getKey(), entry.getValue());
-            }
+        if (data == null) {
+            return Collections.emptyMap();
         }
-        return results;
+        Hibernate.initialize(data);
+        return Collections.unmodifiableMap(data);
     }
 
     /**
@@ -2,7 +2,10 @@ package com.nuxplanet.issuetracker.domain;
 
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Mapping;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
@@ -19,16 +22,28 @@ import com.nuxplanet.issuetracker.domain.enumeration.Priority;
  */
 @Entity
 @Table(name = "issue")
-@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Document(indexName = "issue")
+@Mapping(mappingPath = "/config/elasticsearch/mappings/issue.json")
 public class Issue implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "issueSequenceGenerator")
+    @GenericGenerator(name = "issueSequenceGenerator",
+        strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+        parameters = {
+            @Parameter(name = "sequence_name", value = "issue_seq"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+        })
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "name", nullable = false)
     private String name;
@@ -49,13 +64,15 @@ public class Issue implements Serializable {
     @Column(name = "priority")
     private Priority priority;
 
-    @Lob
-    @Column(name = "attachment")
-    private byte[] attachment;
-
     @Column(name = "attachment_content_type")
     private String attachmentContentType;
 
+    @Column(name = "attachment_size")
+    private Long attachmentSize;
+
+    @Column(name = "attachment_checksum", length = 64)
+    private String attachmentChecksum;
+
     @Column(name = "comment")
     private String comment;
 
@@ -73,6 +90,14 @@ public class Issue implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
@@ -138,30 +163,43 @@ public class Issue implements Serializable {
         this.priority = priority;
     }
 
-    public byte[] getAttachment() {
-        return attachment;
+    public String getAttachmentContentType() {
+        return attachmentContentType;
     }
 
-    public Issue attachment(byte[] attachment) {
-        this.attachment = attachment;
+    public Issue attachmentContentType(String attachmentContentType) {
+        this.attachmentContentType = attachmentContentType;
         return this;
     }
 
-    public void setAttachment(byte[] attachment) {
-        this.attachment = attachment;
+    public void setAttachmentContentType(String attachmentContentType) {
+        this.attachmentContentType = attachmentContentType;
     }
 
-    public String getAttachmentContentType() {
-        return attachmentContentType;
+    public Long getAttachmentSize() {
+        return attachmentSize;
     }
 
-    public Issue attachmentContentType(String attachmentContentType) {
-        this.attachmentContentType = attachmentContentType;
+    public Issue attachmentSize(Long attachmentSize) {
+        this.attachmentSize = attachmentSize;
         return this;
     }
 
-    public void setAttachmentContentType(String attachmentContentType) {
-        this.attachmentContentType = attachmentContentType;
+    public void setAttachmentSize(Long attachmentSize) {
+        this.attachmentSize = attachmentSize;
+    }
+
+    public String getAttachmentChecksum() {
+        return attachmentChecksum;
+    }
+
+    public Issue attachmentChecksum(String attachmentChecksum) {
+        this.attachmentChecksum = attachmentChecksum;
+        return this;
+    }
+
+    public void setAttachmentChecksum(String attachmentChecksum) {
+        this.attachmentChecksum = attachmentChecksum;
     }
 
     public String getComment() {
@@ -227,13 +265,15 @@ public class Issue implements Serializable {
     public String toString() {
         return "Issue{" +
             "id=" + id +
+            ", version=" + version +
             ", name='" + name + "'" +
             ", description='" + description + "'" +
             ", created='" + created + "'" +
             ", state='" + state + "'" +
             ", priority='" + priority + "'" +
-            ", attachment='" + attachment + "'" +
             ", attachmentContentType='" + attachmentContentType + "'" +
+            ", attachmentSize='" + attachmentSize + "'" +
+            ", attachmentChecksum='" + attachmentChecksum + "'" +
             ", comment='" + comment + "'" +
             '}';
     }
@@ -33,6 +33,11 @@ public class User extends AbstractAuditingEntity implements Serializable {
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
 
+    @JsonIgnore
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @NotNull
     @Pattern(regexp = Constants.LOGIN_REGEX)
     @Size(min = 1, max = 100)
@@ -41,8 +46,8 @@ public class User extends AbstractAuditingEntity implements Serializable {
 
     @JsonIgnore
     @NotNull
-    @Size(min = 60, max = 60)
-    @Column(name = "password_hash",length = 60)
+    @Size(min = 60, max = 100)
+    @Column(name = "password_hash",length = 100)
     private String password;
 
     @Size(max = 50)
@@ -100,6 +105,14 @@ public class User extends AbstractAuditingEntity implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getLogin() {
         return login;
     }
@@ -0,0 +1,33 @@
+package com.nuxplanet.issuetracker.domain.util;
+
+import org.hibernate.HibernateException;
+import org.hibernate.cache.spi.access.EntityRegionAccessStrategy;
+import org.hibernate.cache.spi.access.NaturalIdRegionAccessStrategy;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.ExecuteUpdateResultCheckStyle;
+import org.hibernate.engine.spi.Mapping;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.mapping.PersistentClass;
+import org.hibernate.persister.entity.SingleTableEntityPersister;
+
+import java.util.Arrays;
+
+/**
+ * Persister of an entity whose table is partitioned on PostgreSQL.
+ * <p>
+ * There, an insert trigger moves each row to the table of its partition, so that the insert count is 0: it is not
+ * checked. On the other databases, the table is not partitioned and the insert count is checked as usual.
+ * </p>
+ */
+public class PartitionedEntityPersister extends SingleTableEntityPersister {
+
+    public PartitionedEntityPersister(PersistentClass persistentClass, EntityRegionAccessStrategy cacheAccessStrategy,
+        NaturalIdRegionAccessStrategy naturalIdRegionAccessStrategy, SessionFactoryImplementor factory,
+        Mapping mapping) throws HibernateException {
+
+        super(persistentClass, cacheAccessStrategy, naturalIdRegionAccessStrategy, factory, mapping);
+        if (factory.getDialect() instanceof PostgreSQL81Dialect) {
+            Arrays.fill(insertResultCheckStyles, ExecuteUpdateResultCheckStyle.NONE);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.nuxplanet.issuetracker.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.inject.Inject;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Repository removing old audit events.
+ * <p>
+ * On PostgreSQL, audit events are stored in one table per month, named "jhi_persistent_audit_event_yYYYYmMM",
+ * which inherit from "jhi_persistent_audit_event" and are created by its insert trigger. Queries on the event date
+ * only read the tables of the matching months, and old months are removed by dropping their table. Other databases
+ * keep a single table, whose old rows are deleted.
+ * </p>
+ */
+@Repository
+public class AuditEventPartitionRepository {
+
+    private static final Pattern PARTITION = Pattern.compile("jhi_persistent_audit_event_y(\\d{4})m(\\d{2})");
+
+    private final Logger log = LoggerFactory.getLogger(AuditEventPartitionRepository.class);
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean partitioned;
+
+    /**
+     * Remove the audit events of the months before the given month.
+     *
+     * @param month the first month whose events are kept
+     * @return the number of removed months on PostgreSQL, or of removed events on other databases
+     */
+    @Transactional
+    public int deleteBefore(YearMonth month) {
+        if (isPartitioned()) {
+            return dropPartitionsBefore(month);
+        }
+        Timestamp before = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        jdbcTemplate.update("delete from jhi_persistent_audit_evt_data where event_id in " +
+            "(select event_id from jhi_persistent_audit_event where event_date < ?)", before);
+        return jdbcTemplate.update("delete from jhi_persistent_audit_event where event_date < ?", before);
+    }
+
+    private int dropPartitionsBefore(YearMonth month) {
+        List<String> partitions = jdbcTemplate.queryForList("select child.relname from pg_inherits " +
+            "join pg_class child on child.oid = pg_inherits.inhrelid " +
+            "join pg_class parent on parent.oid = pg_inherits.inhparent " +
+            "where parent.relname = 'jhi_persistent_audit_event' and pg_table_is_visible(child.oid)", String.class);
+        int dropped = 0;
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION.matcher(partition);
+            if (matcher.matches() &&
+                YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))).isBefore(month)) {
+                log.debug("Dropping audit event partition {}", partition);
+                jdbcTemplate.update("delete from jhi_persistent_audit_evt_data where event_id in " +
+                    "(select event_id from " + partition + ")");
+                jdbcTemplate.execute("drop table " + partition);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            try {
+                partitioned = "PostgreSQL".equals(
+                    JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(), "getDatabaseProductName"));
+            } catch (MetaDataAccessException e) {
+                throw new IllegalStateException("Could not find the database product name", e);
+            }
+        }
+        return partitioned;
+    }
+}
@@ -0,0 +1,208 @@
+package com.nuxplanet.issuetracker.repository;
+
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
+import com.nuxplanet.issuetracker.domain.PersistentAuditEvent;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writer inserting the audit events in the database.
+ * <p>
+ * In asynchronous mode (the default), events are put in a bounded queue, and a background thread inserts them in
+ * batches of "batchSize" events, each batch in one transaction, as soon as they are waiting or "flushIntervalMs" has
+ * elapsed. Authentication requests therefore do not wait for the audit tables. When the queue is full, the
+ * "overflowPolicy" either drops the event, which is counted, or blocks the caller until there is room, for up to
+ * "blockTimeoutMs". The queue is flushed when the application shuts down.
+ * </p>
+ * <p>
+ * A batch which cannot be inserted is retried up to "maxRetries" times, waiting "retryBackoffMs" before the first
+ * retry and twice as long before each next one, then dropped and counted.
+ * </p>
+ * <p>
+ * In synchronous mode, events are inserted immediately, in the calling thread: this is what the tests use.
+ * </p>
+ */
+@Component
+public class AuditEventWriter {
+
+    private final Logger log = LoggerFactory.getLogger(AuditEventWriter.class);
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private EntityManager em;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    private TransactionTemplate transactionTemplate;
+
+    private BlockingQueue<PersistentAuditEvent> queue;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    private Meter written;
+
+    private Meter dropped;
+
+    private Meter failed;
+
+    private Counter retries;
+
+    private Histogram batchSizes;
+
+    @PostConstruct
+    public void init() {
+        JHipsterProperties.Audit audit = jHipsterProperties.getAudit();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        queue = new ArrayBlockingQueue<>(audit.getQueueCapacity());
+        metricRegistry.register(MetricRegistry.name(AuditEventWriter.class, "queue-depth"),
+            (Gauge<Integer>) queue::size);
+        written = metricRegistry.meter(MetricRegistry.name(AuditEventWriter.class, "written"));
+        dropped = metricRegistry.meter(MetricRegistry.name(AuditEventWriter.class, "dropped"));
+        failed = metricRegistry.meter(MetricRegistry.name(AuditEventWriter.class, "failed"));
+        retries = metricRegistry.counter(MetricRegistry.name(AuditEventWriter.class, "retries"));
+        batchSizes = metricRegistry.histogram(MetricRegistry.name(AuditEventWriter.class, "batch-size"));
+        if (audit.isAsync()) {
+            log.debug("Starting asynchronous audit event writing");
+            running = true;
+            worker = new Thread(this::drain, "audit-event-writer");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        if (worker != null) {
+            log.info("Flushing {} pending audit events", queue.size());
+            running = false;
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    /**
+     * Insert an audit event, in the background in asynchronous mode.
+     *
+     * @param event the event to insert
+     */
+    public void write(PersistentAuditEvent event) {
+        if (worker == null) {
+            flush(Collections.singletonList(event));
+        } else if (jHipsterProperties.getAudit().getOverflowPolicy() == JHipsterProperties.Audit.OverflowPolicy.BLOCK) {
+            try {
+                if (!queue.offer(event, jHipsterProperties.getAudit().getBlockTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                    dropped.mark();
+                    log.debug("Audit event queue is still full, dropped {} event of {}", event.getAuditEventType(),
+                        event.getPrincipal());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.mark();
+            }
+        } else if (!queue.offer(event)) {
+            dropped.mark();
+            log.debug("Audit event queue is full, dropped {} event of {}", event.getAuditEventType(),
+                event.getPrincipal());
+        }
+    }
+
+    /**
+     * @return the number of events waiting to be inserted
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void drain() {
+        JHipsterProperties.Audit audit = jHipsterProperties.getAudit();
+        List<PersistentAuditEvent> batch = new ArrayList<>(audit.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PersistentAuditEvent event = queue.poll(audit.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    batch.add(event);
+                    queue.drainTo(batch, audit.getBatchSize() - 1);
+                }
+            } catch (InterruptedException e) {
+                // Shutting down: write what was taken, then drain the rest of the queue without waiting
+                running = false;
+                queue.drainTo(batch, audit.getBatchSize() - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+        log.debug("Asynchronous audit event writing stopped");
+    }
+
+    /**
+     * Insert events in a new transaction, so that Hibernate sends them as JDBC batches, retrying a failed batch.
+     */
+    private void flush(List<PersistentAuditEvent> events) {
+        JHipsterProperties.Audit audit = jHipsterProperties.getAudit();
+        batchSizes.update(events.size());
+        for (int attempt = 0; ; attempt++) {
+            if (attempt > 0) {
+                retries.inc();
+                try {
+                    Thread.sleep(audit.getRetryBackoffMs() << Math.min(attempt - 1, 10));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                // The rolled back transaction left the events detached
+                events.forEach(event -> {
+                    event.setId(null);
+                    event.setData(new HashMap<>(event.getData()));
+                });
+            }
+            try {
+                transactionTemplate.execute(status -> {
+                    events.forEach(em::persist);
+                    return null;
+                });
+                written.mark(events.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= audit.getMaxRetries()) {
+                    log.error("Could not insert {} audit events after {} retries: {}", events.size(),
+                        audit.getMaxRetries(), e.getMessage());
+                    failed.mark(events.size());
+                    return;
+                }
+                log.warn("Could not insert {} audit events, retrying: {}", events.size(), e.getMessage());
+            }
+        }
+    }
+}
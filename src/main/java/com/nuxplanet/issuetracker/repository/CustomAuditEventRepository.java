@@ -1,67 +1,131 @@
 package com.nuxplanet.issuetracker.repository;
 
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
 import com.nuxplanet.issuetracker.config.audit.AuditEventConverter;
 import com.nuxplanet.issuetracker.domain.PersistentAuditEvent;
 
+import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.springframework.boot.actuate.audit.AuditEvent;
-import org.springframework.boot.actuate.audit.AuditEventRepository;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.Date;
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * An implementation of Spring Boot's AuditEventRepository.
+ * An implementation of Spring Boot's AuditEventRepository, which can also stream the audit events.
+ * <p>
+ * Events are inserted by the {@link AuditEventWriter}, in the background, so that they may be found a little
+ * after they are added.
+ * </p>
+ * <p>
+ * Events are found by streaming a forward-only cursor, newest first, converting and evicting each event as it is
+ * read, and stop after the "maxQueryResults" newest events, so that finding the events of a large date range runs in
+ * bounded memory.
+ * </p>
  */
 @Repository
-public class CustomAuditEventRepository implements AuditEventRepository {
+public class CustomAuditEventRepository implements StreamingAuditEventRepository {
 
     private static final String AUTHORIZATION_FAILURE = "AUTHORIZATION_FAILURE";
 
     private static final String ANONYMOUS_USER = "anonymoususer";
 
+    private static final int FETCH_SIZE = 100;
+
     @Inject
-    private PersistenceAuditEventRepository persistenceAuditEventRepository;
+    private EntityManager em;
 
     @Inject
     private AuditEventConverter auditEventConverter;
 
+    @Inject
+    private AuditEventWriter auditEventWriter;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
     @Override
+    @Transactional(readOnly = true)
     public List<AuditEvent> find(Date after) {
-        Iterable<PersistentAuditEvent> persistentAuditEvents =
-            persistenceAuditEventRepository.findByAuditEventDateAfter(LocalDateTime.from(after.toInstant()));
-        return auditEventConverter.convertToAuditEvent(persistentAuditEvents);
+        return find(null, after, null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<AuditEvent> find(String principal, Date after) {
-        Iterable<PersistentAuditEvent> persistentAuditEvents;
-        if (principal == null && after == null) {
-            persistentAuditEvents = persistenceAuditEventRepository.findAll();
-        } else if (after == null) {
-            persistentAuditEvents = persistenceAuditEventRepository.findByPrincipal(principal);
-        } else {
-            persistentAuditEvents =
-                persistenceAuditEventRepository.findByPrincipalAndAuditEventDateAfter(principal, LocalDateTime.from(after.toInstant()));
-        }
-        return auditEventConverter.convertToAuditEvent(persistentAuditEvents);
+        return find(principal, after, null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<AuditEvent> find(String principal, Date after, String type) {
-        Iterable<PersistentAuditEvent> persistentAuditEvents =
-            persistenceAuditEventRepository.findByPrincipalAndAuditEventDateAfterAndAuditEventType(principal, LocalDateTime.from(after.toInstant()), type);
-        return auditEventConverter.convertToAuditEvent(persistentAuditEvents);
+        try (Stream<AuditEvent> auditEvents = stream(principal, after, type)) {
+            return auditEvents.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Stream the audit events, ordered by descending id, up to the "maxQueryResults" newest events.
+     */
+    @Override
+    public Stream<AuditEvent> stream(String principal, Date after, String type) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Audit events can only be streamed inside a transaction");
+        }
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        if (principal != null) {
+            conditions.add("event.principal = :principal");
+            parameters.put("principal", principal);
+        }
+        if (after != null) {
+            conditions.add("event.auditEventDate > :after");
+            parameters.put("after", LocalDateTime.ofInstant(after.toInstant(), ZoneId.systemDefault()));
+        }
+        if (type != null) {
+            conditions.add("event.auditEventType = :type");
+            parameters.put("type", type);
+        }
+        Session session = em.unwrap(Session.class);
+        Query query = session.createQuery("select event from PersistentAuditEvent event left join fetch event.data" +
+            (conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions)) + " order by event.id desc")
+            .setReadOnly(true)
+            .setFetchSize(FETCH_SIZE);
+        parameters.forEach(query::setParameter);
+        ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY);
+        Spliterator<AuditEvent> auditEvents = new Spliterators.AbstractSpliterator<AuditEvent>(Long.MAX_VALUE,
+            Spliterator.ORDERED | Spliterator.NONNULL) {
+
+            @Override
+            public boolean tryAdvance(Consumer<? super AuditEvent> action) {
+                if (!results.next()) {
+                    return false;
+                }
+                PersistentAuditEvent persistentAuditEvent = (PersistentAuditEvent) results.get(0);
+                action.accept(auditEventConverter.convertToAuditEvent(persistentAuditEvent));
+                session.evict(persistentAuditEvent);
+                return true;
+            }
+        };
+        return StreamSupport.stream(auditEvents, false)
+            .onClose(results::close)
+            .limit(jHipsterProperties.getAudit().getMaxQueryResults());
     }
 
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void add(AuditEvent event) {
         if (!AUTHORIZATION_FAILURE.equals(event.getType()) &&
             !ANONYMOUS_USER.equals(event.getPrincipal().toString())) {
@@ -72,7 +136,7 @@ public class CustomAuditEventRepository implements AuditEventRepository {
             Instant instant = Instant.ofEpochMilli(event.getTimestamp().getTime());
             persistentAuditEvent.setAuditEventDate(LocalDateTime.ofInstant(instant, ZoneId.systemDefault()));
             persistentAuditEvent.setData(auditEventConverter.convertDataToStrings(event.getData()));
-            persistenceAuditEventRepository.save(persistentAuditEvent);
+            auditEventWriter.write(persistentAuditEvent);
         }
     }
 }
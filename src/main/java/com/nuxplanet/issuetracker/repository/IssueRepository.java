@@ -1,21 +1,113 @@
 package com.nuxplanet.issuetracker.repository;
 
 import com.nuxplanet.issuetracker.domain.Issue;
+import com.nuxplanet.issuetracker.domain.enumeration.State;
+import com.nuxplanet.issuetracker.service.dto.IssueCountDTO;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
  * Spring Data JPA repository for the Issue entity.
  */
 @SuppressWarnings("unused")
-public interface IssueRepository extends JpaRepository<Issue,Long> {
+public interface IssueRepository extends JpaRepository<Issue,Long>, JpaSpecificationExecutor<Issue>,
+    IssueRepositoryCustom {
+
+    /**
+     * Query cache region of the issues of the current user. Its results are invalidated by Hibernate whenever the
+     * issue or user tables are written.
+     */
+    String CURRENT_USER_ISSUES_CACHE = "com.nuxplanet.issuetracker.repository.IssueRepository.currentUserIssues";
 
     @Query("select issue from Issue issue where issue.originator.login = ?#{principal.username}")
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = CURRENT_USER_ISSUES_CACHE)
+    })
     List<Issue> findByOriginatorIsCurrentUser();
 
     @Query("select issue from Issue issue where issue.assignee.login = ?#{principal.username}")
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = CURRENT_USER_ISSUES_CACHE)
+    })
     List<Issue> findByAssigneeIsCurrentUser();
 
+    /*
+     * Issues of one user: they are filtered on the foreign key, using the (assignee_id, state, priority, created)
+     * and (originator_id, created) indexes, and their users are fetched by the same query.
+     */
+
+    @Query(value = "select issue from Issue issue left join fetch issue.originator left join fetch issue.assignee " +
+        "where issue.assignee.id = ?1",
+        countQuery = "select count(issue) from Issue issue where issue.assignee.id = ?1")
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = CURRENT_USER_ISSUES_CACHE)
+    })
+    Page<Issue> findByAssigneeId(Long assigneeId, Pageable pageable);
+
+    @Query(value = "select issue from Issue issue left join fetch issue.originator left join fetch issue.assignee " +
+        "where issue.assignee.id = ?1 and issue.state = ?2",
+        countQuery = "select count(issue) from Issue issue where issue.assignee.id = ?1 and issue.state = ?2")
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = CURRENT_USER_ISSUES_CACHE)
+    })
+    Page<Issue> findByAssigneeIdAndState(Long assigneeId, State state, Pageable pageable);
+
+    @Query(value = "select issue from Issue issue left join fetch issue.originator left join fetch issue.assignee " +
+        "where issue.originator.id = ?1",
+        countQuery = "select count(issue) from Issue issue where issue.originator.id = ?1")
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = CURRENT_USER_ISSUES_CACHE)
+    })
+    Page<Issue> findByOriginatorId(Long originatorId, Pageable pageable);
+
+    /*
+     * Keyset pagination: the sort (key, id) is carried by the pageable, which must always ask for the first page,
+     * and slices are returned so that no count query is run.
+     */
+
+    @Query("select issue from Issue issue")
+    Slice<Issue> findSliceBy(Pageable pageable);
+
+    @Query("select issue from Issue issue where issue.id > ?1")
+    Slice<Issue> findSliceByIdAfter(Long id, Pageable pageable);
+
+    @Query("select issue from Issue issue where issue.id < ?1")
+    Slice<Issue> findSliceByIdBefore(Long id, Pageable pageable);
+
+    @Query("select issue from Issue issue where issue.created > ?1 or (issue.created = ?1 and issue.id > ?2)")
+    Slice<Issue> findSliceByCreatedAfter(LocalDate created, Long id, Pageable pageable);
+
+    @Query("select issue from Issue issue where issue.created < ?1 or (issue.created = ?1 and issue.id < ?2)")
+    Slice<Issue> findSliceByCreatedBefore(LocalDate created, Long id, Pageable pageable);
+
+    @Query("select new com.nuxplanet.issuetracker.service.dto.IssueCountDTO(issue.state, issue.priority, " +
+        "issue.assignee.id, count(issue)) from Issue issue group by issue.state, issue.priority, issue.assignee.id")
+    List<IssueCountDTO> countByStateAndPriorityAndAssignee();
+
+    /*
+     * Reindexing: the id range of the issues, and the issues of an id range, read by chunks with their users.
+     */
+
+    @Query("select min(issue.id) from Issue issue")
+    Long findMinId();
+
+    @Query("select max(issue.id) from Issue issue")
+    Long findMaxId();
+
+    @Query("select issue from Issue issue left join fetch issue.originator left join fetch issue.assignee " +
+        "where issue.id > ?1 and issue.id <= ?2 order by issue.id")
+    List<Issue> findAllByIdRange(Long after, Long last, Pageable pageable);
+
 }
@@ -0,0 +1,25 @@
+package com.nuxplanet.issuetracker.repository;
+
+import com.nuxplanet.issuetracker.domain.Issue;
+import com.nuxplanet.issuetracker.service.dto.IssueSummaryDTO;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Queries of the {@link IssueRepository} which Spring Data JPA cannot derive, implemented by
+ * {@link IssueRepositoryImpl}.
+ */
+public interface IssueRepositoryCustom {
+
+    /**
+     * Get the summaries of the issues matching a specification, with a constructor projection of the narrow
+     * columns which joins the users only to read their login.
+     *
+     * @param specification the specification which the issues must match, or null for all the issues
+     * @param pageable the pagination information
+     * @return the page of summaries
+     */
+    Page<IssueSummaryDTO> findAllSummaries(Specification<Issue> specification, Pageable pageable);
+}
@@ -0,0 +1,84 @@
+package com.nuxplanet.issuetracker.repository;
+
+import com.nuxplanet.issuetracker.domain.Issue;
+import com.nuxplanet.issuetracker.domain.User;
+import com.nuxplanet.issuetracker.service.dto.IssueSummaryDTO;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of the {@link IssueRepositoryCustom} queries, with the JPA criteria API so that they accept the
+ * same specifications as the derived queries.
+ */
+public class IssueRepositoryImpl implements IssueRepositoryCustom {
+
+    @Inject
+    private EntityManager em;
+
+    @Override
+    public Page<IssueSummaryDTO> findAllSummaries(Specification<Issue> specification, Pageable pageable) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<IssueSummaryDTO> query = cb.createQuery(IssueSummaryDTO.class);
+        Root<Issue> issue = query.from(Issue.class);
+        Join<Issue, User> assignee = issue.join("assignee", JoinType.LEFT);
+        Join<Issue, User> originator = issue.join("originator", JoinType.LEFT);
+        query.select(cb.construct(IssueSummaryDTO.class, issue.get("id"), issue.get("name"), issue.get("state"),
+            issue.get("priority"), issue.get("created"), assignee.get("login"), originator.get("login")));
+        where(query, issue, cb, specification);
+        if (pageable.getSort() != null) {
+            List<Order> orders = new ArrayList<>();
+            for (Sort.Order order : pageable.getSort()) {
+                // The logins are properties of the summaries, read from the joined users
+                Expression<?> login = "assigneeLogin".equals(order.getProperty()) ? assignee.get("login") :
+                    "originatorLogin".equals(order.getProperty()) ? originator.get("login") : null;
+                if (login == null) {
+                    orders.addAll(QueryUtils.toOrders(new Sort(order), issue, cb));
+                } else {
+                    orders.add(order.isAscending() ? cb.asc(login) : cb.desc(login));
+                }
+            }
+            query.orderBy(orders);
+        }
+        List<IssueSummaryDTO> content = em.createQuery(query)
+            .setFirstResult(pageable.getOffset())
+            .setMaxResults(pageable.getPageSize())
+            .getResultList();
+        return new PageImpl<>(content, pageable, count(specification));
+    }
+
+    private long count(Specification<Issue> specification) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Issue> issue = query.from(Issue.class);
+        query.select(cb.count(issue));
+        where(query, issue, cb, specification);
+        return em.createQuery(query).getSingleResult();
+    }
+
+    private static void where(CriteriaQuery<?> query, Root<Issue> issue, CriteriaBuilder cb,
+        Specification<Issue> specification) {
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(issue, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
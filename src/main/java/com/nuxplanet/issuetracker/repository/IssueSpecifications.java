@@ -0,0 +1,62 @@
+package com.nuxplanet.issuetracker.repository;
+
+import com.nuxplanet.issuetracker.domain.Issue;
+import com.nuxplanet.issuetracker.domain.enumeration.Priority;
+import com.nuxplanet.issuetracker.domain.enumeration.State;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.JoinType;
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * JPA Specifications filtering issues, to be combined with
+ * {@link org.springframework.data.jpa.domain.Specifications}.
+ * <p>
+ * Users are matched on the foreign key columns, so that no join is needed to filter.
+ * </p>
+ */
+public final class IssueSpecifications {
+
+    private IssueSpecifications() {
+    }
+
+    public static Specification<Issue> stateIn(Collection<State> states) {
+        return (root, query, cb) -> root.get("state").in(states);
+    }
+
+    public static Specification<Issue> priorityIn(Collection<Priority> priorities) {
+        return (root, query, cb) -> root.get("priority").in(priorities);
+    }
+
+    public static Specification<Issue> assigneeIs(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("assignee").get("id"), userId);
+    }
+
+    public static Specification<Issue> originatorIs(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("originator").get("id"), userId);
+    }
+
+    public static Specification<Issue> createdFrom(LocalDate date) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.<LocalDate>get("created"), date);
+    }
+
+    public static Specification<Issue> createdTo(LocalDate date) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.<LocalDate>get("created"), date);
+    }
+
+    /**
+     * Fetch the originator and assignee with the issues, instead of selecting them one by one afterwards. The
+     * count query of a page is left without fetches.
+     */
+    public static Specification<Issue> fetchUsers() {
+        return (root, query, cb) -> {
+            if (!Long.class.equals(query.getResultType())) {
+                root.fetch("originator", JoinType.LEFT);
+                root.fetch("assignee", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+}
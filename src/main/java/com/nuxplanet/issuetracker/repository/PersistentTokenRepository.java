@@ -3,8 +3,13 @@ package com.nuxplanet.issuetracker.repository;
 import com.nuxplanet.issuetracker.domain.PersistentToken;
 import com.nuxplanet.issuetracker.domain.User;
 import java.time.LocalDate;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -16,4 +21,27 @@ public interface PersistentTokenRepository extends JpaRepository<PersistentToken
 
     List<PersistentToken> findByTokenDateBefore(LocalDate localDate);
 
+    @Query("select token.series from PersistentToken token where token.tokenDate < ?1")
+    List<String> findSeriesByTokenDateBefore(LocalDate localDate, Pageable pageable);
+
+    @Modifying
+    @Query("delete from PersistentToken token where token.series in ?1")
+    int deleteBySeriesIn(Collection<String> series);
+
+    @Modifying
+    @Query("delete from PersistentToken token where token.user.id in ?1")
+    int deleteByUserIdIn(Collection<Long> userIds);
+
+    /**
+     * Refresh a token, if its value is still the expected one.
+     *
+     * @return 1 if the token was refreshed, 0 if it was deleted or its value changed
+     */
+    @Modifying
+    @Transactional
+    @Query("update PersistentToken token set token.tokenValue = ?3, token.tokenDate = ?4, token.ipAddress = ?5, " +
+        "token.userAgent = ?6 where token.series = ?1 and token.tokenValue = ?2")
+    int refreshIfTokenValue(String series, String expectedTokenValue, String tokenValue, LocalDate tokenDate,
+        String ipAddress, String userAgent);
+
 }
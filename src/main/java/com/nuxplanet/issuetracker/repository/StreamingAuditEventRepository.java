@@ -0,0 +1,26 @@
+package com.nuxplanet.issuetracker.repository;
+
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.boot.actuate.audit.AuditEventRepository;
+
+import java.util.Date;
+import java.util.stream.Stream;
+
+/**
+ * An AuditEventRepository which can also stream the audit events, instead of returning them in a list.
+ */
+public interface StreamingAuditEventRepository extends AuditEventRepository {
+
+    /**
+     * Stream the audit events, ordered by id.
+     * <p>
+     * The stream reads a database cursor: it must be consumed inside a transaction, then closed.
+     * </p>
+     *
+     * @param principal the principal of the events, or null for all the principals
+     * @param after the date the events are after, or null for all the dates
+     * @param type the type of the events, or null for all the types
+     * @return the events
+     */
+    Stream<AuditEvent> stream(String principal, Date after, String type);
+}
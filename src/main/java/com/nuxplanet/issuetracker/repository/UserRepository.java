@@ -1,13 +1,17 @@
 package com.nuxplanet.issuetracker.repository;
 
 import com.nuxplanet.issuetracker.domain.User;
+import com.nuxplanet.issuetracker.service.dto.UserSuggestionDTO;
 
 import java.time.ZonedDateTime;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,16 +24,42 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     List<User> findAllByActivatedIsFalseAndCreatedDateBefore(ZonedDateTime dateTime);
 
+    @Query("select user.id from User user where user.activated = false and user.createdDate < ?1")
+    List<Long> findIdsByActivatedIsFalseAndCreatedDateBefore(ZonedDateTime dateTime, Pageable pageable);
+
+    @Modifying
+    @Query("delete from User user where user.id in ?1")
+    int deleteByIdIn(Collection<Long> ids);
+
     Optional<User> findOneByResetKey(String resetKey);
 
     Optional<User> findOneByEmail(String email);
 
     Optional<User> findOneByLogin(String login);
 
+    @EntityGraph(attributePaths = "authorities")
+    Optional<User> findOneWithAuthoritiesByLogin(String login);
+
+    @Query("select user.id from User user where user.login = ?1")
+    Optional<Long> findIdByLogin(String login);
+
     @Query(value = "select distinct user from User user left join fetch user.authorities",
         countQuery = "select count(user) from User user")
     Page<User> findAllWithAuthorities(Pageable pageable);
 
+    @Query("select new com.nuxplanet.issuetracker.service.dto.UserSuggestionDTO(user.id, user.login, " +
+        "user.firstName, user.lastName) from User user where user.activated = true")
+    List<UserSuggestionDTO> findAllSuggestions();
+
+    @Query("select min(user.id) from User user")
+    Long findMinId();
+
+    @Query("select max(user.id) from User user")
+    Long findMaxId();
+
+    @Query("select user from User user where user.id > ?1 and user.id <= ?2 order by user.id")
+    List<User> findAllByIdRange(Long after, Long last, Pageable pageable);
+
     @Override
     void delete(User t);
 
@@ -10,7 +10,8 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
 /**
- * Returns a 401 error code (Unauthorized) to the client, when Ajax authentication fails.
+ * Returns a 401 error code (Unauthorized) to the client, when Ajax authentication fails, or a 503 error code
+ * (Service Unavailable) when the password could not be checked because too many passwords are being hashed.
  */
 @Component
 public class AjaxAuthenticationFailureHandler extends SimpleUrlAuthenticationFailureHandler {
@@ -19,6 +20,10 @@ public class AjaxAuthenticationFailureHandler extends SimpleUrlAuthenticationFai
     public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response,
         AuthenticationException exception) throws IOException, ServletException {
 
-        response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Authentication failed");
+        if (exception.getCause() instanceof PasswordHashingRejectedException) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Authentication unavailable");
+        } else {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Authentication failed");
+        }
     }
 }
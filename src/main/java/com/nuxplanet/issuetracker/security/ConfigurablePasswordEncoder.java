@@ -0,0 +1,150 @@
+package com.nuxplanet.issuetracker.security;
+
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Password encoder hashing with the configured algorithm and cost, on a bounded pool of threads.
+ * <p>
+ * Hashes are either BCrypt hashes, which contain their strength ("$2a$10$..."), or "{pbkdf2:iterations}" followed
+ * by a hex PBKDF2 hash. Any of them is matched, whatever the configured algorithm and cost, and
+ * {@link #upgradeEncoding(String)} tells which ones should be hashed again when their user logs in.
+ * </p>
+ * <p>
+ * Hashing is CPU bound: the pool bounds how many threads hash at the same time, and its queue how many wait. When
+ * the queue is full, or a hash is not ready within the configured timeout, a
+ * {@link PasswordHashingRejectedException} is thrown, which is answered with 503 Service Unavailable, instead of
+ * letting a burst of logins slow down every request.
+ * </p>
+ */
+public class ConfigurablePasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    public static final String BCRYPT = "bcrypt";
+
+    public static final String PBKDF2 = "pbkdf2";
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\$2a?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private static final Pattern PBKDF2_HASH = Pattern.compile("\\{pbkdf2:(\\d+)}([0-9a-f]+)");
+
+    private final String algorithm;
+
+    private final int cost;
+
+    private final long timeoutMs;
+
+    private final BCryptPasswordEncoder bcrypt;
+
+    private final ConcurrentMap<Integer, Pbkdf2PasswordEncoder> pbkdf2 = new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor executor;
+
+    private final Meter rejected;
+
+    private final Timer hashing;
+
+    public ConfigurablePasswordEncoder(JHipsterProperties.Security.Password password, MetricRegistry metricRegistry) {
+        algorithm = password.getAlgorithm();
+        if (BCRYPT.equals(algorithm)) {
+            cost = password.getBcryptStrength();
+        } else if (PBKDF2.equals(algorithm)) {
+            cost = password.getPbkdf2Iterations();
+        } else {
+            throw new IllegalArgumentException("Unknown password hashing algorithm: " + algorithm);
+        }
+        timeoutMs = password.getTimeoutMs();
+        bcrypt = new BCryptPasswordEncoder(password.getBcryptStrength());
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(password.getPoolSize(), password.getPoolSize(), 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(password.getQueueCapacity()), runnable -> {
+                Thread thread = new Thread(runnable, "password-hashing-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        metricRegistry.register(MetricRegistry.name(ConfigurablePasswordEncoder.class, "queue-depth"),
+            (Gauge<Integer>) () -> executor.getQueue().size());
+        rejected = metricRegistry.meter(MetricRegistry.name(ConfigurablePasswordEncoder.class, "rejected"));
+        hashing = metricRegistry.timer(MetricRegistry.name(ConfigurablePasswordEncoder.class, "hashing"));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        if (BCRYPT.equals(algorithm)) {
+            return hash(() -> bcrypt.encode(rawPassword));
+        }
+        return hash(() -> "{pbkdf2:" + cost + "}" + pbkdf2(cost).encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher pbkdf2Hash = PBKDF2_HASH.matcher(encodedPassword);
+        if (pbkdf2Hash.matches()) {
+            PasswordEncoder encoder = pbkdf2(Integer.parseInt(pbkdf2Hash.group(1)));
+            return hash(() -> encoder.matches(rawPassword, pbkdf2Hash.group(2)));
+        }
+        return hash(() -> bcrypt.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * @param encodedPassword a hash matched by this encoder
+     * @return true if the hash was not made with the configured algorithm and cost
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher hash = (BCRYPT.equals(algorithm) ? BCRYPT_HASH : PBKDF2_HASH).matcher(encodedPassword);
+        return !hash.matches() || Integer.parseInt(hash.group(1)) != cost;
+    }
+
+    private Pbkdf2PasswordEncoder pbkdf2(int iterations) {
+        return pbkdf2.computeIfAbsent(iterations, i -> new Pbkdf2PasswordEncoder("", i, 256));
+    }
+
+    private <T> T hash(Callable<T> task) {
+        Future<T> result;
+        try {
+            result = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.mark();
+            throw new PasswordHashingRejectedException("Too many passwords are waiting to be hashed");
+        }
+        try (Timer.Context context = hashing.time()) {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejected.mark();
+            throw new PasswordHashingRejectedException("Timed out waiting for a password hash");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new PasswordHashingRejectedException("Interrupted while waiting for a password hash");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
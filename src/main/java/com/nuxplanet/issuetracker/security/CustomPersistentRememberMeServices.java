@@ -33,6 +33,9 @@ import java.util.Arrays;
  * <li>It allows a user to see the list of his currently opened sessions, and invalidate them</li>
  * <li>It stores more information, such as the IP address and the user agent, for audit purposes<li>
  * <li>When a user logs out, only his current session is invalidated, and not all of his sessions</li>
+ * <li>The token value is refreshed with a compare-and-set, so that two requests refreshing the same token cannot
+ * both succeed, and the refresh can be written behind by the {@link PersistentTokenWriter}, so that an automatic
+ * login does not wait for the database</li>
  * </ul>
  * <p>
  * This is inspired by:
@@ -68,12 +71,18 @@ public class CustomPersistentRememberMeServices extends
     @Inject
     private UserRepository userRepository;
 
+    @Inject
+    private PersistentTokenWriter persistentTokenWriter;
+
+    private final boolean writeBehind;
+
     @Inject
     public CustomPersistentRememberMeServices(JHipsterProperties jHipsterProperties, org.springframework.security.core.userdetails
         .UserDetailsService userDetailsService) {
 
         super(jHipsterProperties.getSecurity().getRememberMe().getKey(), userDetailsService);
         random = new SecureRandom();
+        writeBehind = jHipsterProperties.getSecurity().getRememberMe().isWriteBehind();
     }
 
     @Override
@@ -85,17 +94,29 @@ public class CustomPersistentRememberMeServices extends
 
         // Token also matches, so login is valid. Update the token value, keeping the *same* series number.
         log.debug("Refreshing persistent login token for user '{}', series '{}'", login, token.getSeries());
+        String previousTokenValue = token.getTokenValue();
         token.setTokenDate(LocalDate.now());
         token.setTokenValue(generateTokenData());
         token.setIpAddress(request.getRemoteAddr());
         token.setUserAgent(request.getHeader("User-Agent"));
-        try {
-            persistentTokenRepository.saveAndFlush(token);
+        if (writeBehind) {
+            persistentTokenWriter.refresh(token, previousTokenValue);
             addCookie(token, request, response);
+            return getUserDetailsService().loadUserByUsername(login);
+        }
+        int refreshed;
+        try {
+            refreshed = persistentTokenRepository.refreshIfTokenValue(token.getSeries(), previousTokenValue,
+                token.getTokenValue(), token.getTokenDate(), token.getIpAddress(), token.getUserAgent());
         } catch (DataAccessException e) {
             log.error("Failed to update token: ", e);
             throw new RememberMeAuthenticationException("Autologin failed due to data access problem", e);
         }
+        if (refreshed == 0) {
+            // Another request with the same cookie refreshed or deleted the token first
+            throw new RememberMeAuthenticationException("Remember-me token was refreshed concurrently");
+        }
+        addCookie(token, request, response);
         return getUserDetailsService().loadUserByUsername(login);
     }
 
@@ -139,6 +160,7 @@ public class CustomPersistentRememberMeServices extends
                 String[] cookieTokens = decodeCookie(rememberMeCookie);
                 PersistentToken token = getPersistentToken(cookieTokens);
                 persistentTokenRepository.delete(token);
+                persistentTokenWriter.remove(token.getSeries());
             } catch (InvalidCookieException ice) {
                 log.info("Invalid cookie, no persistent token could be deleted", ice);
             } catch (RememberMeAuthenticationException rmae) {
@@ -164,6 +186,9 @@ public class CustomPersistentRememberMeServices extends
             // No series match, so we can't authenticate using this cookie
             throw new RememberMeAuthenticationException("No persistent token found for series id: " + presentedSeries);
         }
+        if (writeBehind) {
+            persistentTokenWriter.applyPending(token);
+        }
 
         // We have a match for this user/series combination
         log.info("presentedToken={} / tokenValue={}", presentedToken, token.getTokenValue());
@@ -0,0 +1,21 @@
+package com.nuxplanet.issuetracker.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This exception is thrown when too many passwords are waiting to be hashed, or a hash takes too long.
+ * <p>
+ * It is not an authentication exception, as registering or changing a password hashes passwords too: the
+ * {@link UpgradingAuthenticationProvider} wraps it when a login is rejected.
+ * </p>
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Too many password hashing requests")
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,180 @@
+package com.nuxplanet.issuetracker.security;
+
+import com.nuxplanet.issuetracker.domain.PersistentToken;
+import com.nuxplanet.issuetracker.repository.PersistentTokenRepository;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Writer deferring the refresh of the remember-me tokens, when "jhipster.security.rememberMe.writeBehind" is true.
+ * <p>
+ * A refreshed token is kept in memory, where a later refresh of the same series replaces it, and is written every
+ * "flushIntervalMs", all pending tokens in one transaction, and when the application shuts down. Each write is a
+ * compare-and-set on the token value the database had, so that a token which was deleted, or refreshed by another
+ * node, in the meantime is left alone, and its pending refresh is dropped.
+ * </p>
+ * <p>
+ * Until it is written, a refreshed token value is only known by this node: write-behind suits a single node, or
+ * nodes behind sticky sessions.
+ * </p>
+ */
+@Component
+public class PersistentTokenWriter {
+
+    private final Logger log = LoggerFactory.getLogger(PersistentTokenWriter.class);
+
+    @Inject
+    private PersistentTokenRepository persistentTokenRepository;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    private final ConcurrentMap<String, TokenRefresh> pending = new ConcurrentHashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    private Meter written;
+
+    private Meter conflicts;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        metricRegistry.register(MetricRegistry.name(PersistentTokenWriter.class, "pending"),
+            (Gauge<Integer>) pending::size);
+        written = metricRegistry.meter(MetricRegistry.name(PersistentTokenWriter.class, "written"));
+        conflicts = metricRegistry.meter(MetricRegistry.name(PersistentTokenWriter.class, "conflicts"));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        log.info("Flushing {} pending remember-me tokens", pending.size());
+        flush();
+    }
+
+    /**
+     * Copy the pending refresh of a token, if any, to the token read from the database.
+     *
+     * @param token the token read from the database, which is not saved afterwards
+     */
+    public void applyPending(PersistentToken token) {
+        TokenRefresh refresh = pending.get(token.getSeries());
+        if (refresh != null) {
+            token.setTokenValue(refresh.tokenValue);
+            token.setTokenDate(refresh.tokenDate);
+            token.setIpAddress(refresh.ipAddress);
+            token.setUserAgent(refresh.userAgent);
+        }
+    }
+
+    /**
+     * Write a refreshed token later.
+     *
+     * @param token the refreshed token
+     * @param previousTokenValue the token value before the refresh
+     */
+    public void refresh(PersistentToken token, String previousTokenValue) {
+        // A refresh of a pending refresh still expects the value which is in the database
+        pending.merge(token.getSeries(), new TokenRefresh(token, previousTokenValue),
+            (previous, latest) -> latest.expecting(previous.expectedTokenValue));
+    }
+
+    /**
+     * Forget the pending refresh of a deleted token.
+     */
+    public void remove(String series) {
+        pending.remove(series);
+    }
+
+    @Scheduled(fixedDelayString = "${jhipster.security.rememberMe.flushIntervalMs:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<TokenRefresh> refreshes = new ArrayList<>(pending.values());
+        List<TokenRefresh> conflicting = new ArrayList<>();
+        try {
+            transactionTemplate.execute(status -> {
+                for (TokenRefresh refresh : refreshes) {
+                    if (persistentTokenRepository.refreshIfTokenValue(refresh.series, refresh.expectedTokenValue,
+                        refresh.tokenValue, refresh.tokenDate, refresh.ipAddress, refresh.userAgent) == 0) {
+                        conflicting.add(refresh);
+                    }
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // Keep the pending tokens, to write them next time
+            log.error("Could not write {} remember-me tokens: {}", refreshes.size(), e.getMessage());
+            return;
+        }
+        written.mark(refreshes.size() - conflicting.size());
+        conflicts.mark(conflicting.size());
+        for (TokenRefresh refresh : refreshes) {
+            if (conflicting.contains(refresh)) {
+                log.debug("Remember-me token of series '{}' was deleted or refreshed elsewhere", refresh.series);
+                pending.remove(refresh.series);
+            } else {
+                // The token may have been refreshed again meanwhile: that refresh now expects the written value
+                pending.computeIfPresent(refresh.series,
+                    (series, current) -> current == refresh ? null : current.expecting(refresh.tokenValue));
+            }
+        }
+    }
+
+    private static final class TokenRefresh {
+
+        private final String series;
+
+        private final String expectedTokenValue;
+
+        private final String tokenValue;
+
+        private final LocalDate tokenDate;
+
+        private final String ipAddress;
+
+        private final String userAgent;
+
+        TokenRefresh(PersistentToken token, String expectedTokenValue) {
+            this(token.getSeries(), expectedTokenValue, token.getTokenValue(), token.getTokenDate(),
+                token.getIpAddress(), token.getUserAgent());
+        }
+
+        private TokenRefresh(String series, String expectedTokenValue, String tokenValue, LocalDate tokenDate,
+                             String ipAddress, String userAgent) {
+            this.series = series;
+            this.expectedTokenValue = expectedTokenValue;
+            this.tokenValue = tokenValue;
+            this.tokenDate = tokenDate;
+            this.ipAddress = ipAddress;
+            this.userAgent = userAgent;
+        }
+
+        TokenRefresh expecting(String expectedTokenValue) {
+            return new TokenRefresh(series, expectedTokenValue, tokenValue, tokenDate, ipAddress, userAgent);
+        }
+    }
+}
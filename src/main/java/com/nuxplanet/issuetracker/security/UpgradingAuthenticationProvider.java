@@ -0,0 +1,64 @@
+package com.nuxplanet.issuetracker.security;
+
+import com.nuxplanet.issuetracker.service.UserService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+/**
+ * Authenticate a user with its login and password, and hash its password again if its hash was not made with the
+ * configured algorithm and cost.
+ */
+@Component
+public class UpgradingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final Logger log = LoggerFactory.getLogger(UpgradingAuthenticationProvider.class);
+
+    @Inject
+    private UserDetailsService userDetailsService;
+
+    @Inject
+    private ConfigurablePasswordEncoder passwordEncoder;
+
+    @Inject
+    private UserService userService;
+
+    @PostConstruct
+    public void init() {
+        setUserDetailsService(userDetailsService);
+        setPasswordEncoder(passwordEncoder);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        try {
+            return super.authenticate(authentication);
+        } catch (PasswordHashingRejectedException e) {
+            throw new AuthenticationServiceException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+        UserDetails user) {
+
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            try {
+                userService.upgradePassword(user.getUsername(), authentication.getCredentials().toString());
+            } catch (RuntimeException e) {
+                // The user is authenticated all the same: the hash is upgraded on one of the next logins
+                log.warn("Could not upgrade the password hash of {}: {}", user.getUsername(), e.getMessage());
+            }
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
@@ -0,0 +1,100 @@
+package com.nuxplanet.issuetracker.security;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cache of the users loaded by the {@link UserDetailsService}, so that authenticating does not query the database.
+ * <p>
+ * Users are cached as immutable snapshots, and each hit returns a new UserDetails: Spring Security erases the
+ * password of the UserDetails it authenticates, which must not erase the cached one.
+ * </p>
+ * <p>
+ * The snapshots are kept in the {@value #CACHE_NAME} Ehcache region, which is bounded and expires like the other
+ * regions, and whose hits and misses are exported by the CacheConfiguration metrics. The UserService removes the
+ * users it changes: other nodes of a cluster see the change when their entry expires.
+ * </p>
+ */
+@Component
+public class UserDetailsCache implements UserCache {
+
+    public static final String CACHE_NAME = "com.nuxplanet.issuetracker.security.UserDetailsCache";
+
+    @Inject
+    private CacheManager cacheManager;
+
+    private Cache cache;
+
+    @PostConstruct
+    public void init() {
+        cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            throw new IllegalStateException("The " + CACHE_NAME + " cache is not configured in ehcache.xml");
+        }
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String login) {
+        UserSnapshot snapshot = cache.get(login, UserSnapshot.class);
+        return snapshot == null ? null : snapshot.toUserDetails();
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        cache.put(user.getUsername(), new UserSnapshot(user));
+    }
+
+    /**
+     * Remove a user now, and again once the current transaction is committed, so that a user loaded before the
+     * commit is not kept.
+     *
+     * @param login the login of the user
+     */
+    @Override
+    public void removeUserFromCache(String login) {
+        cache.evict(login);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(login);
+                }
+            });
+        }
+    }
+
+    private static final class UserSnapshot implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String login;
+
+        private final String password;
+
+        private final List<GrantedAuthority> authorities;
+
+        private UserSnapshot(UserDetails user) {
+            this.login = user.getUsername();
+            this.password = user.getPassword();
+            this.authorities = Collections.unmodifiableList(new ArrayList<>(user.getAuthorities()));
+        }
+
+        private UserDetails toUserDetails() {
+            return new User(login, password, authorities);
+        }
+    }
+}
@@ -9,7 +9,6 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import javax.inject.Inject;
 import java.util.*;
@@ -17,6 +16,10 @@ import java.util.stream.Collectors;
 
 /**
  * Authenticate a user from the database.
+ * <p>
+ * Users are kept in the {@link UserDetailsCache}, as form logins and remember-me logins load them again on every
+ * authentication.
+ * </p>
  */
 @Component("userDetailsService")
 public class UserDetailsService implements org.springframework.security.core.userdetails.UserDetailsService {
@@ -26,13 +29,19 @@ public class UserDetailsService implements org.springframework.security.core.use
     @Inject
     private UserRepository userRepository;
 
+    @Inject
+    private UserDetailsCache userDetailsCache;
+
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(final String login) {
         log.debug("Authenticating {}", login);
         String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
-        Optional<User> userFromDatabase = userRepository.findOneByLogin(lowercaseLogin);
-        return userFromDatabase.map(user -> {
+        UserDetails cachedUser = userDetailsCache.getUserFromCache(lowercaseLogin);
+        if (cachedUser != null) {
+            return cachedUser;
+        }
+        Optional<User> userFromDatabase = userRepository.findOneWithAuthoritiesByLogin(lowercaseLogin);
+        UserDetails userDetails = userFromDatabase.map(user -> {
             if (!user.getActivated()) {
                 throw new UserNotActivatedException("User " + lowercaseLogin + " was not activated");
             }
@@ -44,5 +53,7 @@ public class UserDetailsService implements org.springframework.security.core.use
                 grantedAuthorities);
         }).orElseThrow(() -> new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the " +
         "database"));
+        userDetailsCache.putUserInCache(userDetails);
+        return userDetails;
     }
 }
@@ -0,0 +1,91 @@
+package com.nuxplanet.issuetracker.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.util.Optional;
+
+/**
+ * Storage for the binary content of attachments, kept out of the database rows.
+ * <p>
+ * Contents are written and read as streams, so that an attachment is never held in memory as a whole.
+ * </p>
+ */
+public interface AttachmentStore {
+
+    /**
+     * Store a content, replacing any previous content stored under the same key.
+     *
+     * @param key the key of the content, e.g. "issue/42"
+     * @param content the content to store, which is read until its end but not closed
+     * @param maxSize the maximum number of bytes accepted
+     * @return the size and checksum of the stored content
+     * @throws AttachmentTooLargeException if the content is larger than maxSize; nothing is stored then
+     * @throws IOException if the content could not be read or written
+     */
+    StoredAttachment store(String key, InputStream content, long maxSize) throws IOException;
+
+    /**
+     * Open a stored content for reading.
+     *
+     * @param key the key of the content
+     * @return a channel on the content, to be closed by the caller, or empty if nothing is stored under this key
+     * @throws IOException if the content could not be opened
+     */
+    Optional<FileChannel> open(String key) throws IOException;
+
+    /**
+     * Move a stored content to another key, atomically replacing any content stored under it.
+     *
+     * @param from the key of the content to move
+     * @param to the key under which the content is stored from now on
+     * @throws IOException if the content could not be moved
+     */
+    void move(String from, String to) throws IOException;
+
+    /**
+     * Delete a stored content, if it exists.
+     *
+     * @param key the key of the content
+     * @throws IOException if the content could not be deleted
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * The size and checksum of a stored content.
+     */
+    final class StoredAttachment {
+
+        private final long size;
+
+        private final String checksum;
+
+        public StoredAttachment(long size, String checksum) {
+            this.size = size;
+            this.checksum = checksum;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return the SHA-256 digest of the content, as lowercase hexadecimal
+         */
+        public String getChecksum() {
+            return checksum;
+        }
+    }
+
+    /**
+     * Thrown when a content is larger than the maximum size accepted.
+     */
+    class AttachmentTooLargeException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public AttachmentTooLargeException(long maxSize) {
+            super("Attachments cannot be larger than " + maxSize + " bytes");
+        }
+    }
+}
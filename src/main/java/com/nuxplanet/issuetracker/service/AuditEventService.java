@@ -1,11 +1,19 @@
 package com.nuxplanet.issuetracker.service;
 
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
 import com.nuxplanet.issuetracker.config.audit.AuditEventConverter;
+import com.nuxplanet.issuetracker.domain.PersistentAuditEvent;
+import com.nuxplanet.issuetracker.repository.AuditEventPartitionRepository;
 import com.nuxplanet.issuetracker.repository.PersistenceAuditEventRepository;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,31 +25,53 @@ import java.util.Optional;
  * <p>
  * This is the default implementation to support SpringBoot Actuator AuditEventRepository
  * </p>
+ * <p>
+ * Audit events are kept "retentionMonths" months, on top of the current month. Listing them only reads the kept
+ * months, so that the months which are not removed yet are skipped.
+ * </p>
  */
 @Service
 @Transactional
 public class AuditEventService {
 
+    private final Logger log = LoggerFactory.getLogger(AuditEventService.class);
+
     private PersistenceAuditEventRepository persistenceAuditEventRepository;
 
+    private AuditEventPartitionRepository auditEventPartitionRepository;
+
     private AuditEventConverter auditEventConverter;
 
+    private JHipsterProperties jHipsterProperties;
+
     @Inject
     public AuditEventService(
         PersistenceAuditEventRepository persistenceAuditEventRepository,
-        AuditEventConverter auditEventConverter) {
+        AuditEventPartitionRepository auditEventPartitionRepository,
+        AuditEventConverter auditEventConverter,
+        JHipsterProperties jHipsterProperties) {
 
         this.persistenceAuditEventRepository = persistenceAuditEventRepository;
+        this.auditEventPartitionRepository = auditEventPartitionRepository;
         this.auditEventConverter = auditEventConverter;
+        this.jHipsterProperties = jHipsterProperties;
     }
 
     public Page<AuditEvent> findAll(Pageable pageable) {
-        return persistenceAuditEventRepository.findAll(pageable)
-            .map(persistentAuditEvents -> auditEventConverter.convertToAuditEvent(persistentAuditEvents));
+        Optional<YearMonth> firstKeptMonth = firstKeptMonth();
+        Page<PersistentAuditEvent> page = firstKeptMonth.isPresent() ?
+            persistenceAuditEventRepository.findAllByAuditEventDateGreaterThanEqual(
+                firstKeptMonth.get().atDay(1).atStartOfDay(), pageable) :
+            persistenceAuditEventRepository.findAll(pageable);
+        return page.map(persistentAuditEvents -> auditEventConverter.convertToAuditEvent(persistentAuditEvents));
     }
 
     public Page<AuditEvent> findByDates(LocalDateTime fromDate, LocalDateTime toDate, Pageable pageable) {
-        return persistenceAuditEventRepository.findAllByAuditEventDateBetween(fromDate, toDate, pageable)
+        LocalDateTime from = firstKeptMonth()
+            .map(month -> month.atDay(1).atStartOfDay())
+            .filter(firstKept -> firstKept.isAfter(fromDate))
+            .orElse(fromDate);
+        return persistenceAuditEventRepository.findAllByAuditEventDateBetween(from, toDate, pageable)
             .map(persistentAuditEvents -> auditEventConverter.convertToAuditEvent(persistentAuditEvents));
     }
 
@@ -49,4 +79,30 @@ public class AuditEventService {
         return Optional.ofNullable(persistenceAuditEventRepository.findOne(id)).map
             (auditEventConverter::convertToAuditEvent);
     }
+
+    /**
+     * Audit events should be automatically deleted after "retentionMonths" months: on PostgreSQL, the tables of
+     * the older months are dropped.
+     * <p>
+     * This is scheduled to get fired everyday, at 02:00 (am).
+     * </p>
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    public void removeOldAuditEvents() {
+        firstKeptMonth().ifPresent(month -> {
+            int removed = auditEventPartitionRepository.deleteBefore(month);
+            log.debug("Removed {} months or events of audit events before {}", removed, month);
+        });
+    }
+
+    /**
+     * @return the first month whose audit events are kept, or nothing if they are kept forever
+     */
+    private Optional<YearMonth> firstKeptMonth() {
+        int retentionMonths = jHipsterProperties.getAudit().getRetentionMonths();
+        if (retentionMonths <= 0) {
+            return Optional.empty();
+        }
+        return Optional.of(YearMonth.now().minusMonths(retentionMonths));
+    }
 }
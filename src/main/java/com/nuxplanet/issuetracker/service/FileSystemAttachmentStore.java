@@ -0,0 +1,117 @@
+package com.nuxplanet.issuetracker.service;
+
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+
+/**
+ * Attachment store keeping each content in a file, under the "jhipster.attachments.path" directory.
+ * <p>
+ * Contents are first written to a temporary file, then atomically moved in place: readers never see a partially
+ * written content, and a reader which already opened the previous content keeps reading it.
+ * </p>
+ */
+@Service
+public class FileSystemAttachmentStore implements AttachmentStore {
+
+    private final Logger log = LoggerFactory.getLogger(FileSystemAttachmentStore.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(jHipsterProperties.getAttachments().getPath()).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        log.debug("Storing attachments in {}", root);
+    }
+
+    @Override
+    public StoredAttachment store(String key, InputStream content, long maxSize) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                for (int read = content.read(buffer); read != -1; read = content.read(buffer)) {
+                    size += read;
+                    if (size > maxSize) {
+                        throw new AttachmentTooLargeException(maxSize);
+                    }
+                    digest.update(buffer, 0, read);
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        out.write(chunk);
+                    }
+                }
+                out.force(false);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new StoredAttachment(size, toHex(digest.digest()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Override
+    public Optional<FileChannel> open(String key) throws IOException {
+        try {
+            return Optional.of(FileChannel.open(resolve(key), StandardOpenOption.READ));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void move(String from, String to) throws IOException {
+        Path target = resolve(to);
+        Files.createDirectories(target.getParent());
+        Files.move(resolve(from), target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid attachment key: " + key);
+        }
+        return path;
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[2 * i + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+}
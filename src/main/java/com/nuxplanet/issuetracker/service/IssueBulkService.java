@@ -0,0 +1,270 @@
+package com.nuxplanet.issuetracker.service;
+
+import com.nuxplanet.issuetracker.domain.Issue;
+import com.nuxplanet.issuetracker.domain.User;
+import com.nuxplanet.issuetracker.repository.UserRepository;
+import com.nuxplanet.issuetracker.service.dto.IssueImportResultDTO;
+import com.nuxplanet.issuetracker.service.dto.IssueRowDTO;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * Service importing and exporting issues in bulk, as newline delimited JSON or CSV.
+ * <p>
+ * Both directions stream: imported rows are parsed one at a time and inserted in chunks, each in its own
+ * transaction, with JDBC batching; exported rows are read from a forward-only cursor and written as soon as they
+ * are read. Neither holds more than one chunk of issues in memory.
+ * </p>
+ */
+@Service
+public class IssueBulkService {
+
+    private final Logger log = LoggerFactory.getLogger(IssueBulkService.class);
+
+    /**
+     * Number of issues inserted per transaction, a multiple of the JDBC batch size.
+     */
+    static final int CHUNK_SIZE = 500;
+
+    private static final int FETCH_SIZE = 500;
+
+    /**
+     * The formats of bulk imports and exports.
+     */
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Inject
+    private SearchIndexingService searchIndexingService;
+
+    @Inject
+    private IssueStatisticsService issueStatisticsService;
+
+    @Inject
+    private EntityManager em;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private ObjectMapper objectMapper;
+
+    @Inject
+    private Validator validator;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        csvMapper.registerModule(new JavaTimeModule());
+        csvMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        csvMapper.enable(DeserializationFeature.ACCEPT_EMPTY_STRING_AS_NULL_OBJECT);
+        csvMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Import issues, creating a new issue for each row.
+     * <p>
+     * Rows which are not valid, or which reference unknown users, are skipped and reported. Valid rows are committed
+     * by chunks of {@value #CHUNK_SIZE}, so that an import which stops on malformed input keeps the rows read before.
+     * </p>
+     *
+     * @param content the rows to import; CSV content must start with a header line naming the columns
+     * @param format the format of the content
+     * @return the outcome of the import
+     * @throws IOException if the content could not be read
+     */
+    public IssueImportResultDTO importIssues(InputStream content, Format format) throws IOException {
+        log.debug("Request to import Issues as {}", format);
+        IssueImportResultDTO result = new IssueImportResultDTO();
+        Map<String, Optional<Long>> userIds = new HashMap<>();
+        List<IssueRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        try (MappingIterator<IssueRowDTO> rows = reader(format).readValues(content)) {
+            while (true) {
+                IssueRowDTO row;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row = rows.nextValue();
+                } catch (JsonProcessingException e) {
+                    long line = e.getLocation() == null ? rows.getCurrentLocation().getLineNr() :
+                        e.getLocation().getLineNr();
+                    result.abort(line, e.getOriginalMessage());
+                    break;
+                }
+                long line = rows.getCurrentLocation().getLineNr();
+                Set<ConstraintViolation<IssueRowDTO>> violations = validator.validate(row);
+                if (!violations.isEmpty()) {
+                    ConstraintViolation<IssueRowDTO> violation = violations.iterator().next();
+                    result.reject(line, violation.getPropertyPath() + " " + violation.getMessage());
+                    continue;
+                }
+                chunk.add(new IssueRow(line, row));
+                if (chunk.size() == CHUNK_SIZE) {
+                    insert(chunk, userIds, result);
+                    chunk.clear();
+                }
+            }
+        }
+        insert(chunk, userIds, result);
+        log.info("Imported Issues: {}", result);
+        return result;
+    }
+
+    /**
+     * Export all the issues, ordered by id.
+     *
+     * @param out the stream the rows are written to, which is not closed
+     * @param format the format of the rows; CSV rows are preceded by a header line
+     * @return the number of exported issues
+     * @throws IOException if the rows could not be written
+     */
+    @Transactional(readOnly = true)
+    public long exportIssues(OutputStream out, Format format) throws IOException {
+        log.debug("Request to export Issues as {}", format);
+        long count = 0;
+        ScrollableResults results = em.unwrap(Session.class)
+            .createQuery("select new com.nuxplanet.issuetracker.service.dto.IssueRowDTO(issue.id, issue.name, " +
+                "issue.description, issue.created, issue.state, issue.priority, issue.comment, " +
+                "originator.login, assignee.login) from Issue issue " +
+                "left join issue.originator originator left join issue.assignee assignee order by issue.id")
+            .setReadOnly(true)
+            .setFetchSize(FETCH_SIZE)
+            .scroll(ScrollMode.FORWARD_ONLY);
+        try (SequenceWriter rows = writer(format).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValues(out)) {
+            while (results.next()) {
+                rows.write(results.get(0));
+                count++;
+            }
+            if (format == Format.NDJSON && count > 0) {
+                // The root value separator only goes between the rows: terminate the last one too
+                rows.flush();
+                out.write('\n');
+            }
+        } finally {
+            results.close();
+        }
+        return count;
+    }
+
+    private ObjectReader reader(Format format) {
+        if (format == Format.CSV) {
+            return csvMapper.readerFor(IssueRowDTO.class).with(CsvSchema.emptySchema().withHeader());
+        }
+        return objectMapper.readerFor(IssueRowDTO.class);
+    }
+
+    private ObjectWriter writer(Format format) {
+        if (format == Format.CSV) {
+            return csvMapper.writerFor(IssueRowDTO.class).with(csvMapper.schemaFor(IssueRowDTO.class).withHeader());
+        }
+        return objectMapper.writerFor(IssueRowDTO.class).withRootValueSeparator("\n");
+    }
+
+    /**
+     * Insert a chunk of rows in a new transaction, and index them in Elasticsearch once it is committed.
+     */
+    private void insert(List<IssueRow> chunk, Map<String, Optional<Long>> userIds, IssueImportResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        transactionTemplate.execute(status -> {
+            List<Issue> issues = new ArrayList<>(chunk.size());
+            for (IssueRow row : chunk) {
+                String unknownLogin = Arrays.asList(row.dto.getOriginatorLogin(), row.dto.getAssigneeLogin())
+                    .stream()
+                    .filter(login -> StringUtils.hasText(login) && !userId(login, userIds).isPresent())
+                    .findFirst().orElse(null);
+                if (unknownLogin != null) {
+                    result.reject(row.line, "unknown user " + unknownLogin);
+                    continue;
+                }
+                Issue issue = new Issue()
+                    .name(row.dto.getName())
+                    .description(row.dto.getDescription())
+                    .created(row.dto.getCreated())
+                    .state(row.dto.getState())
+                    .priority(row.dto.getPriority())
+                    .comment(row.dto.getComment())
+                    .originator(user(row.dto.getOriginatorLogin(), userIds))
+                    .assignee(user(row.dto.getAssigneeLogin(), userIds));
+                em.persist(issue);
+                issues.add(issue);
+            }
+            em.flush();
+            searchIndexingService.indexAll(issues);
+            issueStatisticsService.recordCreated(issues);
+            em.clear();
+            result.imported(issues.size());
+            return null;
+        });
+    }
+
+    /**
+     * Resolve a user login, caching its id for the whole import.
+     */
+    private Optional<Long> userId(String login, Map<String, Optional<Long>> userIds) {
+        return userIds.computeIfAbsent(login, key -> userRepository.findOneByLogin(key).map(User::getId));
+    }
+
+    /**
+     * @return a reference to the user with the given login, which must exist, or null if no login is given
+     */
+    private User user(String login, Map<String, Optional<Long>> userIds) {
+        if (!StringUtils.hasText(login)) {
+            return null;
+        }
+        return em.getReference(User.class, userId(login, userIds).get());
+    }
+
+    private static final class IssueRow {
+
+        private final long line;
+
+        private final IssueRowDTO dto;
+
+        private IssueRow(long line, IssueRowDTO dto) {
+            this.line = line;
+            this.dto = dto;
+        }
+    }
+}
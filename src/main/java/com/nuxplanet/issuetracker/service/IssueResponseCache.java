@@ -0,0 +1,255 @@
+package com.nuxplanet.issuetracker.service;
+
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
+import com.nuxplanet.issuetracker.domain.Issue;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of the issues answered by GET /api/issues/{id}, serialized as JSON along with their ETag.
+ * <p>
+ * Concurrent misses for the same issue are coalesced: the first request loads the issue and the following ones wait
+ * for its result, so a burst of requests costs one transaction. Each entry and load is tagged with the version of
+ * its issue, which is increased once a change is committed on this node: later requests neither read the entry nor
+ * join the load anymore, and load the issue again. Changes made on other nodes are only seen once the entries
+ * expire, after {@code jhipster.cache.issueResponses.timeToLiveSeconds}.
+ * </p>
+ * <p>
+ * The versions are kept for stripes of ids rather than for each id, so that they take a fixed amount of memory; a
+ * change to an issue also drops the entries of the other issues of its stripe.
+ * </p>
+ */
+@Service
+public class IssueResponseCache {
+
+    private static final int STRIPES = 1024;
+
+    @Inject
+    private ObjectMapper objectMapper;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    private final ConcurrentMap<Long, Entry> responses = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Long, Load> loads = new ConcurrentHashMap<>();
+
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+
+    private Meter hits;
+
+    private Meter misses;
+
+    private Meter coalesced;
+
+    @PostConstruct
+    public void init() {
+        hits = metricRegistry.meter(MetricRegistry.name(IssueResponseCache.class, "hits"));
+        misses = metricRegistry.meter(MetricRegistry.name(IssueResponseCache.class, "misses"));
+        coalesced = metricRegistry.meter(MetricRegistry.name(IssueResponseCache.class, "coalesced"));
+        metricRegistry.register(MetricRegistry.name(IssueResponseCache.class, "coalescing-ratio"),
+            (Gauge<Double>) () -> ratio(coalesced.getOneMinuteRate(), misses.getOneMinuteRate()));
+        metricRegistry.register(MetricRegistry.name(IssueResponseCache.class, "hit-ratio"),
+            (Gauge<Double>) () -> ratio(hits.getOneMinuteRate(), hits.getOneMinuteRate() + misses.getOneMinuteRate()));
+        metricRegistry.register(MetricRegistry.name(IssueResponseCache.class, "size"),
+            (Gauge<Integer>) responses::size);
+    }
+
+    /**
+     * Get an issue serialized as JSON, from the cache or from a load of this or of a concurrent request.
+     *
+     * @param id the id of the issue
+     * @param loader the function loading the issue from its id, returning null if it does not exist
+     * @param tagger the function computing the ETag of the loaded issue
+     * @return the issue serialized as JSON with its ETag, or empty if it does not exist
+     */
+    public Optional<Response> get(Long id, Function<Long, Issue> loader, Function<Issue, String> tagger) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // The caller must see the changes of its own transaction, which are not committed yet
+            return Optional.ofNullable(loader.apply(id))
+                .map(issue -> new Response(tagger.apply(issue), serialize(issue)));
+        }
+        long version = versions.get(stripe(id));
+        Entry entry = responses.get(id);
+        if (entry != null && entry.version == version && entry.expires - System.nanoTime() > 0) {
+            hits.mark();
+            return Optional.of(entry.response);
+        }
+        misses.mark();
+        Load load = new Load(version);
+        Load current = loads.compute(id, (key, running) ->
+            running != null && running.version == version ? running : load);
+        if (current != load) {
+            coalesced.mark();
+            try {
+                return current.result.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        try {
+            Issue issue = loader.apply(id);
+            Response response = issue == null ? null : new Response(tagger.apply(issue), serialize(issue));
+            if (response != null) {
+                store(id, new Entry(version, response,
+                    System.nanoTime() + TimeUnit.SECONDS.toNanos(settings().getTimeToLiveSeconds())));
+            }
+            load.result.complete(Optional.ofNullable(response));
+            return Optional.ofNullable(response);
+        } catch (RuntimeException | Error e) {
+            load.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(id, load);
+        }
+    }
+
+    /**
+     * Drop the cached issue once the current transaction is committed, or immediately outside of a transaction.
+     *
+     * @param id the id of the changed issue
+     */
+    public void evict(Long id) {
+        afterCommit(() -> {
+            versions.incrementAndGet(stripe(id));
+            responses.remove(id);
+        });
+    }
+
+    /**
+     * Drop all the cached issues once the current transaction is committed, as when a user they reference changes.
+     */
+    public void evictAll() {
+        afterCommit(() -> {
+            for (int i = 0; i < STRIPES; i++) {
+                versions.incrementAndGet(i);
+            }
+            responses.clear();
+        });
+    }
+
+    private void store(Long id, Entry entry) {
+        JHipsterProperties.Cache.IssueResponses settings = settings();
+        if (settings.getTimeToLiveSeconds() <= 0 || settings.getMaxEntries() <= 0) {
+            return;
+        }
+        if (responses.size() >= settings.getMaxEntries()) {
+            long now = System.nanoTime();
+            responses.values().removeIf(cached -> cached.expires - now <= 0);
+            Iterator<Long> ids = responses.keySet().iterator();
+            while (responses.size() >= settings.getMaxEntries() && ids.hasNext()) {
+                ids.next();
+                ids.remove();
+            }
+        }
+        // A change committed during the load has made the response stale
+        if (versions.get(stripe(id)) == entry.version) {
+            responses.put(id, entry);
+        }
+    }
+
+    private byte[] serialize(Issue issue) {
+        try {
+            return objectMapper.writeValueAsBytes(issue);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+
+    private JHipsterProperties.Cache.IssueResponses settings() {
+        return jHipsterProperties.getCache().getIssueResponses();
+    }
+
+    private static int stripe(Long id) {
+        return (int) ((id ^ (id >>> 32)) & (STRIPES - 1));
+    }
+
+    private static double ratio(double part, double whole) {
+        return whole == 0 ? 0 : part / whole;
+    }
+
+    /**
+     * An issue serialized as JSON, with its ETag.
+     */
+    public static final class Response {
+
+        private final String eTag;
+
+        private final byte[] body;
+
+        private Response(String eTag, byte[] body) {
+            this.eTag = eTag;
+            this.body = body;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+
+    private static final class Entry {
+
+        private final long version;
+
+        private final Response response;
+
+        private final long expires;
+
+        private Entry(long version, Response response, long expires) {
+            this.version = version;
+            this.response = response;
+            this.expires = expires;
+        }
+    }
+
+    private static final class Load {
+
+        private final long version;
+
+        private final CompletableFuture<Optional<Response>> result = new CompletableFuture<>();
+
+        private Load(long version) {
+            this.version = version;
+        }
+    }
+}
@@ -1,17 +1,59 @@
 package com.nuxplanet.issuetracker.service;
 
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
 import com.nuxplanet.issuetracker.domain.Issue;
+import com.nuxplanet.issuetracker.domain.enumeration.Priority;
+import com.nuxplanet.issuetracker.domain.enumeration.State;
 import com.nuxplanet.issuetracker.repository.IssueRepository;
+import com.nuxplanet.issuetracker.repository.IssueSpecifications;
+import com.nuxplanet.issuetracker.repository.UserRepository;
 import com.nuxplanet.issuetracker.repository.search.IssueSearchRepository;
+import com.nuxplanet.issuetracker.security.SecurityUtils;
+import com.nuxplanet.issuetracker.service.dto.IssueCriteria;
+import com.nuxplanet.issuetracker.service.dto.IssueCursor;
+import com.nuxplanet.issuetracker.service.dto.IssueSearchHitDTO;
+import com.nuxplanet.issuetracker.service.dto.IssueSummaryDTO;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.sort.SortOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.data.jpa.domain.Specifications;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.stereotype.Service;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
 
 import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -25,6 +67,10 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
 public class IssueService {
 
     private final Logger log = LoggerFactory.getLogger(IssueService.class);
+
+    private static final String[] SEARCH_HIT_FIELDS = {"name", "state", "priority", "created"};
+
+    private static final int ATTACHMENT_CHANGE_ATTEMPTS = 3;
     
     @Inject
     private IssueRepository issueRepository;
@@ -32,6 +78,30 @@ public class IssueService {
     @Inject
     private IssueSearchRepository issueSearchRepository;
 
+    @Inject
+    private UserRepository userRepository;
+
+    @Inject
+    private SearchIndexingService searchIndexingService;
+
+    @Inject
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Inject
+    private IssueStatisticsService issueStatisticsService;
+
+    @Inject
+    private AttachmentStore attachmentStore;
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private IssueResponseCache issueResponseCache;
+
     /**
      * Save a issue.
      *
@@ -40,8 +110,21 @@ public class IssueService {
      */
     public Issue save(Issue issue) {
         log.debug("Request to save Issue : {}", issue);
-        Issue result = issueRepository.save(issue);
-        issueSearchRepository.save(result);
+        // The attachment metadata is only changed by storeAttachment() and deleteAttachment()
+        Issue current = issue.getId() == null ? null : issueRepository.findOne(issue.getId());
+        if (current != null && issue.getVersion() == null) {
+            // Without the version which was read, the changes overwrite the current issue
+            issue.setVersion(current.getVersion());
+        }
+        IssueStatisticsService.Key before = issueStatisticsService.keyOf(current);
+        issue.setAttachmentContentType(current == null ? null : current.getAttachmentContentType());
+        issue.setAttachmentSize(current == null ? null : current.getAttachmentSize());
+        issue.setAttachmentChecksum(current == null ? null : current.getAttachmentChecksum());
+        // Flushed so that the indexed document has the incremented version
+        Issue result = issueRepository.saveAndFlush(issue);
+        searchIndexingService.index(result);
+        issueResponseCache.evict(result.getId());
+        issueStatisticsService.record(before, issueStatisticsService.keyOf(result));
         return result;
     }
 
@@ -58,6 +141,106 @@ public class IssueService {
         return result;
     }
 
+    /**
+     *  Get the issues matching some criteria.
+     *  <p>
+     *  The criteria are translated to an SQL query, so that results do not depend on the freshness of the search
+     *  index.
+     *  </p>
+     *
+     *  @param criteria the criteria which the issues must match
+     *  @param pageable the pagination information
+     *  @return the list of entities
+     */
+    @Transactional(readOnly = true)
+    public Page<Issue> findAll(IssueCriteria criteria, Pageable pageable) {
+        log.debug("Request to get Issues matching {}", criteria);
+        return issueRepository.findAll(
+            Specifications.where(IssueSpecifications.fetchUsers()).and(specificationOf(criteria)), pageable);
+    }
+
+    /**
+     *  Get the summaries of the issues matching some criteria, without loading the issue entities nor their users.
+     *
+     *  @param criteria the criteria which the issues must match
+     *  @param pageable the pagination information
+     *  @return the list of summaries
+     */
+    @Transactional(readOnly = true)
+    public Page<IssueSummaryDTO> findAllSummaries(IssueCriteria criteria, Pageable pageable) {
+        log.debug("Request to get Issue summaries matching {}", criteria);
+        return issueRepository.findAllSummaries(specificationOf(criteria), pageable);
+    }
+
+    /**
+     *  Get the issues assigned to the current user.
+     *
+     *  @param state the state of the issues, or null for all states
+     *  @param pageable the pagination information
+     *  @return the list of entities, empty if no user is logged in
+     */
+    @Transactional(readOnly = true)
+    public Page<Issue> findAllAssignedToCurrentUser(State state, Pageable pageable) {
+        log.debug("Request to get the Issues assigned to the current user in state {}", state);
+        return currentUserId()
+            .map(userId -> state == null ? issueRepository.findByAssigneeId(userId, pageable) :
+                issueRepository.findByAssigneeIdAndState(userId, state, pageable))
+            .orElseGet(() -> new PageImpl<>(Collections.emptyList(), pageable, 0));
+    }
+
+    /**
+     *  Get the issues created by the current user.
+     *
+     *  @param pageable the pagination information
+     *  @return the list of entities, empty if no user is logged in
+     */
+    @Transactional(readOnly = true)
+    public Page<Issue> findAllCreatedByCurrentUser(Pageable pageable) {
+        log.debug("Request to get the Issues created by the current user");
+        return currentUserId()
+            .map(userId -> issueRepository.findByOriginatorId(userId, pageable))
+            .orElseGet(() -> new PageImpl<>(Collections.emptyList(), pageable, 0));
+    }
+
+    /**
+     *  Get the issues following a keyset cursor.
+     *  <p>
+     *  This runs a seek query on the (sort key, id) pair and no count query, so reading a slice costs the
+     *  same whatever its position in the table.
+     *  </p>
+     *
+     *  @param cursor the position after which issues are read
+     *  @param size the maximum number of issues to read
+     *  @return the slice of entities
+     */
+    @Transactional(readOnly = true)
+    public Slice<Issue> findAll(IssueCursor cursor, int size) {
+        log.debug("Request to get Issues after cursor : {}", cursor);
+        Pageable pageable = new PageRequest(0, size, cursor.toSort());
+        if (cursor.isStart()) {
+            return issueRepository.findSliceBy(pageable);
+        }
+        boolean ascending = cursor.getDirection() == Sort.Direction.ASC;
+        if (IssueCursor.SORT_BY_CREATED.equals(cursor.getProperty())) {
+            return ascending ?
+                issueRepository.findSliceByCreatedAfter(cursor.getCreated(), cursor.getId(), pageable) :
+                issueRepository.findSliceByCreatedBefore(cursor.getCreated(), cursor.getId(), pageable);
+        }
+        return ascending ?
+            issueRepository.findSliceByIdAfter(cursor.getId(), pageable) :
+            issueRepository.findSliceByIdBefore(cursor.getId(), pageable);
+    }
+
+    /**
+     *  Count all the issues.
+     *
+     *  @return the number of issues
+     */
+    @Transactional(readOnly = true)
+    public long count() {
+        return issueRepository.count();
+    }
+
     /**
      *  Get one issue by id.
      *
@@ -78,8 +261,114 @@ public class IssueService {
      */
     public void delete(Long id) {
         log.debug("Request to delete Issue : {}", id);
+        IssueStatisticsService.Key before = issueStatisticsService.keyOf(issueRepository.findOne(id));
         issueRepository.delete(id);
-        issueSearchRepository.delete(id);
+        issueStatisticsService.record(before, null);
+        searchIndexingService.delete(Issue.class, id);
+        issueResponseCache.evict(id);
+        attachmentChanges().delete(id);
+    }
+
+    /**
+     *  Store the attachment of an issue, replacing the previous one.
+     *  <p>
+     *  The content is staged under a key of its own, and only replaces the previous attachment once the transaction
+     *  is committed: a rollback keeps the previous attachment along with its size and checksum.
+     *  </p>
+     *
+     *  @param id the id of the issue
+     *  @param contentType the content type of the attachment, kept only if it is allowed
+     *  @param content the content of the attachment, streamed to the attachment store
+     *  @return the updated entity, or empty if the issue does not exist
+     *  @throws IOException if the attachment could not be stored
+     *  @throws AttachmentStore.AttachmentTooLargeException if the attachment is larger than the configured maximum
+     */
+    public Optional<Issue> storeAttachment(Long id, String contentType, InputStream content) throws IOException {
+        log.debug("Request to store the attachment of Issue : {}", id);
+        Issue issue = issueRepository.findOne(id);
+        if (issue == null) {
+            return Optional.empty();
+        }
+        String stagingKey = attachmentKey(id) + "." + UUID.randomUUID() + ".pending";
+        AttachmentStore.StoredAttachment stored = attachmentStore.store(stagingKey, content,
+            jHipsterProperties.getAttachments().getMaxSize());
+        attachmentChanges().store(id, stagingKey);
+        issue.attachmentContentType(allowedContentType(contentType))
+            .attachmentSize(stored.getSize())
+            .attachmentChecksum(stored.getChecksum());
+        issueRepository.flush();
+        searchIndexingService.index(issue);
+        issueResponseCache.evict(id);
+        return Optional.of(issue);
+    }
+
+    /**
+     *  Open the attachment of an issue for reading.
+     *  <p>
+     *  Attachments stored in the legacy "attachment" column are moved to the attachment store first.
+     *  </p>
+     *
+     *  @param issue the issue
+     *  @return a channel on the attachment, to be closed by the caller, or empty if the issue has no attachment
+     *  @throws IOException if the attachment could not be opened
+     */
+    public Optional<FileChannel> openAttachment(Issue issue) throws IOException {
+        if (issue.getAttachmentContentType() == null) {
+            return Optional.empty();
+        }
+        String stagingKey = stagedAttachmentKey(issue.getId());
+        if (stagingKey != null) {
+            // Stored by the current transaction, which must see it before it is committed
+            return attachmentStore.open(stagingKey);
+        }
+        if (issue.getAttachmentChecksum() == null) {
+            migrateLegacyAttachment(issue);
+        }
+        return attachmentStore.open(attachmentKey(issue.getId()));
+    }
+
+    /**
+     *  Get the content type an attachment is served with: its own if it is allowed by the
+     *  "jhipster.attachments.allowedContentTypes" property, "application/octet-stream" otherwise.
+     *
+     *  @param contentType the content type of the attachment, possibly with parameters
+     *  @return the allowed content type, without parameters
+     */
+    public String allowedContentType(String contentType) {
+        try {
+            MimeType mimeType = MimeTypeUtils.parseMimeType(contentType);
+            String type = mimeType.getType() + "/" + mimeType.getSubtype();
+            for (String allowed : jHipsterProperties.getAttachments().getAllowedContentTypes()) {
+                if (allowed.trim().equalsIgnoreCase(type)) {
+                    return type;
+                }
+            }
+        } catch (InvalidMimeTypeException e) {
+            log.debug("Invalid attachment content type {}: {}", contentType, e.getMessage());
+        }
+        return MimeTypeUtils.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    /**
+     *  Delete the attachment of an issue.
+     *
+     *  @param id the id of the issue
+     *  @return the updated entity, or empty if the issue does not exist
+     */
+    public Optional<Issue> deleteAttachment(Long id) {
+        log.debug("Request to delete the attachment of Issue : {}", id);
+        Issue issue = issueRepository.findOne(id);
+        if (issue == null) {
+            return Optional.empty();
+        }
+        issue.attachmentContentType(null)
+            .attachmentSize(null)
+            .attachmentChecksum(null);
+        issueRepository.flush();
+        searchIndexingService.index(issue);
+        issueResponseCache.evict(id);
+        attachmentChanges().delete(id);
+        return Optional.of(issue);
     }
 
     /**
@@ -94,4 +383,230 @@ public class IssueService {
         Page<Issue> result = issueSearchRepository.search(queryStringQuery(query), pageable);
         return result;
     }
+
+    /**
+     * Search for the summaries of the issues corresponding to the query, following a keyset cursor.
+     * <p>
+     * Summaries are built from the search hits only, without loading the issue entities: the hits carry the
+     * summary fields instead of whole documents, and the fragments of the name, description and comment which
+     * match the query. The cursor is applied as a range filter on the (sort key, id) pair, so reading a slice
+     * costs the same whatever its position, unlike from/size paging.
+     * </p>
+     *
+     * @param query the query of the search
+     * @param cursor the position after which issues are read
+     * @param size the maximum number of issues to read
+     * @return the slice of search hits
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Slice<IssueSearchHitDTO> searchSummaries(String query, IssueCursor cursor, int size) {
+        log.debug("Request to search for a slice of Issue summaries for query {} after cursor {}", query, cursor);
+        BoolQueryBuilder search = boolQuery().must(queryStringQuery(query));
+        if (!cursor.isStart()) {
+            search.filter(keysetFilter(cursor));
+        }
+        ElasticsearchPersistentEntity<?> entity = elasticsearchTemplate.getPersistentEntityFor(Issue.class);
+        SearchRequestBuilder request = elasticsearchTemplate.getClient().prepareSearch(entity.getIndexName())
+            .setTypes(entity.getIndexType())
+            .setQuery(search)
+            .setFetchSource(SEARCH_HIT_FIELDS, null)
+            .addHighlightedField("name")
+            .addHighlightedField("description")
+            .addHighlightedField("comment")
+            .setHighlighterRequireFieldMatch(false)
+            .setSize(size + 1);
+        SortOrder order = cursor.getDirection() == Sort.Direction.ASC ? SortOrder.ASC : SortOrder.DESC;
+        for (Sort.Order sortOrder : cursor.toSort()) {
+            request.addSort(sortOrder.getProperty(), order);
+        }
+        SearchHit[] hits = request.get().getHits().getHits();
+        List<IssueSearchHitDTO> content = Arrays.stream(hits)
+            .limit(size)
+            .map(IssueService::toSearchHit)
+            .collect(Collectors.toList());
+        return new SliceImpl<>(content, new PageRequest(0, size, cursor.toSort()), hits.length > size);
+    }
+
+    /**
+     * Resolve the id of the current user once, so that the issue queries filter on a foreign key.
+     */
+    private Optional<Long> currentUserId() {
+        String login = SecurityUtils.getCurrentUserLogin();
+        return login == null ? Optional.empty() : userRepository.findIdByLogin(login);
+    }
+
+    private void migrateLegacyAttachment(Issue issue) throws IOException {
+        log.info("Moving the attachment of Issue {} to the attachment store", issue.getId());
+        List<AttachmentStore.StoredAttachment> stored = jdbcTemplate.query(
+            "select attachment from issue where id = ? and attachment is not null", (rs, rowNum) -> {
+                try (InputStream content = rs.getBinaryStream(1)) {
+                    return attachmentStore.store(attachmentKey(issue.getId()), content, Long.MAX_VALUE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, issue.getId());
+        Issue managed = issueRepository.findOne(issue.getId());
+        if (stored.isEmpty()) {
+            managed.attachmentContentType(null);
+        } else {
+            managed.attachmentSize(stored.get(0).getSize())
+                .attachmentChecksum(stored.get(0).getChecksum());
+        }
+        issueRepository.flush();
+        jdbcTemplate.update("update issue set attachment = null where id = ?", issue.getId());
+        issue.attachmentContentType(managed.getAttachmentContentType())
+            .attachmentSize(managed.getAttachmentSize())
+            .attachmentChecksum(managed.getAttachmentChecksum());
+        searchIndexingService.index(managed);
+        issueResponseCache.evict(managed.getId());
+    }
+
+
+    /**
+     * Match the issues following the cursor: "key &gt; ? or (key = ? and id &gt; ?)", reversed when descending.
+     */
+    private static QueryBuilder keysetFilter(IssueCursor cursor) {
+        boolean ascending = cursor.getDirection() == Sort.Direction.ASC;
+        QueryBuilder afterId = ascending ? rangeQuery("id").gt(cursor.getId()) : rangeQuery("id").lt(cursor.getId());
+        if (!IssueCursor.SORT_BY_CREATED.equals(cursor.getProperty())) {
+            return afterId;
+        }
+        String created = cursor.getCreated().toString();
+        return boolQuery()
+            .should(ascending ? rangeQuery("created").gt(created) : rangeQuery("created").lt(created))
+            .should(boolQuery().filter(termQuery("created", created)).filter(afterId))
+            .minimumNumberShouldMatch(1);
+    }
+
+    private static IssueSearchHitDTO toSearchHit(SearchHit hit) {
+        Map<String, Object> source = hit.getSource();
+        Map<String, List<String>> highlights = new LinkedHashMap<>();
+        hit.getHighlightFields().forEach((field, highlight) -> highlights.put(field,
+            Arrays.stream(highlight.fragments()).map(Text::string).collect(Collectors.toList())));
+        Object state = source.get("state");
+        Object priority = source.get("priority");
+        Object created = source.get("created");
+        return new IssueSearchHitDTO(Long.valueOf(hit.getId()), (String) source.get("name"),
+            state == null ? null : State.valueOf(state.toString()),
+            priority == null ? null : Priority.valueOf(priority.toString()),
+            created == null ? null : LocalDate.parse(created.toString()),
+            highlights.isEmpty() ? null : highlights);
+    }
+
+    /**
+     * Translate criteria to a specification, without predicate if no criterion is set.
+     */
+    private static Specifications<Issue> specificationOf(IssueCriteria criteria) {
+        Specifications<Issue> specification = Specifications.where(null);
+        if (criteria.getState() != null && !criteria.getState().isEmpty()) {
+            specification = specification.and(IssueSpecifications.stateIn(criteria.getState()));
+        }
+        if (criteria.getPriority() != null && !criteria.getPriority().isEmpty()) {
+            specification = specification.and(IssueSpecifications.priorityIn(criteria.getPriority()));
+        }
+        if (criteria.getAssigneeId() != null) {
+            specification = specification.and(IssueSpecifications.assigneeIs(criteria.getAssigneeId()));
+        }
+        if (criteria.getOriginatorId() != null) {
+            specification = specification.and(IssueSpecifications.originatorIs(criteria.getOriginatorId()));
+        }
+        if (criteria.getCreatedFrom() != null) {
+            specification = specification.and(IssueSpecifications.createdFrom(criteria.getCreatedFrom()));
+        }
+        if (criteria.getCreatedTo() != null) {
+            specification = specification.and(IssueSpecifications.createdTo(criteria.getCreatedTo()));
+        }
+        return specification;
+    }
+
+    private static String attachmentKey(Long id) {
+        return "issue/" + id;
+    }
+
+    private String stagedAttachmentKey(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        AttachmentChanges changes = (AttachmentChanges) TransactionSynchronizationManager.getResource(AttachmentChanges.class);
+        return changes == null ? null : changes.stagingKeys.get(id);
+    }
+
+    /**
+     * Get the attachment changes of the current transaction, registering them on its first change.
+     */
+    private AttachmentChanges attachmentChanges() {
+        AttachmentChanges changes = (AttachmentChanges) TransactionSynchronizationManager.getResource(AttachmentChanges.class);
+        if (changes == null) {
+            changes = new AttachmentChanges();
+            TransactionSynchronizationManager.bindResource(AttachmentChanges.class, changes);
+            TransactionSynchronizationManager.registerSynchronization(changes);
+        }
+        return changes;
+    }
+
+    /**
+     * The attachments stored and deleted by a transaction, applied to the attachment store once it is committed.
+     * <p>
+     * Stored attachments are staged under keys of their own, moved in place after the commit and deleted after a
+     * rollback. Only the last change to the attachment of an issue is applied. A staged attachment which cannot be
+     * moved in place is the only copy of the committed content: it is left under its staging key, to be moved by an
+     * administrator.
+     * </p>
+     */
+    private class AttachmentChanges extends TransactionSynchronizationAdapter {
+
+        /** The staging keys of the stored attachments, or null for the deleted ones. */
+        private final Map<Long, String> stagingKeys = new LinkedHashMap<>();
+
+        private void store(Long id, String stagingKey) {
+            discard(stagingKeys.put(id, stagingKey));
+        }
+
+        private void delete(Long id) {
+            discard(stagingKeys.put(id, null));
+        }
+
+        @Override
+        public void afterCommit() {
+            stagingKeys.forEach((id, stagingKey) -> {
+                for (int attempt = 1; ; attempt++) {
+                    try {
+                        if (stagingKey == null) {
+                            attachmentStore.delete(attachmentKey(id));
+                        } else {
+                            attachmentStore.move(stagingKey, attachmentKey(id));
+                        }
+                        return;
+                    } catch (IOException e) {
+                        if (attempt == ATTACHMENT_CHANGE_ATTEMPTS) {
+                            log.error("Could not change the attachment of Issue {}, staged as {}: {}", id,
+                                stagingKey, e.getMessage());
+                            return;
+                        }
+                        log.debug("Could not change the attachment of Issue {}, retrying: {}", id, e.getMessage());
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AttachmentChanges.class);
+            if (status != STATUS_COMMITTED) {
+                stagingKeys.values().forEach(this::discard);
+            }
+            stagingKeys.clear();
+        }
+
+        private void discard(String stagingKey) {
+            if (stagingKey == null) {
+                return;
+            }
+            try {
+                attachmentStore.delete(stagingKey);
+            } catch (IOException e) {
+                log.warn("Could not delete the staged attachment {}: {}", stagingKey, e.getMessage());
+            }
+        }
+    }
 }
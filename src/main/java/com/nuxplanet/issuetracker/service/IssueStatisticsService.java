@@ -0,0 +1,256 @@
+package com.nuxplanet.issuetracker.service;
+
+import com.nuxplanet.issuetracker.domain.Issue;
+import com.nuxplanet.issuetracker.domain.enumeration.Priority;
+import com.nuxplanet.issuetracker.domain.enumeration.State;
+import com.nuxplanet.issuetracker.repository.IssueRepository;
+import com.nuxplanet.issuetracker.service.dto.IssueCountDTO;
+import com.nuxplanet.issuetracker.service.dto.IssueStatisticsDTO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Service counting the issues by state, priority and assignee.
+ * <p>
+ * The counts are kept in memory, so that reading them never scans the issue table. They are loaded from a single
+ * GROUP BY query when the application starts, then updated incrementally by {@link #record(Key, Key)} when
+ * issues are created, updated or deleted, once their transaction is committed.
+ * </p>
+ * <p>
+ * Reloading the counts does not hold back the updates: the changes applied while the GROUP BY query runs are also
+ * recorded, then replayed on its results when they replace the counts. A change committed just before the query
+ * reads the table, but applied once the recording started, is counted twice; this and the issues changed outside of
+ * this application can make the counts drift: they are reloaded every hour to correct it.
+ * </p>
+ */
+@Service
+public class IssueStatisticsService {
+
+    private final Logger log = LoggerFactory.getLogger(IssueStatisticsService.class);
+
+    @Inject
+    private IssueRepository issueRepository;
+
+    private volatile ConcurrentMap<Key, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    /**
+     * The changes applied since the current reload started, or null if no reload is running.
+     */
+    private volatile ConcurrentMap<Key, LongAdder> deltas;
+
+    /**
+     * Updates take the read lock, as they can run concurrently; replacing the reloaded counts takes the write lock,
+     * so that each update is either applied to the new counts or recorded in the replayed deltas.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Object rebuilding = new Object();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Liquibase may still be creating the tables: the counts are loaded on first use instead
+            log.warn("Could not count the issues at startup: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reload the counts from the database.
+     */
+    @Scheduled(cron = "0 0 * * * ?")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (rebuilding) {
+            deltas = new ConcurrentHashMap<>();
+            try {
+                ConcurrentMap<Key, LongAdder> rebuilt = new ConcurrentHashMap<>();
+                for (IssueCountDTO count : issueRepository.countByStateAndPriorityAndAssignee()) {
+                    LongAdder adder = new LongAdder();
+                    adder.add(count.getCount());
+                    rebuilt.put(new Key(count.getState(), count.getPriority(), count.getAssigneeId()), adder);
+                }
+                lock.writeLock().lock();
+                try {
+                    deltas.forEach((key, delta) -> rebuilt.computeIfAbsent(key, k -> new LongAdder()).add(delta.sum()));
+                    counters = rebuilt;
+                    loaded = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                log.debug("Counted issues in {} groups", rebuilt.size());
+            } finally {
+                deltas = null;
+            }
+        }
+    }
+
+    /**
+     * @param issue an issue, or null
+     * @return the key under which the issue is counted, or null if the issue is null
+     */
+    public Key keyOf(Issue issue) {
+        if (issue == null) {
+            return null;
+        }
+        return new Key(issue.getState(), issue.getPriority(),
+            issue.getAssignee() == null ? null : issue.getAssignee().getId());
+    }
+
+    /**
+     * Record the change of an issue, once the current transaction is committed.
+     *
+     * @param before the key of the issue before the change, or null if it is created
+     * @param after the key of the issue after the change, or null if it is deleted
+     */
+    public void record(Key before, Key after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    apply(before, after);
+                }
+            });
+        } else {
+            apply(before, after);
+        }
+    }
+
+    /**
+     * Record the creation of issues, once the current transaction is committed.
+     *
+     * @param issues the created issues
+     */
+    public void recordCreated(Collection<Issue> issues) {
+        Map<Key, Long> created = new HashMap<>();
+        for (Issue issue : issues) {
+            created.merge(keyOf(issue), 1L, Long::sum);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    add(created);
+                }
+            });
+        } else {
+            add(created);
+        }
+    }
+
+    /**
+     * Get the counts of issues.
+     *
+     * @param assigneeId the id of the assignee whose issues are counted, or null to count all the issues
+     * @return the counts, without the groups which have no issue
+     */
+    public IssueStatisticsDTO getStatistics(Long assigneeId) {
+        if (!loaded) {
+            rebuild();
+        }
+        List<IssueCountDTO> counts = new ArrayList<>();
+        counters.forEach((key, adder) -> {
+            long count = adder.sum();
+            if (count > 0 && (assigneeId == null || assigneeId.equals(key.assigneeId))) {
+                counts.add(new IssueCountDTO(key.state, key.priority, key.assigneeId, count));
+            }
+        });
+        return new IssueStatisticsDTO(counts);
+    }
+
+    private void apply(Key before, Key after) {
+        lock.readLock().lock();
+        try {
+            if (before != null) {
+                update(before, -1);
+            }
+            if (after != null) {
+                update(after, 1);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Map<Key, Long> created) {
+        lock.readLock().lock();
+        try {
+            created.forEach(this::update);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Update a count, and record the change for the running reload if any; called with the read lock held.
+     */
+    private void update(Key key, long delta) {
+        counters.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        ConcurrentMap<Key, LongAdder> recording = deltas;
+        if (recording != null) {
+            recording.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        }
+    }
+
+    /**
+     * The state, priority and assignee under which an issue is counted.
+     */
+    public static final class Key {
+
+        private final State state;
+
+        private final Priority priority;
+
+        private final Long assigneeId;
+
+        private Key(State state, Priority priority, Long assigneeId) {
+            this.state = state;
+            this.priority = priority;
+            this.assigneeId = assigneeId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return state == key.state && priority == key.priority && Objects.equals(assigneeId, key.assigneeId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(state, priority, assigneeId);
+        }
+
+        @Override
+        public String toString() {
+            return state + "/" + priority + "/" + assigneeId;
+        }
+    }
+}
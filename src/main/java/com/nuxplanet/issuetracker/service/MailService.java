@@ -3,26 +3,48 @@ package com.nuxplanet.issuetracker.service;
 import com.nuxplanet.issuetracker.config.JHipsterProperties;
 import com.nuxplanet.issuetracker.domain.User;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import org.apache.commons.lang3.CharEncoding;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.MessageSource;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring4.SpringTemplateEngine;
 import org.apache.commons.lang3.StringUtils;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
-import java.util.Locale;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for sending e-mails.
  * <p>
- * We use the @Async annotation to send e-mails asynchronously.
+ * In asynchronous mode (the default), e-mails are put in a bounded queue, and a dedicated thread renders them and
+ * sends them by batches of "batchSize" e-mails over a single SMTP connection, so that a burst of e-mails neither
+ * waits for the shared task executor nor opens a connection per e-mail. Sending is limited to "ratePerSecond"
+ * e-mails by a token bucket, which allows bursts of "batchSize" e-mails. When the queue is full, e-mails are dropped,
+ * which is counted. The queue is flushed when the application shuts down.
+ * </p>
+ * <p>
+ * Templates are parsed once, and cached by Thymeleaf when "spring.thymeleaf.cache" is true, and subjects are cached
+ * per locale. In synchronous mode, e-mails are sent immediately, in the calling thread: this is what the tests use.
  * </p>
  */
 @Service
@@ -45,71 +67,255 @@ public class MailService {
     @Inject
     private SpringTemplateEngine templateEngine;
 
-    @Async
-    public void sendEmail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
-        log.debug("Send e-mail[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
-            isMultipart, isHtml, to, subject, content);
+    @Inject
+    private MetricRegistry metricRegistry;
 
-        // Prepare message using a Spring helper
-        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
-        try {
-            MimeMessageHelper message = new MimeMessageHelper(mimeMessage, isMultipart, CharEncoding.UTF_8);
-            message.setTo(to);
-            message.setFrom(jHipsterProperties.getMail().getFrom());
-            message.setSubject(subject);
-            message.setText(content, isHtml);
-            javaMailSender.send(mimeMessage);
-            log.debug("Sent e-mail to User '{}'", to);
-        } catch (Exception e) {
-            log.warn("E-mail could not be sent to user '{}'", to, e);
+    private final ConcurrentMap<String, String> subjects = new ConcurrentHashMap<>();
+
+    private BlockingQueue<Mail> queue;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    private double permits;
+
+    private long lastRefill;
+
+    private Meter sent;
+
+    private Meter dropped;
+
+    private Meter failed;
+
+    private Histogram batchSizes;
+
+    private Timer sending;
+
+    @PostConstruct
+    public void init() {
+        JHipsterProperties.Mail mail = jHipsterProperties.getMail();
+        queue = new ArrayBlockingQueue<>(mail.getQueueCapacity());
+        permits = mail.getBatchSize();
+        lastRefill = System.nanoTime();
+        metricRegistry.register(MetricRegistry.name(MailService.class, "queue-depth"), (Gauge<Integer>) queue::size);
+        sent = metricRegistry.meter(MetricRegistry.name(MailService.class, "sent"));
+        dropped = metricRegistry.meter(MetricRegistry.name(MailService.class, "dropped"));
+        failed = metricRegistry.meter(MetricRegistry.name(MailService.class, "failed"));
+        batchSizes = metricRegistry.histogram(MetricRegistry.name(MailService.class, "batch-size"));
+        sending = metricRegistry.timer(MetricRegistry.name(MailService.class, "sending"));
+        if (mail.isAsync()) {
+            log.debug("Starting asynchronous e-mail sending");
+            running = true;
+            worker = new Thread(this::drain, "mail-sender");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        if (worker != null) {
+            log.info("Flushing {} pending e-mails", queue.size());
+            running = false;
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(30));
         }
     }
 
-    @Async
+    public void sendEmail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
+        enqueue(new Mail(to, subject, content, isMultipart, isHtml));
+    }
+
     public void sendActivationEmail(User user, String baseUrl) {
         log.debug("Sending activation e-mail to '{}'", user.getEmail());
-        Locale locale = Locale.forLanguageTag(user.getLangKey());
-        Context context = new Context(locale);
-        context.setVariable(USER, user);
-        context.setVariable(BASE_URL, baseUrl);
-        String content = templateEngine.process("activationEmail", context);
-        String subject = messageSource.getMessage("email.activation.title", null, locale);
-        sendEmail(user.getEmail(), subject, content, false, true);
+        enqueue(new Mail(user, "activationEmail", "email.activation.title", BASE_URL, baseUrl));
     }
 
-    @Async
     public void sendCreationEmail(User user, String baseUrl) {
         log.debug("Sending creation e-mail to '{}'", user.getEmail());
-        Locale locale = Locale.forLanguageTag(user.getLangKey());
-        Context context = new Context(locale);
-        context.setVariable(USER, user);
-        context.setVariable(BASE_URL, baseUrl);
-        String content = templateEngine.process("creationEmail", context);
-        String subject = messageSource.getMessage("email.activation.title", null, locale);
-        sendEmail(user.getEmail(), subject, content, false, true);
+        enqueue(new Mail(user, "creationEmail", "email.activation.title", BASE_URL, baseUrl));
     }
 
-    @Async
     public void sendPasswordResetMail(User user, String baseUrl) {
         log.debug("Sending password reset e-mail to '{}'", user.getEmail());
-        Locale locale = Locale.forLanguageTag(user.getLangKey());
-        Context context = new Context(locale);
-        context.setVariable(USER, user);
-        context.setVariable(BASE_URL, baseUrl);
-        String content = templateEngine.process("passwordResetEmail", context);
-        String subject = messageSource.getMessage("email.reset.title", null, locale);
-        sendEmail(user.getEmail(), subject, content, false, true);
+        enqueue(new Mail(user, "passwordResetEmail", "email.reset.title", BASE_URL, baseUrl));
     }
 
-    @Async
     public void sendSocialRegistrationValidationEmail(User user, String provider) {
         log.debug("Sending social registration validation e-mail to '{}'", user.getEmail());
-        Locale locale = Locale.forLanguageTag(user.getLangKey());
-        Context context = new Context(locale);
-        context.setVariable(USER, user);
-        context.setVariable("provider", StringUtils.capitalize(provider));
-        String content = templateEngine.process("socialRegistrationValidationEmail", context);
-        String subject = messageSource.getMessage("email.social.registration.title", null, locale);
-        sendEmail(user.getEmail(), subject, content, false, true);
+        enqueue(new Mail(user, "socialRegistrationValidationEmail", "email.social.registration.title",
+            "provider", StringUtils.capitalize(provider)));
+    }
+
+    /**
+     * @return the number of e-mails waiting to be sent
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void enqueue(Mail mail) {
+        if (worker == null) {
+            send(Collections.singletonList(mail));
+        } else if (!queue.offer(mail)) {
+            dropped.mark();
+            log.warn("E-mail queue is full, dropped e-mail to '{}'", mail.to);
+        }
+    }
+
+    private void drain() {
+        int batchSize = jHipsterProperties.getMail().getBatchSize();
+        List<Mail> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Mail mail = running ? queue.take() : queue.poll();
+                if (mail != null) {
+                    batch.add(mail);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+            } catch (InterruptedException e) {
+                // Shutting down: send what was taken, then drain the rest of the queue without waiting
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                send(batch);
+                batch.clear();
+            }
+        }
+        log.debug("Asynchronous e-mail sending stopped");
+    }
+
+    /**
+     * Render e-mails, and send them over one SMTP connection.
+     */
+    private void send(List<Mail> mails) {
+        List<MimeMessage> mimeMessages = new ArrayList<>(mails.size());
+        List<String> recipients = new ArrayList<>(mails.size());
+        for (Mail mail : mails) {
+            try {
+                mimeMessages.add(render(mail));
+                recipients.add(mail.to);
+            } catch (MessagingException | RuntimeException e) {
+                log.warn("E-mail could not be rendered for user '{}'", mail.to, e);
+                failed.mark();
+            }
+        }
+        if (mimeMessages.isEmpty()) {
+            return;
+        }
+        acquirePermits(mimeMessages.size());
+        batchSizes.update(mimeMessages.size());
+        try (Timer.Context context = sending.time()) {
+            javaMailSender.send(mimeMessages.toArray(new MimeMessage[mimeMessages.size()]));
+            sent.mark(mimeMessages.size());
+            log.debug("Sent e-mails to users {}", recipients);
+        } catch (MailSendException e) {
+            int failures = e.getFailedMessages().isEmpty() ? mimeMessages.size() : e.getFailedMessages().size();
+            log.warn("{} of {} e-mails could not be sent to users {}", failures, mimeMessages.size(), recipients, e);
+            sent.mark(mimeMessages.size() - failures);
+            failed.mark(failures);
+        } catch (MailException e) {
+            log.warn("E-mails could not be sent to users {}", recipients, e);
+            failed.mark(mimeMessages.size());
+        }
+    }
+
+    private MimeMessage render(Mail mail) throws MessagingException {
+        String subject = mail.subject;
+        String content = mail.content;
+        if (mail.template != null) {
+            subject = subjects.computeIfAbsent(mail.subjectKey + "|" + mail.locale.toLanguageTag(),
+                key -> messageSource.getMessage(mail.subjectKey, null, mail.locale));
+            Context context = new Context(mail.locale);
+            context.setVariables(mail.variables);
+            content = templateEngine.process(mail.template, context);
+        }
+        log.debug("Send e-mail[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
+            mail.multipart, mail.html, mail.to, subject, content);
+
+        // Prepare message using a Spring helper
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper message = new MimeMessageHelper(mimeMessage, mail.multipart, CharEncoding.UTF_8);
+        message.setTo(mail.to);
+        message.setFrom(jHipsterProperties.getMail().getFrom());
+        message.setSubject(subject);
+        message.setText(content, mail.html);
+        return mimeMessage;
+    }
+
+    /**
+     * Token bucket: wait until enough permits have accumulated, at "ratePerSecond", up to "batchSize" permits.
+     */
+    private synchronized void acquirePermits(int count) {
+        JHipsterProperties.Mail mail = jHipsterProperties.getMail();
+        while (true) {
+            long now = System.nanoTime();
+            permits = Math.min(mail.getBatchSize(),
+                permits + (now - lastRefill) * mail.getRatePerSecond() / TimeUnit.SECONDS.toNanos(1));
+            lastRefill = now;
+            if (permits >= count) {
+                permits -= count;
+                return;
+            }
+            long waitNanos = (long) ((count - permits) * TimeUnit.SECONDS.toNanos(1) / mail.getRatePerSecond());
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                // Shutting down: send the remaining e-mails without waiting
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * An e-mail waiting in the queue: either rendered already, or rendered from a template when it is sent.
+     */
+    private static final class Mail {
+
+        private final String to;
+
+        private final String subject;
+
+        private final String content;
+
+        private final boolean multipart;
+
+        private final boolean html;
+
+        private final String template;
+
+        private final String subjectKey;
+
+        private final Locale locale;
+
+        private final Map<String, Object> variables;
+
+        private Mail(String to, String subject, String content, boolean multipart, boolean html) {
+            this.to = to;
+            this.subject = subject;
+            this.content = content;
+            this.multipart = multipart;
+            this.html = html;
+            this.template = null;
+            this.subjectKey = null;
+            this.locale = null;
+            this.variables = null;
+        }
+
+        private Mail(User user, String template, String subjectKey, String name, Object value) {
+            this.to = user.getEmail();
+            this.subject = null;
+            this.content = null;
+            this.multipart = false;
+            this.html = true;
+            this.template = template;
+            this.subjectKey = subjectKey;
+            this.locale = Locale.forLanguageTag(user.getLangKey());
+            this.variables = new HashMap<>();
+            variables.put(USER, user);
+            variables.put(name, value);
+        }
     }
 }
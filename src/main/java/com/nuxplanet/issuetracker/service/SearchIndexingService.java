@@ -0,0 +1,468 @@
+package com.nuxplanet.issuetracker.service;
+
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
+import com.nuxplanet.issuetracker.domain.Issue;
+import com.nuxplanet.issuetracker.domain.User;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.Client;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service keeping the Elasticsearch indexes in sync with the database.
+ * <p>
+ * In asynchronous mode (the default), documents are serialized when the database transaction commits and put in a
+ * bounded queue, where repeated updates of the same document are coalesced. A background thread sends them to
+ * Elasticsearch through the bulk API, as soon as "bulkSize" documents are waiting or "flushIntervalMs" has
+ * elapsed, and retries failed items with an exponential backoff. When the queue is full, the calling thread waits
+ * for room in it, which slows writers down instead of dropping documents.
+ * </p>
+ * <p>
+ * Documents are only sent by the background thread while it runs, so that an older version of a document never
+ * reaches Elasticsearch after a newer one: a failed item is not retried either once a newer operation on its
+ * document is waiting.
+ * </p>
+ * <p>
+ * In synchronous mode, documents are indexed immediately, in the calling thread, and the index is refreshed: this
+ * is what the tests use, as they check Elasticsearch inside rolled-back transactions.
+ * </p>
+ * <p>
+ * While an index is rebuilt by the {@link SearchReindexService}, the documents of its type are also sent to the new
+ * index, in the same bulk requests.
+ * </p>
+ */
+@Service
+public class SearchIndexingService {
+
+    private final Logger log = LoggerFactory.getLogger(SearchIndexingService.class);
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Inject
+    private EntityMapper entityMapper;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    private final ConcurrentMap<DocumentKey, IndexOperation> pending = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Class<?>, String> copies = new ConcurrentHashMap<>();
+
+    private BlockingQueue<DocumentKey> queue;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    private Timer lag;
+
+    private Meter indexed;
+
+    private Meter failed;
+
+    private Counter retries;
+
+    private Histogram bulkSizes;
+
+    @PostConstruct
+    public void init() {
+        JHipsterProperties.Elasticsearch.Indexing indexing = jHipsterProperties.getElasticsearch().getIndexing();
+        queue = new LinkedBlockingQueue<>(indexing.getQueueCapacity());
+        metricRegistry.register(MetricRegistry.name(SearchIndexingService.class, "queue-depth"),
+            (Gauge<Integer>) pending::size);
+        lag = metricRegistry.timer(MetricRegistry.name(SearchIndexingService.class, "lag"));
+        indexed = metricRegistry.meter(MetricRegistry.name(SearchIndexingService.class, "indexed"));
+        failed = metricRegistry.meter(MetricRegistry.name(SearchIndexingService.class, "failed"));
+        retries = metricRegistry.counter(MetricRegistry.name(SearchIndexingService.class, "retries"));
+        bulkSizes = metricRegistry.histogram(MetricRegistry.name(SearchIndexingService.class, "bulk-size"));
+        if (indexing.isAsync()) {
+            log.debug("Starting asynchronous Elasticsearch indexing");
+            running = true;
+            worker = new Thread(this::drain, "search-indexing");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        if (worker != null) {
+            log.info("Flushing {} pending Elasticsearch documents", pending.size());
+            running = false;
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    /**
+     * Index an issue, once the current transaction is committed.
+     *
+     * @param issue the issue to index
+     */
+    public void index(Issue issue) {
+        enqueue(Issue.class, issue.getId(), issue);
+    }
+
+    /**
+     * Index a user, once the current transaction is committed.
+     *
+     * @param user the user to index
+     */
+    public void index(User user) {
+        enqueue(User.class, user.getId(), user);
+    }
+
+    /**
+     * Index issues in bulk, once the current transaction is committed.
+     *
+     * @param issues the issues to index
+     */
+    public void indexAll(Collection<Issue> issues) {
+        List<IndexOperation> operations = new ArrayList<>(issues.size());
+        for (Issue issue : issues) {
+            operations.add(operation(Issue.class, issue.getId(), issue));
+        }
+        enqueue(operations);
+    }
+
+    /**
+     * Remove a document from its index, once the current transaction is committed.
+     *
+     * @param type the indexed entity class
+     * @param id the id of the entity
+     */
+    public void delete(Class<?> type, Long id) {
+        enqueue(type, id, null);
+    }
+
+    /**
+     * Remove documents from their index in bulk, once the current transaction is committed.
+     *
+     * @param type the indexed entity class
+     * @param ids the ids of the entities
+     */
+    public void deleteAll(Class<?> type, Collection<Long> ids) {
+        List<IndexOperation> operations = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            operations.add(operation(type, id, null));
+        }
+        enqueue(operations);
+    }
+
+    /**
+     * Also send the changes of a type of documents to another index, while that index is being rebuilt, until
+     * {@link #stopCopying(Class)} is called.
+     *
+     * @param type the indexed entity class
+     * @param index the name of the index receiving the copies
+     */
+    public void copyTo(Class<?> type, String index) {
+        copies.put(type, index);
+    }
+
+    /**
+     * Stop sending the changes of a type of documents to another index.
+     *
+     * @param type the indexed entity class
+     */
+    public void stopCopying(Class<?> type) {
+        copies.remove(type);
+    }
+
+    /**
+     * @return the number of documents waiting to be indexed
+     */
+    public int getQueueDepth() {
+        return pending.size();
+    }
+
+    private void enqueue(Class<?> type, Long id, Object document) {
+        enqueue(Collections.singletonList(operation(type, id, document)));
+    }
+
+    private IndexOperation operation(Class<?> type, Long id, Object document) {
+        try {
+            return new IndexOperation(new DocumentKey(type, id),
+                document == null ? null : entityMapper.mapToString(document), System.nanoTime());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize " + type.getSimpleName() + " " + id, e);
+        }
+    }
+
+    private void enqueue(List<IndexOperation> operations) {
+        if (operations.isEmpty()) {
+            return;
+        }
+        if (!jHipsterProperties.getElasticsearch().getIndexing().isAsync()) {
+            flush(operations, true);
+        } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    operations.forEach(SearchIndexingService.this::submit);
+                }
+            });
+        } else {
+            operations.forEach(this::submit);
+        }
+    }
+
+    private void submit(IndexOperation operation) {
+        IndexOperation previous = pending.merge(operation.key, operation, IndexOperation::coalesce);
+        if (previous != operation) {
+            return;
+        }
+        long timeout = jHipsterProperties.getElasticsearch().getIndexing().getFlushIntervalMs();
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    if (queue.offer(operation.key, timeout, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+                if (!worker.isAlive()) {
+                    // Stopped: no other thread sends documents anymore, so the calling thread sends its own
+                    IndexOperation latest = pending.remove(operation.key);
+                    if (latest != null) {
+                        flush(Collections.singletonList(latest), false);
+                    }
+                    return;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void drain() {
+        JHipsterProperties.Elasticsearch.Indexing indexing = jHipsterProperties.getElasticsearch().getIndexing();
+        List<IndexOperation> batch = new ArrayList<>(indexing.getBulkSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                DocumentKey key = queue.poll(indexing.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(indexing.getFlushIntervalMs());
+                while (key != null) {
+                    IndexOperation operation = pending.remove(key);
+                    if (operation != null) {
+                        batch.add(operation);
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= indexing.getBulkSize() || remaining <= 0) {
+                        break;
+                    }
+                    key = running ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                }
+            } catch (InterruptedException e) {
+                // Shutting down: flush what was taken, then drain the rest of the queue without waiting
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch, false);
+                batch.clear();
+            }
+        }
+        log.debug("Asynchronous Elasticsearch indexing stopped");
+    }
+
+    private void flush(List<IndexOperation> operations, boolean refresh) {
+        JHipsterProperties.Elasticsearch.Indexing indexing = jHipsterProperties.getElasticsearch().getIndexing();
+        bulkSizes.update(operations.size());
+        List<IndexOperation> remaining = operations;
+        for (int attempt = 0; !remaining.isEmpty(); attempt++) {
+            if (attempt > 0) {
+                if (attempt > indexing.getMaxRetries()) {
+                    log.error("Giving up indexing {} documents in Elasticsearch after {} retries",
+                        remaining.size(), indexing.getMaxRetries());
+                    failed.mark(remaining.size());
+                    return;
+                }
+                retries.inc();
+                try {
+                    Thread.sleep(indexing.getRetryBackoffMs() << Math.min(attempt - 1, 10));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                remaining = withoutSuperseded(remaining, operations);
+                if (remaining.isEmpty()) {
+                    return;
+                }
+            }
+            remaining = execute(remaining, refresh);
+        }
+    }
+
+    /**
+     * Drop the failed operations which a later operation on the same document replaces, in the same bulk request or
+     * waiting in the queue: retrying them would overwrite the newer document.
+     */
+    private List<IndexOperation> withoutSuperseded(List<IndexOperation> failedOperations,
+        List<IndexOperation> operations) {
+
+        Map<DocumentKey, IndexOperation> latest = new HashMap<>();
+        for (IndexOperation operation : operations) {
+            latest.put(operation.key, operation);
+        }
+        List<IndexOperation> retry = new ArrayList<>();
+        for (IndexOperation operation : failedOperations) {
+            if (latest.get(operation.key) == operation && !pending.containsKey(operation.key)) {
+                retry.add(operation);
+            } else {
+                log.debug("Not retrying {}, replaced by a newer document", operation.key);
+            }
+        }
+        return retry;
+    }
+
+    /**
+     * Send one bulk request.
+     *
+     * @return the operations which failed and should be retried
+     */
+    private List<IndexOperation> execute(List<IndexOperation> operations, boolean refresh) {
+        Client client = elasticsearchTemplate.getClient();
+        BulkRequestBuilder bulkRequest = client.prepareBulk().setRefresh(refresh);
+        List<IndexOperation> copied = new ArrayList<>();
+        for (IndexOperation operation : operations) {
+            add(client, bulkRequest, operation, elasticsearchTemplate.getPersistentEntityFor(operation.key.type)
+                .getIndexName());
+        }
+        // Copies come after the operations, so that the first items of the response match the operations
+        for (IndexOperation operation : operations) {
+            String copy = copies.get(operation.key.type);
+            if (copy != null) {
+                add(client, bulkRequest, operation, copy);
+                copied.add(operation);
+            }
+        }
+        BulkResponse response;
+        try {
+            response = bulkRequest.get();
+        } catch (RuntimeException e) {
+            log.warn("Elasticsearch bulk request of {} documents failed: {}", operations.size(), e.getMessage());
+            return operations;
+        }
+        List<IndexOperation> retry = new ArrayList<>();
+        for (BulkItemResponse item : response.getItems()) {
+            if (item.getItemId() >= operations.size()) {
+                if (item.isFailed()) {
+                    log.warn("Elasticsearch could not copy {} to index {}: {}",
+                        copied.get(item.getItemId() - operations.size()).key, item.getIndex(),
+                        item.getFailureMessage());
+                }
+                continue;
+            }
+            IndexOperation operation = operations.get(item.getItemId());
+            if (item.isFailed()) {
+                log.warn("Elasticsearch could not index {}: {}", operation.key, item.getFailureMessage());
+                retry.add(operation);
+            } else {
+                indexed.mark();
+                lag.update(System.nanoTime() - operation.enqueuedAt, TimeUnit.NANOSECONDS);
+            }
+        }
+        return retry;
+    }
+
+    private void add(Client client, BulkRequestBuilder bulkRequest, IndexOperation operation, String index) {
+        String type = elasticsearchTemplate.getPersistentEntityFor(operation.key.type).getIndexType();
+        String id = operation.key.id.toString();
+        if (operation.source == null) {
+            bulkRequest.add(client.prepareDelete(index, type, id));
+        } else {
+            bulkRequest.add(client.prepareIndex(index, type, id).setSource(operation.source));
+        }
+    }
+
+    private static final class DocumentKey {
+
+        private final Class<?> type;
+
+        private final Long id;
+
+        private DocumentKey(Class<?> type, Long id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            DocumentKey that = (DocumentKey) o;
+            return type.equals(that.type) && id.equals(that.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + id.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return type.getSimpleName() + "#" + id;
+        }
+    }
+
+    /**
+     * An index (or delete, when the source is null) operation waiting in the queue.
+     */
+    private static final class IndexOperation {
+
+        private final DocumentKey key;
+
+        private final String source;
+
+        private final long enqueuedAt;
+
+        private IndexOperation(DocumentKey key, String source, long enqueuedAt) {
+            this.key = key;
+            this.source = source;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        /**
+         * Keep the latest document, but the oldest enqueue time, so that the lag is not hidden by coalescing.
+         */
+        private static IndexOperation coalesce(IndexOperation previous, IndexOperation latest) {
+            return new IndexOperation(latest.key, latest.source, previous.enqueuedAt);
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.nuxplanet.issuetracker.service;
+
+import com.nuxplanet.issuetracker.async.MonitoredThreadPoolTaskExecutor;
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
+import com.nuxplanet.issuetracker.domain.Issue;
+import com.nuxplanet.issuetracker.domain.User;
+import com.nuxplanet.issuetracker.repository.IssueRepository;
+import com.nuxplanet.issuetracker.repository.UserRepository;
+import com.nuxplanet.issuetracker.service.dto.ReindexStatusDTO;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequestBuilder;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.client.IndicesAdminClient;
+import org.elasticsearch.cluster.metadata.AliasOrIndex;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.indices.InvalidAliasNameException;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.annotations.Mapping;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Service rebuilding the Elasticsearch indexes from the database, without interrupting searches.
+ * <p>
+ * Each entity is indexed in a new, versioned index, named after the alias searched by the application, such as
+ * "issue_20161201120000000". Its id range is split in slices, which are read by chunks of "chunkSize" rows, each
+ * chunk in its own read-only transaction, and bulk loaded by "parallelism" threads, with the refresh of the new index
+ * disabled. Meanwhile, the changes of the entities are also sent to the new index by the
+ * {@link SearchIndexingService}; a row read before such a change does not overwrite it, as rows are only created in
+ * the new index. Once loaded, the alias is moved to the new index in one atomic request, and the previous index is
+ * deleted.
+ * </p>
+ * <p>
+ * The first rebuild replaces the indexes created under the name of the alias by Spring Data: as an index and an
+ * alias cannot have the same name, searches fail between the deletion of that index and the creation of the alias.
+ * </p>
+ */
+@Service
+public class SearchReindexService {
+
+    private final Logger log = LoggerFactory.getLogger(SearchReindexService.class);
+
+    private static final DateTimeFormatter VERSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+
+    private static final int SLICES_PER_THREAD = 4;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Inject
+    private EntityMapper entityMapper;
+
+    @Inject
+    private SearchIndexingService searchIndexingService;
+
+    @Inject
+    private IssueRepository issueRepository;
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    private final AtomicReference<ReindexStatusDTO> status = new AtomicReference<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    private MonitoredThreadPoolTaskExecutor executor;
+
+    private Meter indexed;
+
+    private Meter failed;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        executor = new MonitoredThreadPoolTaskExecutor("reindex", metricRegistry);
+        executor.setMaxPoolSize(jHipsterProperties.getElasticsearch().getReindex().getParallelism());
+        executor.initialize();
+        indexed = metricRegistry.meter(MetricRegistry.name(SearchReindexService.class, "indexed"));
+        failed = metricRegistry.meter(MetricRegistry.name(SearchReindexService.class, "failed"));
+        metricRegistry.register(MetricRegistry.name(SearchReindexService.class, "progress"),
+            (Gauge<Long>) () -> getStatus().map(ReindexStatusDTO::getProgress).orElse(0L));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * @return the progress of the current rebuild, or of the last one, or empty if the indexes were never rebuilt
+     */
+    public Optional<ReindexStatusDTO> getStatus() {
+        return Optional.ofNullable(status.get());
+    }
+
+    /**
+     * Start rebuilding the issue and user indexes, in the background.
+     *
+     * @return the progress of the rebuild, or empty if a rebuild is already running
+     */
+    public Optional<ReindexStatusDTO> start() {
+        ReindexStatusDTO current = status.get();
+        if (current != null && current.getState() == ReindexStatusDTO.State.RUNNING) {
+            return Optional.empty();
+        }
+        String version = ZonedDateTime.now(ZoneOffset.UTC).format(VERSION_FORMAT);
+        List<Source<?>> sources = Arrays.asList(
+            new Source<>(Issue.class, issueRepository::count, issueRepository::findMinId, issueRepository::findMaxId,
+                issueRepository::findAllByIdRange, Issue::getId),
+            new Source<>(User.class, userRepository::count, userRepository::findMinId, userRepository::findMaxId,
+                userRepository::findAllByIdRange, User::getId));
+        List<ReindexStatusDTO.IndexStatus> indexes = sources.stream()
+            .map(source -> elasticsearchTemplate.getPersistentEntityFor(source.type).getIndexName())
+            .map(alias -> new ReindexStatusDTO.IndexStatus(alias, alias + "_" + version))
+            .collect(Collectors.toList());
+        ReindexStatusDTO next = new ReindexStatusDTO(indexes);
+        if (!status.compareAndSet(current, next)) {
+            return Optional.empty();
+        }
+        log.info("Rebuilding the Elasticsearch indexes {}", indexes);
+        Thread coordinator = new Thread(() -> {
+            try {
+                for (int i = 0; i < sources.size(); i++) {
+                    rebuild(sources.get(i), indexes.get(i));
+                }
+                next.complete();
+                log.info("Rebuilt the Elasticsearch indexes in {}",
+                    Duration.between(next.getStarted(), next.getFinished()));
+            } catch (RuntimeException e) {
+                log.error("Could not rebuild the Elasticsearch indexes", e);
+                next.fail(e.getMessage());
+            }
+        }, "search-reindex");
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return Optional.of(next);
+    }
+
+    private <T> void rebuild(Source<T> source, ReindexStatusDTO.IndexStatus indexStatus) {
+        ElasticsearchPersistentEntity<?> entity = elasticsearchTemplate.getPersistentEntityFor(source.type);
+        String index = indexStatus.getIndex();
+        createIndex(source.type, index, entity.getIndexType());
+        searchIndexingService.copyTo(source.type, index);
+        try {
+            indexStatus.total(transactionTemplate.execute(status -> source.count.get()));
+            Long minId = transactionTemplate.execute(status -> source.minId.get());
+            Long maxId = transactionTemplate.execute(status -> source.maxId.get());
+            if (minId != null) {
+                List<Future<?>> slices = new ArrayList<>();
+                for (long[] slice : slices(minId - 1, maxId)) {
+                    slices.add(executor.submit(() ->
+                        indexSlice(source, index, entity.getIndexType(), slice[0], slice[1], indexStatus)));
+                }
+                for (Future<?> slice : slices) {
+                    await(slice);
+                }
+            }
+            if (indexStatus.getFailed() > 0) {
+                throw new IllegalStateException(indexStatus.getFailed() + " documents could not be indexed in " +
+                    index);
+            }
+            elasticsearchTemplate.getClient().admin().indices().prepareUpdateSettings(index)
+                .setSettings(Settings.builder().put("index.refresh_interval", "1s").build()).get();
+            elasticsearchTemplate.refresh(index);
+            moveAlias(indexStatus.getAlias(), index);
+        } catch (RuntimeException e) {
+            elasticsearchTemplate.deleteIndex(index);
+            throw e;
+        } finally {
+            searchIndexingService.stopCopying(source.type);
+        }
+    }
+
+    private void createIndex(Class<?> type, String index, String indexType) {
+        elasticsearchTemplate.createIndex(index, Collections.singletonMap("index.refresh_interval", "-1"));
+        Mapping mapping = type.getAnnotation(Mapping.class);
+        if (mapping != null) {
+            elasticsearchTemplate.putMapping(index, indexType,
+                ElasticsearchTemplate.readFileFromClasspath(mapping.mappingPath()));
+        }
+    }
+
+    /**
+     * Split the (after, last] id range in about "parallelism" slices per thread, of at least "chunkSize" ids.
+     */
+    private List<long[]> slices(long after, long last) {
+        JHipsterProperties.Elasticsearch.Reindex reindex = jHipsterProperties.getElasticsearch().getReindex();
+        long span = last - after;
+        long count = Math.max(1, Math.min(reindex.getParallelism() * SLICES_PER_THREAD, span / reindex.getChunkSize()));
+        long width = (span + count - 1) / count;
+        List<long[]> slices = new ArrayList<>();
+        for (long from = after; from < last; from += width) {
+            slices.add(new long[]{from, Math.min(from + width, last)});
+        }
+        return slices;
+    }
+
+    private <T> void indexSlice(Source<T> source, String index, String indexType, long after, long last,
+                                ReindexStatusDTO.IndexStatus indexStatus) {
+        Client client = elasticsearchTemplate.getClient();
+        Pageable chunk = new PageRequest(0, jHipsterProperties.getElasticsearch().getReindex().getChunkSize());
+        Long from = after;
+        while (from != null) {
+            Long chunkAfter = from;
+            BulkRequestBuilder bulkRequest = client.prepareBulk();
+            from = transactionTemplate.execute(status -> {
+                List<T> documents = source.range.read(chunkAfter, last, chunk);
+                for (T document : documents) {
+                    bulkRequest.add(client.prepareIndex(index, indexType, source.id.apply(document).toString())
+                        .setOpType(IndexRequest.OpType.CREATE)
+                        .setSource(toSource(document)));
+                }
+                return documents.size() < chunk.getPageSize() ? null :
+                    source.id.apply(documents.get(documents.size() - 1));
+            });
+            if (bulkRequest.numberOfActions() > 0) {
+                index(bulkRequest.get(), indexStatus);
+            }
+        }
+    }
+
+    private void index(BulkResponse response, ReindexStatusDTO.IndexStatus indexStatus) {
+        long failures = 0;
+        for (BulkItemResponse item : response.getItems()) {
+            // A conflict means the document was changed, and copied to the new index, after its row was read
+            if (item.isFailed() && item.getFailure().getStatus() != RestStatus.CONFLICT) {
+                log.warn("Elasticsearch could not index {} {} in {}: {}", item.getType(), item.getId(),
+                    item.getIndex(), item.getFailureMessage());
+                failures++;
+            }
+        }
+        long successes = response.getItems().length - failures;
+        indexStatus.indexed(successes);
+        indexStatus.failed(failures);
+        indexed.mark(successes);
+        failed.mark(failures);
+    }
+
+    /**
+     * Point the alias to the new index only, and delete the indexes it pointed to.
+     */
+    private void moveAlias(String alias, String index) {
+        IndicesAdminClient indices = elasticsearchTemplate.getClient().admin().indices();
+        AliasOrIndex current = elasticsearchTemplate.getClient().admin().cluster().prepareState().get().getState()
+            .getMetaData().getAliasAndIndexLookup().get(alias);
+        if (current != null && !current.isAlias()) {
+            log.info("Replacing the Elasticsearch index {} by an alias of {}", alias, index);
+            addAliasReplacingIndex(indices, alias, index);
+            return;
+        }
+        List<String> previous = current == null ? Collections.emptyList() :
+            current.getIndices().stream().map(IndexMetaData::getIndex).collect(Collectors.toList());
+        IndicesAliasesRequestBuilder aliases = indices.prepareAliases().addAlias(index, alias);
+        previous.forEach(previousIndex -> aliases.removeAlias(previousIndex, alias));
+        aliases.get();
+        log.info("Moved the Elasticsearch alias {} from {} to {}", alias, previous, index);
+        previous.forEach(previousIndex -> indices.prepareDelete(previousIndex).get());
+    }
+
+    private void addAliasReplacingIndex(IndicesAdminClient indices, String alias, String index) {
+        for (int attempt = 1; ; attempt++) {
+            if (indices.prepareExists(alias).get().isExists()) {
+                indices.prepareDelete(alias).get();
+            }
+            try {
+                indices.prepareAliases().addAlias(index, alias).get();
+                return;
+            } catch (InvalidAliasNameException e) {
+                // A document was indexed meanwhile, which created the index again
+                if (attempt == 3) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private String toSource(Object document) {
+        try {
+            return entityMapper.mapToString(document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void await(Future<?> slice) {
+        try {
+            slice.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rebuilding the Elasticsearch indexes", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeReader<T> {
+
+        List<T> read(Long after, Long last, Pageable pageable);
+    }
+
+    /**
+     * The rows of an indexed entity, read by id range.
+     */
+    private static final class Source<T> {
+
+        private final Class<T> type;
+
+        private final Supplier<Long> count;
+
+        private final Supplier<Long> minId;
+
+        private final Supplier<Long> maxId;
+
+        private final RangeReader<T> range;
+
+        private final Function<T, Long> id;
+
+        private Source(Class<T> type, Supplier<Long> count, Supplier<Long> minId, Supplier<Long> maxId,
+                       RangeReader<T> range, Function<T, Long> id) {
+            this.type = type;
+            this.count = count;
+            this.minId = minId;
+            this.maxId = maxId;
+            this.range = range;
+            this.id = id;
+        }
+    }
+}
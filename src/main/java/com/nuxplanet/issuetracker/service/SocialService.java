@@ -4,7 +4,6 @@ import com.nuxplanet.issuetracker.domain.Authority;
 import com.nuxplanet.issuetracker.domain.User;
 import com.nuxplanet.issuetracker.repository.AuthorityRepository;
 import com.nuxplanet.issuetracker.repository.UserRepository;
-import com.nuxplanet.issuetracker.repository.search.UserSearchRepository;
 
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -40,7 +39,7 @@ public class SocialService {
     private UserRepository userRepository;
 
     @Inject
-    private UserSearchRepository userSearchRepository;
+    private SearchIndexingService searchIndexingService;
 
     @Inject
     private MailService mailService;
@@ -103,8 +102,9 @@ public class SocialService {
         newUser.setAuthorities(authorities);
         newUser.setLangKey(langKey);
 
-        userSearchRepository.save(newUser);
-        return userRepository.save(newUser);
+        User result = userRepository.save(newUser);
+        searchIndexingService.index(result);
+        return result;
     }
 
     /**
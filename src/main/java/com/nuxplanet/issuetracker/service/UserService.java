@@ -5,20 +5,28 @@ import com.nuxplanet.issuetracker.domain.User;
 import com.nuxplanet.issuetracker.repository.AuthorityRepository;
 import com.nuxplanet.issuetracker.repository.PersistentTokenRepository;
 import com.nuxplanet.issuetracker.repository.UserRepository;
-import com.nuxplanet.issuetracker.repository.search.UserSearchRepository;
 import com.nuxplanet.issuetracker.security.AuthoritiesConstants;
 import com.nuxplanet.issuetracker.security.SecurityUtils;
+import com.nuxplanet.issuetracker.security.UserDetailsCache;
 import com.nuxplanet.issuetracker.service.util.RandomUtil;
 import com.nuxplanet.issuetracker.web.rest.vm.ManagedUserVM;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
+import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 import java.util.*;
 
@@ -29,6 +37,8 @@ import java.util.*;
 @Transactional
 public class UserService {
 
+    private static final int CLEANUP_CHUNK_SIZE = 500;
+
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
     @Inject
@@ -41,7 +51,13 @@ public class UserService {
     private UserRepository userRepository;
 
     @Inject
-    private UserSearchRepository userSearchRepository;
+    private SearchIndexingService searchIndexingService;
+
+    @Inject
+    private UserSuggestionService userSuggestionService;
+
+    @Inject
+    private IssueResponseCache issueResponseCache;
 
     @Inject
     private PersistentTokenRepository persistentTokenRepository;
@@ -49,6 +65,31 @@ public class UserService {
     @Inject
     private AuthorityRepository authorityRepository;
 
+    @Inject
+    private UserDetailsCache userDetailsCache;
+
+    @Inject
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    private TransactionTemplate cleanupTransactionTemplate;
+
+    private Meter deletedTokens;
+
+    private Meter deletedUsers;
+
+    @PostConstruct
+    public void init() {
+        cleanupTransactionTemplate = new TransactionTemplate(transactionManager);
+        deletedTokens = metricRegistry.meter(MetricRegistry.name(UserService.class, "expired-tokens-deleted"));
+        deletedUsers = metricRegistry.meter(MetricRegistry.name(UserService.class, "not-activated-users-deleted"));
+    }
+
     public Optional<User> activateRegistration(String key) {
         log.debug("Activating user for activation key {}", key);
         return userRepository.findOneByActivationKey(key)
@@ -57,7 +98,8 @@ public class UserService {
                 user.setActivated(true);
                 user.setActivationKey(null);
                 userRepository.save(user);
-                userSearchRepository.save(user);
+                searchIndexingService.index(user);
+                userSuggestionService.update(user);
                 log.debug("Activated user: {}", user);
                 return user;
             });
@@ -76,6 +118,7 @@ public class UserService {
                 user.setResetKey(null);
                 user.setResetDate(null);
                 userRepository.save(user);
+                userDetailsCache.removeUserFromCache(user.getLogin());
                 return user;
            });
     }
@@ -112,7 +155,8 @@ public class UserService {
         authorities.add(authority);
         newUser.setAuthorities(authorities);
         userRepository.save(newUser);
-        userSearchRepository.save(newUser);
+        searchIndexingService.index(newUser);
+        userSuggestionService.update(newUser);
         log.debug("Created Information for User: {}", newUser);
         return newUser;
     }
@@ -141,7 +185,8 @@ public class UserService {
         user.setResetDate(ZonedDateTime.now());
         user.setActivated(true);
         userRepository.save(user);
-        userSearchRepository.save(user);
+        searchIndexingService.index(user);
+        userSuggestionService.update(user);
         log.debug("Created Information for User: {}", user);
         return user;
     }
@@ -153,7 +198,9 @@ public class UserService {
             u.setEmail(email);
             u.setLangKey(langKey);
             userRepository.save(u);
-            userSearchRepository.save(u);
+            searchIndexingService.index(u);
+            userSuggestionService.update(u);
+            issueResponseCache.evictAll();
             log.debug("Changed Information for User: {}", u);
         });
     }
@@ -164,6 +211,7 @@ public class UserService {
         Optional.of(userRepository
             .findOne(id))
             .ifPresent(u -> {
+                userDetailsCache.removeUserFromCache(u.getLogin());
                 u.setLogin(login);
                 u.setFirstName(firstName);
                 u.setLastName(lastName);
@@ -175,6 +223,9 @@ public class UserService {
                 authorities.stream().forEach(
                     authority -> managedAuthorities.add(authorityRepository.findOne(authority))
                 );
+                userDetailsCache.removeUserFromCache(login);
+                userSuggestionService.update(u);
+                issueResponseCache.evictAll();
                 log.debug("Changed Information for User: {}", u);
             });
     }
@@ -183,7 +234,10 @@ public class UserService {
         userRepository.findOneByLogin(login).ifPresent(u -> {
             socialService.deleteUserSocialConnection(u.getLogin());
             userRepository.delete(u);
-            userSearchRepository.delete(u);
+            searchIndexingService.delete(User.class, u.getId());
+            userSuggestionService.delete(u.getId());
+            issueResponseCache.evictAll();
+            userDetailsCache.removeUserFromCache(u.getLogin());
             log.debug("Deleted User: {}", u);
         });
     }
@@ -193,10 +247,26 @@ public class UserService {
             String encryptedPassword = passwordEncoder.encode(password);
             u.setPassword(encryptedPassword);
             userRepository.save(u);
+            userDetailsCache.removeUserFromCache(u.getLogin());
             log.debug("Changed password for User: {}", u);
         });
     }
 
+    /**
+     * Hash again the password of a user, with the configured algorithm and cost.
+     *
+     * @param login the login of the user
+     * @param password the password of the user, which has just been checked
+     */
+    public void upgradePassword(String login, String password) {
+        userRepository.findOneByLogin(login).ifPresent(u -> {
+            u.setPassword(passwordEncoder.encode(password));
+            userRepository.save(u);
+            userDetailsCache.removeUserFromCache(u.getLogin());
+            log.debug("Upgraded password hash for User: {}", u);
+        });
+    }
+
     @Transactional(readOnly = true)
     public Optional<User> getUserWithAuthoritiesByLogin(String login) {
         return userRepository.findOneByLogin(login).map(u -> {
@@ -229,16 +299,30 @@ public class UserService {
      * <p>
      * This is scheduled to get fired everyday, at midnight.
      * </p>
+     * <p>
+     * Tokens are deleted by chunks of CLEANUP_CHUNK_SIZE, each chunk in its own transaction, so that a large number
+     * of expired tokens never holds locks for long.
+     * </p>
      */
     @Scheduled(cron = "0 0 0 * * ?")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void removeOldPersistentTokens() {
-        LocalDate now = LocalDate.now();
-        persistentTokenRepository.findByTokenDateBefore(now.minusMonths(1)).stream().forEach(token -> {
-            log.debug("Deleting token {}", token.getSeries());
-            User user = token.getUser();
-            user.getPersistentTokens().remove(token);
-            persistentTokenRepository.delete(token);
-        });
+        LocalDate before = LocalDate.now().minusMonths(1);
+        int total = 0;
+        int chunk;
+        do {
+            chunk = cleanupTransactionTemplate.execute(status -> {
+                List<String> series = persistentTokenRepository.findSeriesByTokenDateBefore(before,
+                    new PageRequest(0, CLEANUP_CHUNK_SIZE));
+                if (!series.isEmpty()) {
+                    persistentTokenRepository.deleteBySeriesIn(series);
+                }
+                return series.size();
+            });
+            total += chunk;
+            deletedTokens.mark(chunk);
+        } while (chunk == CLEANUP_CHUNK_SIZE);
+        log.info("Deleted {} expired persistent tokens", total);
     }
 
     /**
@@ -246,15 +330,34 @@ public class UserService {
      * <p>
      * This is scheduled to get fired everyday, at 01:00 (am).
      * </p>
+     * <p>
+     * Users are deleted by chunks of CLEANUP_CHUNK_SIZE, each chunk in its own transaction, with their authorities
+     * and tokens, and are then removed from Elasticsearch in bulk.
+     * </p>
      */
     @Scheduled(cron = "0 0 1 * * ?")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void removeNotActivatedUsers() {
-        ZonedDateTime now = ZonedDateTime.now();
-        List<User> users = userRepository.findAllByActivatedIsFalseAndCreatedDateBefore(now.minusDays(3));
-        for (User user : users) {
-            log.debug("Deleting not activated user {}", user.getLogin());
-            userRepository.delete(user);
-            userSearchRepository.delete(user);
-        }
+        ZonedDateTime before = ZonedDateTime.now().minusDays(3);
+        int total = 0;
+        int chunk;
+        do {
+            chunk = cleanupTransactionTemplate.execute(status -> {
+                List<Long> ids = userRepository.findIdsByActivatedIsFalseAndCreatedDateBefore(before,
+                    new PageRequest(0, CLEANUP_CHUNK_SIZE));
+                if (!ids.isEmpty()) {
+                    jdbcTemplate.update("delete from jhi_user_authority where user_id in (:ids)",
+                        Collections.singletonMap("ids", ids));
+                    persistentTokenRepository.deleteByUserIdIn(ids);
+                    userRepository.deleteByIdIn(ids);
+                    searchIndexingService.deleteAll(User.class, ids);
+                }
+                return ids.size();
+            });
+            total += chunk;
+            deletedUsers.mark(chunk);
+            log.debug("Deleted {} not activated users so far", total);
+        } while (chunk == CLEANUP_CHUNK_SIZE);
+        log.info("Deleted {} not activated users", total);
     }
 }
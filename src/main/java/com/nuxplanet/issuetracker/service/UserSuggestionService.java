@@ -0,0 +1,213 @@
+package com.nuxplanet.issuetracker.service;
+
+import com.nuxplanet.issuetracker.domain.User;
+import com.nuxplanet.issuetracker.repository.UserRepository;
+import com.nuxplanet.issuetracker.service.dto.UserSuggestionDTO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Service suggesting users from the first letters of their login, first name, last name or full name, without
+ * querying the database nor Elasticsearch.
+ * <p>
+ * Activated users are kept in memory, in a sorted map whose keys are their lower-cased names followed by their id:
+ * the users starting with a prefix are the keys of a sub-map, which is read until "limit" users are found, so a
+ * suggestion costs a few map lookups whatever the number of users. The map is loaded from the database on first use,
+ * and the UserService updates it once its changes are committed; other nodes of a cluster only see users created,
+ * changed or deleted on them.
+ * </p>
+ */
+@Service
+public class UserSuggestionService {
+
+    public static final int MAX_LIMIT = 50;
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final Logger log = LoggerFactory.getLogger(UserSuggestionService.class);
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    private final ConcurrentNavigableMap<String, Long> terms = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentMap<Long, UserSuggestionDTO> users = new ConcurrentHashMap<>();
+
+    /**
+     * Ids of the users changed while the index is loaded, whose loaded rows may be stale.
+     */
+    private final Set<Long> changedWhileLoading = new HashSet<>();
+
+    private final Object loadLock = new Object();
+
+    private TransactionTemplate transactionTemplate;
+
+    private volatile boolean loading;
+
+    private volatile boolean loaded;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Suggest users whose login, first name, last name or full name starts with a prefix, ignoring case.
+     *
+     * @param prefix the first letters typed
+     * @param limit the maximum number of users to suggest, at most {@value #MAX_LIMIT}
+     * @return the users, by alphabetical order of their matching name
+     */
+    public List<UserSuggestionDTO> suggest(String prefix, int limit) {
+        ensureLoaded();
+        String from = normalize(prefix);
+        List<UserSuggestionDTO> suggestions = new ArrayList<>();
+        if (from.isEmpty() || limit <= 0) {
+            return suggestions;
+        }
+        Set<Long> found = new LinkedHashSet<>();
+        for (Long id : terms.subMap(from, from + Character.MAX_VALUE).values()) {
+            if (found.size() >= Math.min(limit, MAX_LIMIT)) {
+                break;
+            }
+            found.add(id);
+        }
+        for (Long id : found) {
+            UserSuggestionDTO user = users.get(id);
+            if (user != null) {
+                suggestions.add(user);
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Add or update a user, once the current transaction is committed; users which are not activated are removed.
+     *
+     * @param user the user
+     */
+    public void update(User user) {
+        UserSuggestionDTO suggestion = user.getActivated() ?
+            new UserSuggestionDTO(user.getId(), user.getLogin(), user.getFirstName(), user.getLastName()) : null;
+        Long id = user.getId();
+        afterCommit(() -> {
+            if (suggestion == null) {
+                remove(id);
+            } else {
+                put(suggestion);
+            }
+        });
+    }
+
+    /**
+     * Remove a user, once the current transaction is committed.
+     *
+     * @param id the id of the user
+     */
+    public void delete(Long id) {
+        afterCommit(() -> remove(id));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        // The users are read without holding the lock of the changes, which are committed meanwhile
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            loading = true;
+            try {
+                List<UserSuggestionDTO> suggestions = transactionTemplate.execute(status ->
+                    userRepository.findAllSuggestions());
+                synchronized (this) {
+                    for (UserSuggestionDTO suggestion : suggestions) {
+                        if (!changedWhileLoading.contains(suggestion.getId())) {
+                            put(suggestion);
+                        }
+                    }
+                    loaded = true;
+                }
+                log.debug("Loaded {} users to suggest", users.size());
+            } finally {
+                // A failed load is retried by the next suggestion, with the changes committed meanwhile applied
+                synchronized (this) {
+                    loading = false;
+                    changedWhileLoading.clear();
+                }
+            }
+        }
+    }
+
+    private synchronized void put(UserSuggestionDTO user) {
+        remove(user.getId());
+        users.put(user.getId(), user);
+        for (String term : terms(user)) {
+            terms.put(term + SEPARATOR + user.getId(), user.getId());
+        }
+    }
+
+    private synchronized void remove(Long id) {
+        if (loading) {
+            changedWhileLoading.add(id);
+        }
+        UserSuggestionDTO previous = users.remove(id);
+        if (previous != null) {
+            for (String term : terms(previous)) {
+                terms.remove(term + SEPARATOR + id);
+            }
+        }
+    }
+
+    private static Set<String> terms(UserSuggestionDTO user) {
+        Set<String> names = new LinkedHashSet<>();
+        names.add(normalize(user.getLogin()));
+        names.add(normalize(user.getFirstName()));
+        names.add(normalize(user.getLastName()));
+        names.add(normalize((user.getFirstName() == null ? "" : user.getFirstName()) + " " +
+            (user.getLastName() == null ? "" : user.getLastName())));
+        names.remove("");
+        return names;
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+}
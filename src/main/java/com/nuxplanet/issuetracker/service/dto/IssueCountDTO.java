@@ -0,0 +1,57 @@
+package com.nuxplanet.issuetracker.service.dto;
+
+import com.nuxplanet.issuetracker.domain.enumeration.Priority;
+import com.nuxplanet.issuetracker.domain.enumeration.State;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A DTO representing the number of issues with a given state, priority and assignee.
+ * <p>
+ * A null state, priority or assignee counts the issues which have none.
+ * </p>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IssueCountDTO {
+
+    private final State state;
+
+    private final Priority priority;
+
+    private final Long assigneeId;
+
+    private final long count;
+
+    public IssueCountDTO(State state, Priority priority, Long assigneeId, long count) {
+        this.state = state;
+        this.priority = priority;
+        this.assigneeId = assigneeId;
+        this.count = count;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public Long getAssigneeId() {
+        return assigneeId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "IssueCountDTO{" +
+            "state='" + state + "'" +
+            ", priority='" + priority + "'" +
+            ", assigneeId=" + assigneeId +
+            ", count=" + count +
+            '}';
+    }
+}
@@ -0,0 +1,93 @@
+package com.nuxplanet.issuetracker.service.dto;
+
+import com.nuxplanet.issuetracker.domain.enumeration.Priority;
+import com.nuxplanet.issuetracker.domain.enumeration.State;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Criteria filtering issues, bound from the request parameters of GET /api/issues.
+ * <p>
+ * Criteria which are not set do not filter; the others must all match. "state" and "priority" accept several
+ * values, and match any of them. The created range includes both of its bounds.
+ * </p>
+ */
+public class IssueCriteria {
+
+    private Set<State> state;
+
+    private Set<Priority> priority;
+
+    private Long assigneeId;
+
+    private Long originatorId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdTo;
+
+    public Set<State> getState() {
+        return state;
+    }
+
+    public void setState(Set<State> state) {
+        this.state = state;
+    }
+
+    public Set<Priority> getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Set<Priority> priority) {
+        this.priority = priority;
+    }
+
+    public Long getAssigneeId() {
+        return assigneeId;
+    }
+
+    public void setAssigneeId(Long assigneeId) {
+        this.assigneeId = assigneeId;
+    }
+
+    public Long getOriginatorId() {
+        return originatorId;
+    }
+
+    public void setOriginatorId(Long originatorId) {
+        this.originatorId = originatorId;
+    }
+
+    public LocalDate getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public void setCreatedFrom(LocalDate createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+
+    public LocalDate getCreatedTo() {
+        return createdTo;
+    }
+
+    public void setCreatedTo(LocalDate createdTo) {
+        this.createdTo = createdTo;
+    }
+
+    @Override
+    public String toString() {
+        return "IssueCriteria{" +
+            "state=" + state +
+            ", priority=" + priority +
+            ", assigneeId=" + assigneeId +
+            ", originatorId=" + originatorId +
+            ", createdFrom=" + createdFrom +
+            ", createdTo=" + createdTo +
+            '}';
+    }
+}
@@ -0,0 +1,186 @@
+package com.nuxplanet.issuetracker.service.dto;
+
+import com.nuxplanet.issuetracker.domain.Issue;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * A position in the keyset (seek) pagination of issues.
+ * <p>
+ * A cursor remembers the sort order and the (sort key, id) pair of the last issue returned, so that the next
+ * slice can be read with a "WHERE (key, id) &gt; (?, ?)" predicate instead of an OFFSET. It is exchanged
+ * with clients as an opaque, URL-safe token.
+ * </p>
+ */
+public final class IssueCursor {
+
+    public static final String SORT_BY_ID = "id";
+
+    public static final String SORT_BY_CREATED = "created";
+
+    private static final String SEPARATOR = ",";
+
+    private final String property;
+
+    private final Sort.Direction direction;
+
+    private final LocalDate created;
+
+    private final Long id;
+
+    private IssueCursor(String property, Sort.Direction direction, LocalDate created, Long id) {
+        this.property = property;
+        this.direction = direction;
+        this.created = created;
+        this.id = id;
+    }
+
+    /**
+     * Create a cursor pointing before the first issue for the given sort.
+     * <p>
+     * Only "id" and "created" can be used as keyset sort keys, the id being always used as a tie-breaker.
+     * Without a sort, issues are read by ascending id.
+     * </p>
+     *
+     * @param sort the requested sort, may be null
+     * @return the starting cursor
+     * @throws IllegalArgumentException if the sort is not supported by keyset pagination
+     */
+    public static IssueCursor start(Sort sort) {
+        if (sort == null) {
+            return new IssueCursor(SORT_BY_ID, Sort.Direction.ASC, null, null);
+        }
+        Sort.Order order = sort.iterator().next();
+        if (!SORT_BY_ID.equals(order.getProperty()) && !SORT_BY_CREATED.equals(order.getProperty())) {
+            throw new IllegalArgumentException("Unsupported keyset sort property: " + order.getProperty());
+        }
+        return new IssueCursor(order.getProperty(), order.getDirection(), null, null);
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     *
+     * @param token the token sent by the client
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static IssueCursor decode(String token) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + token, e);
+        }
+        if (parts.length != 4 || !(SORT_BY_ID.equals(parts[0]) || SORT_BY_CREATED.equals(parts[0]))) {
+            throw new IllegalArgumentException("Malformed cursor: " + token);
+        }
+        try {
+            Sort.Direction direction = Sort.Direction.fromString(parts[1]);
+            LocalDate created = parts[2].isEmpty() ? null : LocalDate.parse(parts[2]);
+            Long id = parts[3].isEmpty() ? null : Long.valueOf(parts[3]);
+            if (id != null && SORT_BY_CREATED.equals(parts[0]) && created == null) {
+                throw new IllegalArgumentException("Malformed cursor: " + token);
+            }
+            return new IssueCursor(parts[0], direction, created, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + token, e);
+        }
+    }
+
+    /**
+     * Create the cursor pointing after the given issue, keeping the current sort.
+     *
+     * @param last the last issue of the current slice
+     * @return the cursor of the next slice
+     */
+    public IssueCursor after(Issue last) {
+        return new IssueCursor(property, direction, SORT_BY_CREATED.equals(property) ? last.getCreated() : null,
+            last.getId());
+    }
+
+    /**
+     * Create the cursor pointing after the given issue summary, keeping the current sort.
+     *
+     * @param last the last issue summary of the current slice
+     * @return the cursor of the next slice
+     */
+    public IssueCursor after(IssueSummaryDTO last) {
+        return new IssueCursor(property, direction, SORT_BY_CREATED.equals(property) ? last.getCreated() : null,
+            last.getId());
+    }
+
+    public String encode() {
+        String value = property + SEPARATOR + direction.name() + SEPARATOR +
+            (created == null ? "" : created.toString()) + SEPARATOR +
+            (id == null ? "" : id.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the sort matching this cursor, with the id as a tie-breaker
+     */
+    public Sort toSort() {
+        if (SORT_BY_CREATED.equals(property)) {
+            return new Sort(direction, SORT_BY_CREATED).and(new Sort(direction, SORT_BY_ID));
+        }
+        return new Sort(direction, SORT_BY_ID);
+    }
+
+    /**
+     * @return true if this cursor points before the first issue
+     */
+    public boolean isStart() {
+        return id == null;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public LocalDate getCreated() {
+        return created;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        IssueCursor that = (IssueCursor) o;
+        return Objects.equals(property, that.property) &&
+            direction == that.direction &&
+            Objects.equals(created, that.created) &&
+            Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(property, direction, created, id);
+    }
+
+    @Override
+    public String toString() {
+        return "IssueCursor{" +
+            "property='" + property + "'" +
+            ", direction=" + direction +
+            ", created=" + created +
+            ", id=" + id +
+            '}';
+    }
+}
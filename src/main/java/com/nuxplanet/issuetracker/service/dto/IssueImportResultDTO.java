@@ -0,0 +1,66 @@
+package com.nuxplanet.issuetracker.service.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A DTO representing the outcome of a bulk import of issues.
+ * <p>
+ * Invalid rows are skipped and reported, up to {@link #MAX_ERRORS} of them. When the input itself cannot be parsed,
+ * the import stops there: the rows read before were already imported, and "completed" is false.
+ * </p>
+ */
+public class IssueImportResultDTO {
+
+    public static final int MAX_ERRORS = 100;
+
+    private long imported;
+
+    private long rejected;
+
+    private boolean completed = true;
+
+    private final List<String> errors = new ArrayList<>();
+
+    public void imported(int count) {
+        imported += count;
+    }
+
+    public void reject(long line, String message) {
+        rejected++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("line " + line + ": " + message);
+        }
+    }
+
+    public void abort(long line, String message) {
+        completed = false;
+        errors.add("line " + line + ": " + message);
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    @Override
+    public String toString() {
+        return "IssueImportResultDTO{" +
+            "imported=" + imported +
+            ", rejected=" + rejected +
+            ", completed=" + completed +
+            '}';
+    }
+}
@@ -0,0 +1,143 @@
+package com.nuxplanet.issuetracker.service.dto;
+
+import com.nuxplanet.issuetracker.domain.enumeration.Priority;
+import com.nuxplanet.issuetracker.domain.enumeration.State;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+
+/**
+ * A DTO representing an issue as a flat row, used to import and export issues in bulk.
+ * <p>
+ * Users are referenced by their login. The id is only set on export: imported issues always get a new id.
+ * </p>
+ */
+@JsonPropertyOrder({"id", "name", "description", "created", "state", "priority", "comment",
+    "originatorLogin", "assigneeLogin"})
+public class IssueRowDTO {
+
+    private Long id;
+
+    @NotNull
+    private String name;
+
+    @NotNull
+    private String description;
+
+    @NotNull
+    private LocalDate created;
+
+    private State state;
+
+    private Priority priority;
+
+    private String comment;
+
+    private String originatorLogin;
+
+    private String assigneeLogin;
+
+    public IssueRowDTO() {
+    }
+
+    public IssueRowDTO(Long id, String name, String description, LocalDate created, State state,
+        Priority priority, String comment, String originatorLogin, String assigneeLogin) {
+
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.created = created;
+        this.state = state;
+        this.priority = priority;
+        this.comment = comment;
+        this.originatorLogin = originatorLogin;
+        this.assigneeLogin = assigneeLogin;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public LocalDate getCreated() {
+        return created;
+    }
+
+    public void setCreated(LocalDate created) {
+        this.created = created;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    public String getOriginatorLogin() {
+        return originatorLogin;
+    }
+
+    public void setOriginatorLogin(String originatorLogin) {
+        this.originatorLogin = originatorLogin;
+    }
+
+    public String getAssigneeLogin() {
+        return assigneeLogin;
+    }
+
+    public void setAssigneeLogin(String assigneeLogin) {
+        this.assigneeLogin = assigneeLogin;
+    }
+
+    @Override
+    public String toString() {
+        return "IssueRowDTO{" +
+            "id=" + id +
+            ", name='" + name + "'" +
+            ", created='" + created + "'" +
+            ", state='" + state + "'" +
+            ", priority='" + priority + "'" +
+            ", originatorLogin='" + originatorLogin + "'" +
+            ", assigneeLogin='" + assigneeLogin + "'" +
+            '}';
+    }
+}
@@ -0,0 +1,53 @@
+package com.nuxplanet.issuetracker.service.dto;
+
+import com.nuxplanet.issuetracker.domain.enumeration.Priority;
+import com.nuxplanet.issuetracker.domain.enumeration.State;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A DTO representing an issue found by a search, read from the search index only.
+ * <p>
+ * It carries the summary fields of the issue, and the fragments of its text fields which match the query, by
+ * field name. The users of the issue are not indexed, so their logins are null and not serialized.
+ * </p>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IssueSearchHitDTO extends IssueSummaryDTO {
+
+    private Map<String, List<String>> highlights;
+
+    public IssueSearchHitDTO() {
+    }
+
+    public IssueSearchHitDTO(Long id, String name, State state, Priority priority, LocalDate created,
+        Map<String, List<String>> highlights) {
+
+        super(id, name, state, priority, created, null, null);
+        this.highlights = highlights;
+    }
+
+    public Map<String, List<String>> getHighlights() {
+        return highlights;
+    }
+
+    public void setHighlights(Map<String, List<String>> highlights) {
+        this.highlights = highlights;
+    }
+
+    @Override
+    public String toString() {
+        return "IssueSearchHitDTO{" +
+            "id=" + getId() +
+            ", name='" + getName() + "'" +
+            ", state='" + getState() + "'" +
+            ", priority='" + getPriority() + "'" +
+            ", created='" + getCreated() + "'" +
+            ", highlights=" + highlights +
+            '}';
+    }
+}
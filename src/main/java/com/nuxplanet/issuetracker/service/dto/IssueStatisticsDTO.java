@@ -0,0 +1,70 @@
+package com.nuxplanet.issuetracker.service.dto;
+
+import com.nuxplanet.issuetracker.domain.enumeration.Priority;
+import com.nuxplanet.issuetracker.domain.enumeration.State;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A DTO representing the number of issues, in total, by state, by priority, and by state, priority and assignee.
+ * <p>
+ * Issues without a state or a priority are only counted in the total and in the detailed counts.
+ * </p>
+ */
+public class IssueStatisticsDTO {
+
+    private final long total;
+
+    private final Map<State, Long> byState;
+
+    private final Map<Priority, Long> byPriority;
+
+    private final List<IssueCountDTO> counts;
+
+    public IssueStatisticsDTO(List<IssueCountDTO> counts) {
+        long total = 0;
+        Map<State, Long> byState = new EnumMap<>(State.class);
+        Map<Priority, Long> byPriority = new EnumMap<>(Priority.class);
+        for (IssueCountDTO count : counts) {
+            total += count.getCount();
+            if (count.getState() != null) {
+                byState.merge(count.getState(), count.getCount(), Long::sum);
+            }
+            if (count.getPriority() != null) {
+                byPriority.merge(count.getPriority(), count.getCount(), Long::sum);
+            }
+        }
+        this.total = total;
+        this.byState = Collections.unmodifiableMap(byState);
+        this.byPriority = Collections.unmodifiableMap(byPriority);
+        this.counts = Collections.unmodifiableList(counts);
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<State, Long> getByState() {
+        return byState;
+    }
+
+    public Map<Priority, Long> getByPriority() {
+        return byPriority;
+    }
+
+    public List<IssueCountDTO> getCounts() {
+        return counts;
+    }
+
+    @Override
+    public String toString() {
+        return "IssueStatisticsDTO{" +
+            "total=" + total +
+            ", byState=" + byState +
+            ", byPriority=" + byPriority +
+            '}';
+    }
+}
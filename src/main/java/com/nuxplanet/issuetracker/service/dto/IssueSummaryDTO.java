@@ -0,0 +1,161 @@
+package com.nuxplanet.issuetracker.service.dto;
+
+import com.nuxplanet.issuetracker.domain.enumeration.Priority;
+import com.nuxplanet.issuetracker.domain.enumeration.State;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A DTO representing an issue in lists, without its description, comment, attachment and users.
+ * <p>
+ * It is built by a constructor projection, so listing issues reads a few narrow columns and never loads the
+ * originator and assignee entities. The fields which were requested are picked by {@link #toMap(Set)}.
+ * </p>
+ */
+public class IssueSummaryDTO {
+
+    public static final Set<String> FIELDS = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(
+        "id", "name", "state", "priority", "created", "assigneeLogin", "originatorLogin")));
+
+    private Long id;
+
+    private String name;
+
+    private State state;
+
+    private Priority priority;
+
+    private LocalDate created;
+
+    private String assigneeLogin;
+
+    private String originatorLogin;
+
+    public IssueSummaryDTO() {
+    }
+
+    public IssueSummaryDTO(Long id, String name, State state, Priority priority, LocalDate created,
+        String assigneeLogin, String originatorLogin) {
+
+        this.id = id;
+        this.name = name;
+        this.state = state;
+        this.priority = priority;
+        this.created = created;
+        this.assigneeLogin = assigneeLogin;
+        this.originatorLogin = originatorLogin;
+    }
+
+    /**
+     * Get the values of some fields, in the order of {@link #FIELDS}, so that the requested fields are serialized
+     * even when they are null, as the login of the assignee of an unassigned issue.
+     *
+     * @param fields the names of the fields to get, taken from {@link #FIELDS}
+     * @return the values of the fields, by field name
+     */
+    public Map<String, Object> toMap(Set<String> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : FIELDS) {
+            if (fields.contains(field)) {
+                values.put(field, get(field));
+            }
+        }
+        return values;
+    }
+
+    private Object get(String field) {
+        switch (field) {
+            case "id":
+                return id;
+            case "name":
+                return name;
+            case "state":
+                return state;
+            case "priority":
+                return priority;
+            case "created":
+                return created;
+            case "assigneeLogin":
+                return assigneeLogin;
+            case "originatorLogin":
+                return originatorLogin;
+            default:
+                throw new IllegalArgumentException("Unknown field: " + field);
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    public LocalDate getCreated() {
+        return created;
+    }
+
+    public void setCreated(LocalDate created) {
+        this.created = created;
+    }
+
+    public String getAssigneeLogin() {
+        return assigneeLogin;
+    }
+
+    public void setAssigneeLogin(String assigneeLogin) {
+        this.assigneeLogin = assigneeLogin;
+    }
+
+    public String getOriginatorLogin() {
+        return originatorLogin;
+    }
+
+    public void setOriginatorLogin(String originatorLogin) {
+        this.originatorLogin = originatorLogin;
+    }
+
+    @Override
+    public String toString() {
+        return "IssueSummaryDTO{" +
+            "id=" + id +
+            ", name='" + name + "'" +
+            ", state='" + state + "'" +
+            ", priority='" + priority + "'" +
+            ", created='" + created + "'" +
+            ", assigneeLogin='" + assigneeLogin + "'" +
+            ", originatorLogin='" + originatorLogin + "'" +
+            '}';
+    }
+}
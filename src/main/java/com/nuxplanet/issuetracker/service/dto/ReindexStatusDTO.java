@@ -0,0 +1,159 @@
+package com.nuxplanet.issuetracker.service.dto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A DTO representing the progress of a rebuild of the Elasticsearch indexes.
+ * <p>
+ * It is updated by the threads rebuilding the indexes while it is being read, so its counters are atomic and its
+ * other fields are volatile.
+ * </p>
+ */
+public class ReindexStatusDTO {
+
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private final Instant started = Instant.now();
+
+    private final List<IndexStatus> indexes;
+
+    private volatile State state = State.RUNNING;
+
+    private volatile Instant finished;
+
+    private volatile String error;
+
+    public ReindexStatusDTO(List<IndexStatus> indexes) {
+        this.indexes = Collections.unmodifiableList(indexes);
+    }
+
+    public void complete() {
+        finished = Instant.now();
+        state = State.COMPLETED;
+    }
+
+    public void fail(String error) {
+        finished = Instant.now();
+        this.error = error;
+        state = State.FAILED;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Instant getStarted() {
+        return started;
+    }
+
+    public Instant getFinished() {
+        return finished;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public List<IndexStatus> getIndexes() {
+        return indexes;
+    }
+
+    /**
+     * @return the percentage of the documents which are indexed
+     */
+    public long getProgress() {
+        long total = indexes.stream().mapToLong(IndexStatus::getTotal).sum();
+        long indexed = indexes.stream().mapToLong(IndexStatus::getIndexed).sum();
+        return total == 0 ? 0 : Math.min(100, indexed * 100 / total);
+    }
+
+    /**
+     * @return the number of documents indexed per second since the start
+     */
+    public long getDocumentsPerSecond() {
+        long millis = Duration.between(started, finished == null ? Instant.now() : finished).toMillis();
+        long indexed = indexes.stream().mapToLong(IndexStatus::getIndexed).sum();
+        return millis == 0 ? 0 : indexed * 1000 / millis;
+    }
+
+    @Override
+    public String toString() {
+        return "ReindexStatusDTO{" +
+            "state=" + state +
+            ", started=" + started +
+            ", finished=" + finished +
+            ", error='" + error + "'" +
+            ", indexes=" + indexes +
+            '}';
+    }
+
+    /**
+     * The progress of the rebuild of one index, which is published under its alias once complete.
+     */
+    public static class IndexStatus {
+
+        private final String alias;
+
+        private final String index;
+
+        private final AtomicLong total = new AtomicLong();
+
+        private final AtomicLong indexed = new AtomicLong();
+
+        private final AtomicLong failed = new AtomicLong();
+
+        public IndexStatus(String alias, String index) {
+            this.alias = alias;
+            this.index = index;
+        }
+
+        public void total(long count) {
+            total.set(count);
+        }
+
+        public void indexed(long count) {
+            indexed.addAndGet(count);
+        }
+
+        public void failed(long count) {
+            failed.addAndGet(count);
+        }
+
+        public String getAlias() {
+            return alias;
+        }
+
+        public String getIndex() {
+            return index;
+        }
+
+        public long getTotal() {
+            return total.get();
+        }
+
+        public long getIndexed() {
+            return indexed.get();
+        }
+
+        public long getFailed() {
+            return failed.get();
+        }
+
+        @Override
+        public String toString() {
+            return "IndexStatus{" +
+                "alias='" + alias + "'" +
+                ", index='" + index + "'" +
+                ", total=" + total +
+                ", indexed=" + indexed +
+                ", failed=" + failed +
+                '}';
+        }
+    }
+}
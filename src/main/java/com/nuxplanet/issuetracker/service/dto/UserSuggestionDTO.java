@@ -0,0 +1,51 @@
+package com.nuxplanet.issuetracker.service.dto;
+
+/**
+ * A DTO representing a user suggested while typing, with only what is needed to pick and reference that user.
+ * <p>
+ * It is immutable, as the same instance is kept in memory by the suggestion index and returned to every request.
+ * </p>
+ */
+public final class UserSuggestionDTO {
+
+    private final Long id;
+
+    private final String login;
+
+    private final String firstName;
+
+    private final String lastName;
+
+    public UserSuggestionDTO(Long id, String login, String firstName, String lastName) {
+        this.id = id;
+        this.login = login;
+        this.firstName = firstName;
+        this.lastName = lastName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    @Override
+    public String toString() {
+        return "UserSuggestionDTO{" +
+            "id=" + id +
+            ", login='" + login + "'" +
+            ", firstName='" + firstName + "'" +
+            ", lastName='" + lastName + "'" +
+            '}';
+    }
+}
@@ -23,6 +23,7 @@ public interface UserMapper {
     @Mapping(target = "createdDate", ignore = true)
     @Mapping(target = "lastModifiedBy", ignore = true)
     @Mapping(target = "lastModifiedDate", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "persistentTokens", ignore = true)
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "activationKey", ignore = true)
@@ -2,24 +2,54 @@ package com.nuxplanet.issuetracker.web.rest;
 
 import com.codahale.metrics.annotation.Timed;
 import com.nuxplanet.issuetracker.domain.Issue;
+import com.nuxplanet.issuetracker.domain.enumeration.Priority;
+import com.nuxplanet.issuetracker.domain.enumeration.State;
+import com.nuxplanet.issuetracker.service.AttachmentStore;
+import com.nuxplanet.issuetracker.service.IssueBulkService;
+import com.nuxplanet.issuetracker.service.IssueResponseCache;
 import com.nuxplanet.issuetracker.service.IssueService;
+import com.nuxplanet.issuetracker.service.IssueStatisticsService;
+import com.nuxplanet.issuetracker.service.dto.IssueCriteria;
+import com.nuxplanet.issuetracker.service.dto.IssueCursor;
+import com.nuxplanet.issuetracker.service.dto.IssueImportResultDTO;
+import com.nuxplanet.issuetracker.service.dto.IssueSearchHitDTO;
+import com.nuxplanet.issuetracker.service.dto.IssueStatisticsDTO;
+import com.nuxplanet.issuetracker.service.dto.IssueSummaryDTO;
+import com.nuxplanet.issuetracker.web.rest.errors.CustomParameterizedException;
+import com.nuxplanet.issuetracker.web.rest.errors.ErrorConstants;
+import com.nuxplanet.issuetracker.web.rest.util.ETagUtil;
 import com.nuxplanet.issuetracker.web.rest.util.HeaderUtil;
 import com.nuxplanet.issuetracker.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -34,9 +64,22 @@ public class IssueResource {
 
     private final Logger log = LoggerFactory.getLogger(IssueResource.class);
         
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
     @Inject
     private IssueService issueService;
 
+    @Inject
+    private IssueBulkService issueBulkService;
+
+    @Inject
+    private IssueStatisticsService issueStatisticsService;
+
+    @Inject
+    private IssueResponseCache issueResponseCache;
+
     /**
      * POST  /issues : Create a new issue.
      *
@@ -59,20 +102,38 @@ public class IssueResource {
 
     /**
      * PUT  /issues : Updates an existing issue.
+     * <p>
+     * The issue is only updated if it has not changed since the client read it: its "version" must be the current
+     * one, and so must the ETag of the "If-Match" header, if any.
+     * </p>
      *
      * @param issue the issue to update
+     * @param ifMatch the ETag of the issue which the client read, if any
      * @return the ResponseEntity with status 200 (OK) and with body the updated issue,
      * or with status 400 (Bad Request) if the issue is not valid,
+     * or with status 409 (Conflict) if the version of the issue is not the current one,
+     * or with status 412 (Precondition Failed) if the ETag of the issue is not the one of the "If-Match" header,
      * or with status 500 (Internal Server Error) if the issue couldnt be updated
      * @throws URISyntaxException if the Location URI syntax is incorrect
      */
     @PutMapping("/issues")
     @Timed
-    public ResponseEntity<Issue> updateIssue(@Valid @RequestBody Issue issue) throws URISyntaxException {
+    public ResponseEntity<Issue> updateIssue(@Valid @RequestBody Issue issue,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws URISyntaxException {
         log.debug("REST request to update Issue : {}", issue);
         if (issue.getId() == null) {
             return createIssue(issue);
         }
+        if (ifMatch != null) {
+            Issue current = issueService.findOne(issue.getId());
+            if (ETagUtil.isPreconditionFailed(ifMatch, current == null ? null : ETagUtil.of(current))) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .headers(HeaderUtil.createFailureAlert("issue", "preconditionfailed", "The issue has changed"))
+                    .body(null);
+            }
+            // A change committed since the check fails on this version with 409 (Conflict)
+            issue.setVersion(current.getVersion());
+        }
         Issue result = issueService.save(issue);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("issue", issue.getId().toString()))
@@ -80,37 +141,264 @@ public class IssueResource {
     }
 
     /**
-     * GET  /issues : get all the issues.
+     * POST  /issues/_bulk : create issues in bulk.
+     * <p>
+     * The request body is either newline delimited JSON ("application/x-ndjson"), or CSV ("text/csv") with a header
+     * line naming the columns. Each row is an issue whose users are given by their "originatorLogin" and
+     * "assigneeLogin". Rows are streamed and inserted by chunks, each chunk in its own transaction: invalid rows are
+     * skipped and reported, and malformed content stops the import after the rows already read.
+     * </p>
+     *
+     * @param contentType the content type of the request
+     * @param request the HTTP request, whose body contains the issues
+     * @return the ResponseEntity with status 200 (OK) and with body the outcome of the import,
+     * or with status 400 (Bad Request) if the content is malformed
+     * @throws IOException if the request body could not be read
+     */
+    @PostMapping(value = "/issues/_bulk", consumes = {APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    @Timed
+    public ResponseEntity<IssueImportResultDTO> importIssues(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+        HttpServletRequest request) throws IOException {
+        log.debug("REST request to import Issues as {}", contentType);
+        IssueBulkService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(
+            MediaType.parseMediaType(TEXT_CSV_VALUE)) ? IssueBulkService.Format.CSV : IssueBulkService.Format.NDJSON;
+        IssueImportResultDTO result = issueBulkService.importIssues(request.getInputStream(), format);
+        return new ResponseEntity<>(result, result.isCompleted() ? HttpStatus.OK : HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * GET  /issues/_export : export all the issues.
+     * <p>
+     * Issues are streamed from the database as they are written, as newline delimited JSON, or as CSV with a
+     * header line, with the same columns as the ones accepted by POST /issues/_bulk.
+     * </p>
      *
+     * @param format "ndjson" (the default) or "csv"
+     * @param response the HTTP response, whose body contains the issues
+     * @throws IOException if the issues could not be written
+     */
+    @GetMapping("/issues/_export")
+    @Timed
+    public void exportIssues(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response)
+        throws IOException {
+        log.debug("REST request to export Issues as {}", format);
+        boolean csv = "csv".equalsIgnoreCase(format);
+        response.setContentType(csv ? TEXT_CSV_VALUE + ";charset=UTF-8" : APPLICATION_NDJSON_VALUE + ";charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=issues." + (csv ? "csv" : "ndjson"));
+        issueBulkService.exportIssues(response.getOutputStream(),
+            csv ? IssueBulkService.Format.CSV : IssueBulkService.Format.NDJSON);
+        response.flushBuffer();
+    }
+
+    /**
+     * GET  /issues : get all the issues, optionally filtered.
+     * <p>
+     * Issues can be filtered on "state" and "priority" (comma separated values, any of which matches),
+     * "assigneeId", "originatorId", and "createdFrom" and "createdTo" (ISO dates, inclusive).
+     * </p>
+     *
+     * @param criteria the criteria which the issues must match
      * @param pageable the pagination information
-     * @return the ResponseEntity with status 200 (OK) and the list of issues in body
+     * @param ifNoneMatch the ETag of the page which the client already has, if any
+     * @return the ResponseEntity with status 200 (OK) and the list of issues in body,
+     * or with status 304 (Not Modified) if the page has the ETag of the "If-None-Match" header,
+     * or with status 400 (Bad Request) if a criterion is not valid
      * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
     @GetMapping("/issues")
     @Timed
-    public ResponseEntity<List<Issue>> getAllIssues(Pageable pageable)
+    public ResponseEntity<List<Issue>> getAllIssues(IssueCriteria criteria, Pageable pageable,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
         throws URISyntaxException {
-        log.debug("REST request to get a page of Issues");
-        Page<Issue> page = issueService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/issues");
+        log.debug("REST request to get a page of Issues matching {}", criteria);
+        Page<Issue> page = issueService.findAll(criteria, pageable);
+        String eTag = ETagUtil.of(page);
+        if (ETagUtil.isNotModified(ifNoneMatch, eTag)) {
+            return ETagUtil.notModified(eTag);
+        }
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, criteriaUrl(criteria));
+        headers.setETag(eTag);
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * @return the URL of the issues matching some criteria, to which pagination parameters can be added
+     */
+    private static String criteriaUrl(IssueCriteria criteria) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromPath("/api/issues");
+        if (criteria.getState() != null && !criteria.getState().isEmpty()) {
+            builder.queryParam("state", criteria.getState().stream().map(State::name).collect(Collectors.joining(",")));
+        }
+        if (criteria.getPriority() != null && !criteria.getPriority().isEmpty()) {
+            builder.queryParam("priority",
+                criteria.getPriority().stream().map(Priority::name).collect(Collectors.joining(",")));
+        }
+        if (criteria.getAssigneeId() != null) {
+            builder.queryParam("assigneeId", criteria.getAssigneeId());
+        }
+        if (criteria.getOriginatorId() != null) {
+            builder.queryParam("originatorId", criteria.getOriginatorId());
+        }
+        if (criteria.getCreatedFrom() != null) {
+            builder.queryParam("createdFrom", criteria.getCreatedFrom());
+        }
+        if (criteria.getCreatedTo() != null) {
+            builder.queryParam("createdTo", criteria.getCreatedTo());
+        }
+        return builder.toUriString();
+    }
+
+    /**
+     * GET  /issues?fields=:fields : get the summaries of all the issues matching some criteria.
+     * <p>
+     * Summaries are read with a single narrow query, without loading the issues' users, description, comment and
+     * attachment. Only the requested fields are sent: "id", "name", "state", "priority", "created",
+     * "assigneeLogin" and "originatorLogin", comma separated. An empty value sends all of them. Requested fields
+     * which have no value are sent as null. Issues are filtered with the same criteria as GET /issues, and can also
+     * be sorted by "assigneeLogin" and "originatorLogin".
+     * </p>
+     *
+     * @param criteria the criteria which the issues must match
+     * @param fields the comma separated list of fields to send
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of issue summaries in body,
+     * or with status 400 (Bad Request) if an unknown field is requested or if a criterion is not valid
+     * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
+     */
+    @GetMapping(value = "/issues", params = {"fields", "!after"})
+    @Timed
+    public ResponseEntity<List<Map<String, Object>>> getAllIssueSummaries(IssueCriteria criteria,
+        @RequestParam String fields, Pageable pageable) throws URISyntaxException {
+        log.debug("REST request to get a page of Issue summaries with fields {} matching {}", fields, criteria);
+        Set<String> retained = fields.isEmpty() ? IssueSummaryDTO.FIELDS :
+            new LinkedHashSet<>(Arrays.asList(fields.trim().split("\\s*,\\s*")));
+        if (!IssueSummaryDTO.FIELDS.containsAll(retained)) {
+            throw new CustomParameterizedException(ErrorConstants.ERR_INVALID_FIELDS, fields);
+        }
+        Page<IssueSummaryDTO> page = issueService.findAllSummaries(criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page,
+            UriComponentsBuilder.fromUriString(criteriaUrl(criteria))
+                .queryParam("fields", fields.isEmpty() ? "" : String.join(",", retained)).toUriString());
+        return new ResponseEntity<>(page.getContent().stream()
+            .map(summary -> summary.toMap(retained))
+            .collect(Collectors.toList()), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /issues?after=:cursor : get the issues following a keyset cursor.
+     * <p>
+     * An empty cursor starts from the first issue, using the "sort" parameter (only "id" and "created" are
+     * supported). The cursor of the next slice is given in the "next" Link header. The total number of issues
+     * is only counted, and sent in the "X-Total-Count" header, if "count" is true.
+     * </p>
+     *
+     * @param after the cursor of the last issue already read, or an empty value to start scrolling
+     * @param count whether the total number of issues should be counted
+     * @param pageable the pagination information, only its size and sort are used
+     * @return the ResponseEntity with status 200 (OK) and the list of issues in body,
+     * or with status 400 (Bad Request) if the cursor or the sort is not valid
+     * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
+     */
+    @GetMapping(value = "/issues", params = "after")
+    @Timed
+    public ResponseEntity<List<Issue>> getAllIssuesAfter(@RequestParam String after,
+        @RequestParam(defaultValue = "false") boolean count, Pageable pageable)
+        throws URISyntaxException {
+        log.debug("REST request to get a slice of Issues after cursor {}", after);
+        IssueCursor cursor;
+        try {
+            cursor = after.isEmpty() ? IssueCursor.start(pageable.getSort()) : IssueCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new CustomParameterizedException(ErrorConstants.ERR_INVALID_CURSOR, after);
+        }
+        Slice<Issue> slice = issueService.findAll(cursor, pageable.getPageSize());
+        String firstCursor = IssueCursor.start(cursor.toSort()).encode();
+        String nextCursor = slice.hasContent() ?
+            cursor.after(slice.getContent().get(slice.getNumberOfElements() - 1)).encode() : null;
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(slice, firstCursor, nextCursor,
+            count ? issueService.count() : null, "/api/issues");
+        return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /issues/_stats : get the number of issues by state, priority and assignee.
+     * <p>
+     * The counts are kept up to date in memory, so this does not read the issue table.
+     * </p>
+     *
+     * @param assigneeId the id of the assignee whose issues are counted, or null to count all the issues
+     * @return the ResponseEntity with status 200 (OK) and the counts in body
+     */
+    @GetMapping("/issues/_stats")
+    @Timed
+    public ResponseEntity<IssueStatisticsDTO> getIssueStatistics(@RequestParam(required = false) Long assigneeId) {
+        log.debug("REST request to get Issue statistics for assignee {}", assigneeId);
+        return ResponseEntity.ok(issueStatisticsService.getStatistics(assigneeId));
+    }
+
+    /**
+     * GET  /issues/assigned-to-me : get the issues assigned to the current user.
+     *
+     * @param state the state of the issues, or null for all states
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of issues in body
+     * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
+     */
+    @GetMapping("/issues/assigned-to-me")
+    @Timed
+    public ResponseEntity<List<Issue>> getIssuesAssignedToMe(@RequestParam(required = false) State state,
+        Pageable pageable) throws URISyntaxException {
+        log.debug("REST request to get a page of Issues assigned to the current user in state {}", state);
+        Page<Issue> page = issueService.findAllAssignedToCurrentUser(state, pageable);
+        UriComponentsBuilder builder = UriComponentsBuilder.fromPath("/api/issues/assigned-to-me");
+        if (state != null) {
+            builder.queryParam("state", state);
+        }
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, builder.toUriString());
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /issues/created-by-me : get the issues created by the current user.
+     *
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of issues in body
+     * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
+     */
+    @GetMapping("/issues/created-by-me")
+    @Timed
+    public ResponseEntity<List<Issue>> getIssuesCreatedByMe(Pageable pageable) throws URISyntaxException {
+        log.debug("REST request to get a page of Issues created by the current user");
+        Page<Issue> page = issueService.findAllCreatedByCurrentUser(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/issues/created-by-me");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
     /**
      * GET  /issues/:id : get the "id" issue.
+     * <p>
+     * The issue is answered from the IssueResponseCache, already serialized, and concurrent requests for an issue
+     * which is not cached share one load.
+     * </p>
      *
      * @param id the id of the issue to retrieve
-     * @return the ResponseEntity with status 200 (OK) and with body the issue, or with status 404 (Not Found)
+     * @param ifNoneMatch the ETag of the issue which the client already has, if any
+     * @return the ResponseEntity with status 200 (OK) and with body the issue,
+     * or with status 304 (Not Modified) if the issue has the ETag of the "If-None-Match" header,
+     * or with status 404 (Not Found)
      */
     @GetMapping("/issues/{id}")
     @Timed
-    public ResponseEntity<Issue> getIssue(@PathVariable Long id) {
+    public ResponseEntity<byte[]> getIssue(@PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.debug("REST request to get Issue : {}", id);
-        Issue issue = issueService.findOne(id);
-        return Optional.ofNullable(issue)
-            .map(result -> new ResponseEntity<>(
-                result,
-                HttpStatus.OK))
+        return issueResponseCache.get(id, issueService::findOne, ETagUtil::of)
+            .map(result -> ETagUtil.isNotModified(ifNoneMatch, result.getETag()) ?
+                ETagUtil.<byte[]>notModified(result.getETag()) :
+                ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON_UTF8)
+                    .eTag(result.getETag())
+                    .body(result.getBody()))
             .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -128,6 +416,111 @@ public class IssueResource {
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("issue", id.toString())).build();
     }
 
+    /**
+     * PUT  /issues/:id/attachment : store the attachment of the "id" issue, replacing the previous one.
+     * <p>
+     * The request body is the raw content of the attachment, streamed to the attachment store.
+     * </p>
+     *
+     * @param id the id of the issue
+     * @param contentType the content type of the attachment, stored as "application/octet-stream" unless allowed
+     * @param request the HTTP request, whose body is the attachment
+     * @return the ResponseEntity with status 200 (OK) and with body the updated issue, or with status 404 (Not Found),
+     * or with status 413 (Payload Too Large) if the attachment is larger than the configured maximum
+     * @throws IOException if the attachment could not be stored
+     */
+    @PutMapping("/issues/{id}/attachment")
+    @Timed
+    public ResponseEntity<Issue> updateIssueAttachment(@PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.CONTENT_TYPE, defaultValue = MediaType.APPLICATION_OCTET_STREAM_VALUE) String contentType,
+        HttpServletRequest request) throws IOException {
+        log.debug("REST request to store the attachment of Issue : {}", id);
+        try {
+            return issueService.storeAttachment(id, contentType, request.getInputStream())
+                .map(result -> ResponseEntity.ok()
+                    .headers(HeaderUtil.createEntityUpdateAlert("issue", id.toString()))
+                    .body(result))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        } catch (AttachmentStore.AttachmentTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .headers(HeaderUtil.createFailureAlert("issue", "attachmenttoolarge", e.getMessage())).body(null);
+        }
+    }
+
+    /**
+     * GET  /issues/:id/attachment : download the attachment of the "id" issue.
+     * <p>
+     * The attachment is streamed from the attachment store. A single byte range can be requested with the "Range"
+     * header; other requests get the whole attachment. It is always sent as a download, to be saved rather than
+     * displayed by the browser.
+     * </p>
+     *
+     * @param id the id of the issue
+     * @param range the optional "Range" header
+     * @param response the HTTP response, with status 200 (OK), 206 (Partial Content), 404 (Not Found)
+     * or 416 (Range Not Satisfiable)
+     * @throws IOException if the attachment could not be read
+     */
+    @GetMapping("/issues/{id}/attachment")
+    @Timed
+    public void getIssueAttachment(@PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+        HttpServletResponse response) throws IOException {
+        log.debug("REST request to get the attachment of Issue : {}", id);
+        Issue issue = issueService.findOne(id);
+        Optional<FileChannel> attachment = issue == null ? Optional.empty() : issueService.openAttachment(issue);
+        if (!attachment.isPresent()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        try (FileChannel channel = attachment.get()) {
+            long length = channel.size();
+            long start = 0;
+            long end = length - 1;
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader(HttpHeaders.ETAG, "\"" + issue.getAttachmentChecksum() + "\"");
+            // Never rendered by the browser, which could run scripts of an uploaded page in the application origin
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"issue-" + id + "\"");
+            response.setHeader("X-Content-Type-Options", "nosniff");
+            List<HttpRange> ranges = parseRanges(range);
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(length);
+                end = ranges.get(0).getRangeEnd(length);
+                if (start >= length || start > end) {
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+            response.setContentType(issueService.allowedContentType(issue.getAttachmentContentType()));
+            response.setContentLengthLong(end - start + 1);
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = start; position <= end; ) {
+                position += channel.transferTo(position, end + 1 - position, out);
+            }
+            response.flushBuffer();
+        }
+    }
+
+    /**
+     * DELETE  /issues/:id/attachment : delete the attachment of the "id" issue.
+     *
+     * @param id the id of the issue
+     * @return the ResponseEntity with status 200 (OK) and with body the updated issue, or with status 404 (Not Found)
+     */
+    @DeleteMapping("/issues/{id}/attachment")
+    @Timed
+    public ResponseEntity<Issue> deleteIssueAttachment(@PathVariable Long id) {
+        log.debug("REST request to delete the attachment of Issue : {}", id);
+        return issueService.deleteAttachment(id)
+            .map(result -> ResponseEntity.ok()
+                .headers(HeaderUtil.createEntityUpdateAlert("issue", id.toString()))
+                .body(result))
+            .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
     /**
      * SEARCH  /_search/issues?query=:query : search for the issue corresponding
      * to the query.
@@ -147,5 +540,52 @@ public class IssueResource {
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    /**
+     * SEARCH  /_search/issues?query=:query&amp;after=:cursor : search for the summaries of the issues corresponding
+     * to the query, following a keyset cursor.
+     * <p>
+     * The summaries and the highlighted fragments are read from the search index, without loading the issues. An
+     * empty cursor starts from the first issue, using the "sort" parameter (only "id" and "created" are
+     * supported). The cursor of the next slice is given in the "next" Link header.
+     * </p>
+     *
+     * @param query the query of the issue search
+     * @param after the cursor of the last issue already read, or an empty value to start scrolling
+     * @param pageable the pagination information, only its size and sort are used
+     * @return the ResponseEntity with status 200 (OK) and the list of search hits in body,
+     * or with status 400 (Bad Request) if the cursor or the sort is not valid
+     * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
+     */
+    @GetMapping(value = "/_search/issues", params = "after")
+    @Timed
+    public ResponseEntity<List<IssueSearchHitDTO>> searchIssueSummaries(@RequestParam String query,
+        @RequestParam String after, Pageable pageable) throws URISyntaxException {
+        log.debug("REST request to search for a slice of Issue summaries for query {} after cursor {}", query, after);
+        IssueCursor cursor;
+        try {
+            cursor = after.isEmpty() ? IssueCursor.start(pageable.getSort()) : IssueCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new CustomParameterizedException(ErrorConstants.ERR_INVALID_CURSOR, after);
+        }
+        Slice<IssueSearchHitDTO> slice = issueService.searchSummaries(query, cursor, pageable.getPageSize());
+        String firstCursor = IssueCursor.start(cursor.toSort()).encode();
+        String nextCursor = slice.hasContent() ?
+            cursor.after(slice.getContent().get(slice.getNumberOfElements() - 1)).encode() : null;
+        String baseUrl = UriComponentsBuilder.fromPath("/api/_search/issues").queryParam("query", query)
+            .build().encode().toUriString();
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(slice, firstCursor, nextCursor,
+            null, baseUrl);
+        return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+    }
 
+    /**
+     * Parse a "Range" header, ignoring it when it is malformed, as allowed by RFC 7233.
+     */
+    private static List<HttpRange> parseRanges(String range) {
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return Collections.emptyList();
+        }
+    }
 }
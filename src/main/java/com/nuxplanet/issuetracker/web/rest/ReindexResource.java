@@ -0,0 +1,55 @@
+package com.nuxplanet.issuetracker.web.rest;
+
+import com.nuxplanet.issuetracker.service.SearchReindexService;
+import com.nuxplanet.issuetracker.service.dto.ReindexStatusDTO;
+
+import com.codahale.metrics.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.inject.Inject;
+
+/**
+ * Controller for rebuilding the Elasticsearch indexes from the database, and following the progress of the rebuild.
+ */
+@RestController
+@RequestMapping("/management")
+public class ReindexResource {
+
+    private final Logger log = LoggerFactory.getLogger(ReindexResource.class);
+
+    @Inject
+    private SearchReindexService searchReindexService;
+
+    /**
+     * POST  /reindex : start rebuilding the Elasticsearch indexes, in the background.
+     *
+     * @return the ResponseEntity with status 202 (Accepted) and with body the progress of the rebuild,
+     * or with status 409 (Conflict) and with body the progress of the running rebuild
+     */
+    @PostMapping("/reindex")
+    @Timed
+    public ResponseEntity<ReindexStatusDTO> startReindex() {
+        log.debug("REST request to rebuild the Elasticsearch indexes");
+        return searchReindexService.start()
+            .map(status -> new ResponseEntity<>(status, HttpStatus.ACCEPTED))
+            .orElseGet(() -> new ResponseEntity<>(searchReindexService.getStatus().orElse(null), HttpStatus.CONFLICT));
+    }
+
+    /**
+     * GET  /reindex : get the progress of the current, or last, rebuild of the Elasticsearch indexes.
+     *
+     * @return the ResponseEntity with status 200 (OK) and with body the progress of the rebuild,
+     * or with status 404 (Not Found) if the indexes were never rebuilt
+     */
+    @GetMapping("/reindex")
+    @Timed
+    public ResponseEntity<ReindexStatusDTO> getReindexStatus() {
+        return searchReindexService.getStatus()
+            .map(status -> new ResponseEntity<>(status, HttpStatus.OK))
+            .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+}
@@ -8,7 +8,10 @@ import com.nuxplanet.issuetracker.repository.search.UserSearchRepository;
 import com.nuxplanet.issuetracker.security.AuthoritiesConstants;
 import com.nuxplanet.issuetracker.service.MailService;
 import com.nuxplanet.issuetracker.service.UserService;
+import com.nuxplanet.issuetracker.service.UserSuggestionService;
+import com.nuxplanet.issuetracker.service.dto.UserSuggestionDTO;
 import com.nuxplanet.issuetracker.web.rest.vm.ManagedUserVM;
+import com.nuxplanet.issuetracker.web.rest.util.ETagUtil;
 import com.nuxplanet.issuetracker.web.rest.util.HeaderUtil;
 import com.nuxplanet.issuetracker.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
@@ -73,6 +76,9 @@ public class UserResource {
     @Inject
     private UserSearchRepository userSearchRepository;
 
+    @Inject
+    private UserSuggestionService userSuggestionService;
+
     /**
      * POST  /users  : Creates a new user.
      * <p>
@@ -120,15 +126,26 @@ public class UserResource {
      * PUT  /users : Updates an existing User.
      *
      * @param managedUserVM the user to update
+     * @param ifMatch the ETag of the user which the client read, if any
      * @return the ResponseEntity with status 200 (OK) and with body the updated user,
      * or with status 400 (Bad Request) if the login or email is already in use,
+     * or with status 412 (Precondition Failed) if the ETag of the user is not the one of the "If-Match" header,
      * or with status 500 (Internal Server Error) if the user couldn't be updated
      */
     @PutMapping("/users")
     @Timed
     @Secured(AuthoritiesConstants.ADMIN)
-    public ResponseEntity<ManagedUserVM> updateUser(@RequestBody ManagedUserVM managedUserVM) {
+    public ResponseEntity<ManagedUserVM> updateUser(@RequestBody ManagedUserVM managedUserVM,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.debug("REST request to update User : {}", managedUserVM);
+        if (ifMatch != null) {
+            User current = userRepository.findOne(managedUserVM.getId());
+            if (ETagUtil.isPreconditionFailed(ifMatch, current == null ? null : ETagUtil.of(current))) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .headers(HeaderUtil.createFailureAlert("userManagement", "preconditionfailed", "The user has changed"))
+                    .body(null);
+            }
+        }
         Optional<User> existingUser = userRepository.findOneByEmail(managedUserVM.getEmail());
         if (existingUser.isPresent() && (!existingUser.get().getId().equals(managedUserVM.getId()))) {
             return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("userManagement", "emailexists", "E-mail already in use")).body(null);
@@ -165,19 +182,47 @@ public class UserResource {
         return new ResponseEntity<>(managedUserVMs, headers, HttpStatus.OK);
     }
 
+    /**
+     * GET  /users/_suggest?prefix=:prefix : suggest the users whose login, first name, last name or full name starts
+     * with a prefix, while it is typed.
+     * <p>
+     * Users are suggested from memory, without querying the database nor Elasticsearch. Only activated users are
+     * suggested.
+     * </p>
+     *
+     * @param prefix the first letters typed
+     * @param limit the maximum number of users to suggest, at most {@value UserSuggestionService#MAX_LIMIT}
+     * @return the suggested users
+     */
+    @GetMapping("/users/_suggest")
+    @Timed
+    public List<UserSuggestionDTO> suggestUsers(@RequestParam String prefix,
+        @RequestParam(defaultValue = "10") int limit) {
+        return userSuggestionService.suggest(prefix, limit);
+    }
+
     /**
      * GET  /users/:login : get the "login" user.
      *
      * @param login the login of the user to find
-     * @return the ResponseEntity with status 200 (OK) and with body the "login" user, or with status 404 (Not Found)
+     * @param ifNoneMatch the ETag of the user which the client already has, if any
+     * @return the ResponseEntity with status 200 (OK) and with body the "login" user,
+     * or with status 304 (Not Modified) if the user has the ETag of the "If-None-Match" header,
+     * or with status 404 (Not Found)
      */
     @GetMapping("/users/{login:" + Constants.LOGIN_REGEX + "}")
     @Timed
-    public ResponseEntity<ManagedUserVM> getUser(@PathVariable String login) {
+    public ResponseEntity<ManagedUserVM> getUser(@PathVariable String login,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.debug("REST request to get User : {}", login);
         return userService.getUserWithAuthoritiesByLogin(login)
-                .map(ManagedUserVM::new)
-                .map(managedUserVM -> new ResponseEntity<>(managedUserVM, HttpStatus.OK))
+                .map(user -> {
+                    String eTag = ETagUtil.of(user);
+                    if (ETagUtil.isNotModified(ifNoneMatch, eTag)) {
+                        return ETagUtil.<ManagedUserVM>notModified(eTag);
+                    }
+                    return ResponseEntity.ok().eTag(eTag).body(new ManagedUserVM(user));
+                })
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -7,6 +7,9 @@ public final class ErrorConstants {
     public static final String ERR_VALIDATION = "error.validation";
     public static final String ERR_METHOD_NOT_SUPPORTED = "error.methodNotSupported";
     public static final String ERR_INTERNAL_SERVER_ERROR = "error.internalServerError";
+    public static final String ERR_SERVICE_UNAVAILABLE = "error.serviceUnavailable";
+    public static final String ERR_INVALID_CURSOR = "error.invalidCursor";
+    public static final String ERR_INVALID_FIELDS = "error.invalidFields";
 
     private ErrorConstants() {
     }
@@ -2,12 +2,15 @@ package com.nuxplanet.issuetracker.web.rest.errors;
 
 import java.util.List;
 
+import com.nuxplanet.issuetracker.security.PasswordHashingRejectedException;
+
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.ResponseEntity.BodyBuilder;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.validation.BindException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
@@ -37,6 +40,13 @@ public class ExceptionTranslator {
         return processFieldErrors(fieldErrors);
     }
 
+    @ExceptionHandler(BindException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ResponseBody
+    public ErrorVM processBindError(BindException ex) {
+        return processFieldErrors(ex.getBindingResult().getFieldErrors());
+    }
+
     @ExceptionHandler(CustomParameterizedException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ResponseBody
@@ -51,6 +61,13 @@ public class ExceptionTranslator {
         return new ErrorVM(ErrorConstants.ERR_ACCESS_DENIED, e.getMessage());
     }
 
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ResponseBody
+    public ErrorVM processPasswordHashingRejectedException(PasswordHashingRejectedException e) {
+        return new ErrorVM(ErrorConstants.ERR_SERVICE_UNAVAILABLE, e.getMessage());
+    }
+
     private ErrorVM processFieldErrors(List<FieldError> fieldErrors) {
         ErrorVM dto = new ErrorVM(ErrorConstants.ERR_VALIDATION);
 
@@ -0,0 +1,123 @@
+package com.nuxplanet.issuetracker.web.rest.util;
+
+import com.nuxplanet.issuetracker.domain.Issue;
+import com.nuxplanet.issuetracker.domain.User;
+
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Utility class for the strong ETags of the entities, and for the conditional requests using them.
+ *
+ * <p>
+ * ETags are derived from the ids and the optimistic locking versions of the entities, including the users which an
+ * issue embeds, so they are computed before the response is serialized. The ETag of a page of issues also covers
+ * its position and the total number of issues, which its pagination headers contain.
+ */
+public final class ETagUtil {
+
+    private ETagUtil() {
+    }
+
+    public static String of(Issue issue) {
+        StringBuilder tag = new StringBuilder();
+        append(tag, issue);
+        return eTag(tag);
+    }
+
+    public static String of(User user) {
+        StringBuilder tag = new StringBuilder();
+        append(tag, user);
+        return eTag(tag);
+    }
+
+    public static String of(Page<Issue> page) {
+        StringBuilder tag = new StringBuilder()
+            .append(page.getNumber()).append('/').append(page.getSize()).append('/').append(page.getTotalElements());
+        for (Issue issue : page.getContent()) {
+            tag.append(';');
+            append(tag, issue);
+        }
+        return eTag(tag);
+    }
+
+    /**
+     * @return a 304 (Not Modified) response, without body, for a resource which has an ETag
+     */
+    public static <T> ResponseEntity<T> notModified(String eTag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(eTag);
+        return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+    }
+
+    /**
+     * Check an "If-None-Match" header, whose ETags are compared weakly.
+     *
+     * @param ifNoneMatch the header, or null if the request has none
+     * @param eTag the current ETag of the resource
+     * @return true if the client already has the current resource, and should be answered 304 (Not Modified)
+     */
+    public static boolean isNotModified(String ifNoneMatch, String eTag) {
+        return matches(ifNoneMatch, eTag, true);
+    }
+
+    /**
+     * Check an "If-Match" header, whose ETags are compared strongly.
+     *
+     * @param ifMatch the header, or null if the request has none
+     * @param eTag the current ETag of the resource, or null if it does not exist
+     * @return true if the request must be answered 412 (Precondition Failed) because the resource has changed
+     */
+    public static boolean isPreconditionFailed(String ifMatch, String eTag) {
+        if (ifMatch == null) {
+            return false;
+        }
+        return eTag == null || !matches(ifMatch, eTag, false);
+    }
+
+    private static boolean matches(String header, String eTag, boolean weak) {
+        if (!StringUtils.hasText(header)) {
+            return false;
+        }
+        for (String candidate : StringUtils.commaDelimitedListToStringArray(header)) {
+            candidate = candidate.trim();
+            if (candidate.equals("*")) {
+                return true;
+            }
+            if (candidate.startsWith("W/")) {
+                if (!weak) {
+                    continue;
+                }
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void append(StringBuilder tag, Issue issue) {
+        tag.append(issue.getId()).append(':').append(issue.getVersion());
+        tag.append(',');
+        append(tag, issue.getOriginator());
+        tag.append(',');
+        append(tag, issue.getAssignee());
+    }
+
+    private static void append(StringBuilder tag, User user) {
+        if (user != null) {
+            tag.append(user.getId()).append(':').append(user.getVersion());
+        }
+    }
+
+    private static String eTag(CharSequence tag) {
+        return "\"" + DigestUtils.md5DigestAsHex(tag.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -1,6 +1,7 @@
 package com.nuxplanet.issuetracker.web.rest.util;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -12,6 +13,10 @@ import java.net.URISyntaxException;
  * <p>
  * Pagination uses the same principles as the <a href="https://developer.github.com/v3/#pagination">Github API</a>,
  * and follow <a href="http://tools.ietf.org/html/rfc5988">RFC 5988 (Link header)</a>.
+ *
+ * <p>
+ * Keyset pagination only knows the next slice: its links carry an opaque "after" cursor instead of a page number,
+ * and the "X-Total-Count" header is only sent when the total was explicitly counted.
  */
 public final class PaginationUtil {
 
@@ -46,6 +51,26 @@ public final class PaginationUtil {
         return UriComponentsBuilder.fromUriString(baseUrl).queryParam("page", page).queryParam("size", size).toUriString();
     }
 
+    public static HttpHeaders generateKeysetPaginationHttpHeaders(Slice<?> slice, String firstCursor, String nextCursor,
+        Long totalCount, String baseUrl) throws URISyntaxException {
+
+        HttpHeaders headers = new HttpHeaders();
+        if (totalCount != null) {
+            headers.add("X-Total-Count", "" + totalCount);
+        }
+        String link = "";
+        if (slice.hasNext()) {
+            link = "<" + generateKeysetUri(baseUrl, nextCursor, slice.getSize()) + ">; rel=\"next\",";
+        }
+        link += "<" + generateKeysetUri(baseUrl, firstCursor, slice.getSize()) + ">; rel=\"first\"";
+        headers.add(HttpHeaders.LINK, link);
+        return headers;
+    }
+
+    private static String generateKeysetUri(String baseUrl, String cursor, int size) throws URISyntaxException {
+        return UriComponentsBuilder.fromUriString(baseUrl).queryParam("after", cursor).queryParam("size", size).toUriString();
+    }
+
     public static HttpHeaders generateSearchPaginationHttpHeaders(String query, Page<?> page, String baseUrl)
         throws URISyntaxException {
 
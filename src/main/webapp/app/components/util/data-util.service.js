@@ -12,6 +12,7 @@
         var service = {
             abbreviate: abbreviate,
             byteSize: byteSize,
+            formatBytes: formatBytes,
             openFile: openFile,
             toBase64: toBase64
         };
@@ -51,11 +52,14 @@
                 return base64String.length / 4 * 3 - paddingSize(base64String);
             }
 
-            function formatAsBytes(size) {
-                return size.toString().replace(/\B(?=(\d{3})+(?!\d))/g, ' ') + ' bytes';
-            }
+            return formatBytes(size(base64String));
+        }
 
-            return formatAsBytes(size(base64String));
+        function formatBytes (size) {
+            if (!angular.isNumber(size)) {
+                return '';
+            }
+            return size.toString().replace(/\B(?=(\d{3})+(?!\d))/g, ' ') + ' bytes';
         }
 
         function openFile (type, data) {
@@ -12,8 +12,7 @@
 
         vm.issue = entity;
         vm.previousState = previousState.name;
-        vm.byteSize = DataUtils.byteSize;
-        vm.openFile = DataUtils.openFile;
+        vm.formatBytes = DataUtils.formatBytes;
 
         var unsubscribe = $rootScope.$on('issueTrackerApp:issueUpdate', function(event, result) {
             vm.issue = result;
@@ -5,24 +5,29 @@
         .module('issueTrackerApp')
         .controller('IssueDialogController', IssueDialogController);
 
-    IssueDialogController.$inject = ['$timeout', '$scope', '$stateParams', '$uibModalInstance', 'DataUtils', 'entity', 'Issue', 'User'];
+    IssueDialogController.$inject = ['$timeout', '$scope', '$stateParams', '$uibModalInstance', 'DataUtils', 'Upload', 'entity', 'Issue', 'User'];
 
-    function IssueDialogController ($timeout, $scope, $stateParams, $uibModalInstance, DataUtils, entity, Issue, User) {
+    function IssueDialogController ($timeout, $scope, $stateParams, $uibModalInstance, DataUtils, Upload, entity, Issue, User) {
         var vm = this;
 
         vm.issue = entity;
         vm.clear = clear;
         vm.datePickerOpenStatus = {};
         vm.openCalendar = openCalendar;
-        vm.byteSize = DataUtils.byteSize;
-        vm.openFile = DataUtils.openFile;
+        vm.formatBytes = DataUtils.formatBytes;
+        vm.attachmentFile = null;
+        vm.removeAttachment = false;
         vm.save = save;
-        vm.users = User.query();
+        vm.suggestUsers = suggestUsers;
 
         $timeout(function (){
             angular.element('.form-group:eq(1)>input').focus();
         });
 
+        function suggestUsers (prefix) {
+            return User.suggest({prefix: prefix}).$promise;
+        }
+
         function clear () {
             $uibModalInstance.dismiss('cancel');
         }
@@ -37,6 +42,23 @@
         }
 
         function onSaveSuccess (result) {
+            if (vm.attachmentFile) {
+                Upload.http({
+                    url: 'api/issues/' + result.id + '/attachment',
+                    method: 'PUT',
+                    headers: {'Content-Type': vm.attachmentFile.type || 'application/octet-stream'},
+                    data: vm.attachmentFile
+                }).then(function (response) {
+                    onAttachmentSaved(response.data);
+                }, onSaveError);
+            } else if (vm.removeAttachment && result.attachmentContentType) {
+                Issue.deleteAttachment({id: result.id}, onAttachmentSaved, onSaveError);
+            } else {
+                onAttachmentSaved(result);
+            }
+        }
+
+        function onAttachmentSaved (result) {
             $scope.$emit('issueTrackerApp:issueUpdate', result);
             $uibModalInstance.close(result);
             vm.isSaving = false;
@@ -48,17 +70,18 @@
 
         vm.datePickerOpenStatus.created = false;
 
-        vm.setAttachment = function ($file, issue) {
+        vm.setAttachment = function ($file) {
             if ($file) {
-                DataUtils.toBase64($file, function(base64Data) {
-                    $scope.$apply(function() {
-                        issue.attachment = base64Data;
-                        issue.attachmentContentType = $file.type;
-                    });
-                });
+                vm.attachmentFile = $file;
+                vm.removeAttachment = false;
             }
         };
 
+        vm.clearAttachment = function () {
+            vm.attachmentFile = null;
+            vm.removeAttachment = true;
+        };
+
         function openCalendar (date) {
             vm.datePickerOpenStatus[date] = true;
         }
@@ -5,9 +5,9 @@
         .module('issueTrackerApp')
         .controller('IssueController', IssueController);
 
-    IssueController.$inject = ['$scope', '$state', 'DataUtils', 'Issue', 'IssueSearch', 'ParseLinks', 'AlertService', 'pagingParams', 'paginationConstants'];
+    IssueController.$inject = ['$scope', '$state', 'Issue', 'IssueSearch', 'ParseLinks', 'AlertService', 'pagingParams', 'paginationConstants'];
 
-    function IssueController ($scope, $state, DataUtils, Issue, IssueSearch, ParseLinks, AlertService, pagingParams, paginationConstants) {
+    function IssueController ($scope, $state, Issue, IssueSearch, ParseLinks, AlertService, pagingParams, paginationConstants) {
         var vm = this;
         
         vm.loadPage = loadPage;
@@ -20,8 +20,6 @@
         vm.loadAll = loadAll;
         vm.searchQuery = pagingParams.search;
         vm.currentSearch = pagingParams.search;
-        vm.openFile = DataUtils.openFile;
-        vm.byteSize = DataUtils.byteSize;
 
         loadAll();
 
@@ -35,6 +33,7 @@
                 }, onSuccess, onError);
             } else {
                 Issue.query({
+                    fields: 'id,name,state,priority,created,assigneeLogin,originatorLogin',
                     page: pagingParams.page - 1,
                     size: vm.itemsPerPage,
                     sort: sort()
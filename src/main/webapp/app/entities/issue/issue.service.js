@@ -36,7 +36,8 @@
                     copy.created = DateUtils.convertLocalDateToServer(copy.created);
                     return angular.toJson(copy);
                 }
-            }
+            },
+            'deleteAttachment': { method: 'DELETE', url: 'api/issues/:id/attachment'}
         });
     }
 })();
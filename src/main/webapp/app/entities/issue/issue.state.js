@@ -133,7 +133,6 @@
                                 created: null,
                                 state: null,
                                 priority: null,
-                                attachment: null,
                                 attachmentContentType: null,
                                 comment: null,
                                 id: null
@@ -10,6 +10,7 @@
     function User ($resource) {
         var service = $resource('api/users/:login', {}, {
             'query': {method: 'GET', isArray: true},
+            'suggest': {method: 'GET', url: 'api/users/_suggest', isArray: true},
             'get': {
                 method: 'GET',
                 transformResponse: function (data) {
@@ -0,0 +1,77 @@
+import _root_.io.gatling.core.scenario.Simulation
+import ch.qos.logback.classic.{Level, LoggerContext}
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import org.slf4j.LoggerFactory
+
+import scala.concurrent.duration._
+
+/**
+ * Performance test of many concurrent requests, which wait on the database and Elasticsearch.
+ *
+ * Run it once against the application started with "jhipster.async.virtualThreads" false, and once with it true on
+ * Java 21, with the same connection pool size, then compare the response time percentiles and the failed requests:
+ *
+ * ./mvnw gatling:execute -Dgatling.simulationClass=ConcurrentRequestsGatlingTest -Dusers=2000 -Dduration=120
+ */
+class ConcurrentRequestsGatlingTest extends Simulation {
+
+    val context: LoggerContext = LoggerFactory.getILoggerFactory.asInstanceOf[LoggerContext]
+    // Log failed HTTP requests
+    //context.getLogger("io.gatling.http").setLevel(Level.valueOf("DEBUG"))
+
+    val baseURL = Option(System.getProperty("baseURL")) getOrElse """http://127.0.0.1:8080"""
+
+    val users = Integer.getInteger("users", 1000).toInt
+
+    val duration = Integer.getInteger("duration", 60).toInt
+
+    val httpConf = http
+        .baseURL(baseURL)
+        .acceptHeader("*/*")
+        .acceptEncodingHeader("gzip, deflate")
+        .connectionHeader("keep-alive")
+        .userAgentHeader("Mozilla/5.0 (Macintosh; Intel Mac OS X 10.10; rv:33.0) Gecko/20100101 Firefox/33.0")
+
+    val headers_http = Map(
+        "Accept" -> """application/json"""
+    )
+
+    val headers_http_authenticated = Map(
+        "Accept" -> """application/json""",
+        "X-XSRF-TOKEN" -> "${xsrf_token}"
+    )
+
+    val scn = scenario("Concurrent slow requests")
+        .exec(http("First unauthenticated request")
+        .get("/api/account")
+        .headers(headers_http)
+        .check(status.is(401))
+        .check(headerRegex("Set-Cookie", "XSRF-TOKEN=(.*);[\\s]").saveAs("xsrf_token"))).exitHereIfFailed
+        .exec(http("Authentication")
+        .post("/api/authentication")
+        .headers(headers_http_authenticated)
+        .formParam("j_username", "admin")
+        .formParam("j_password", "admin")
+        .formParam("remember-me", "true")
+        .formParam("submit", "Login")
+        .check(headerRegex("Set-Cookie", "XSRF-TOKEN=(.*);[\\s]").saveAs("xsrf_token"))).exitHereIfFailed
+        .during(duration.seconds) {
+            exec(http("Get all issues")
+            .get("/api/issues?page=0&size=20&sort=id,desc")
+            .headers(headers_http_authenticated)
+            .check(status.is(200)))
+            .exec(http("Search issues")
+            .get("/api/_search/issues?query=SAMPLE_TEXT")
+            .headers(headers_http_authenticated)
+            .check(status.is(200)))
+            .exec(http("Get all users")
+            .get("/api/users?page=0&size=20")
+            .headers(headers_http_authenticated)
+            .check(status.is(200)))
+        }
+
+    setUp(
+        scenario("Users").exec(scn).inject(rampUsers(users) over (10 seconds))
+    ).protocols(httpConf)
+}
@@ -67,7 +67,7 @@ class IssueGatlingTest extends Simulation {
             .exec(http("Create new issue")
             .post("/api/issues")
             .headers(headers_http_authenticated)
-            .body(StringBody("""{"id":null, "name":"SAMPLE_TEXT", "description":"SAMPLE_TEXT", "created":"2020-01-01T00:00:00.000Z", "state":null, "priority":null, "attachment":null, "comment":"SAMPLE_TEXT"}""")).asJSON
+            .body(StringBody("""{"id":null, "name":"SAMPLE_TEXT", "description":"SAMPLE_TEXT", "created":"2020-01-01T00:00:00.000Z", "state":null, "priority":null, "comment":"SAMPLE_TEXT"}""")).asJSON
             .check(status.is(201))
             .check(headerRegex("Location", "(.*)").saveAs("new_issue_url"))).exitHereIfFailed
             .pause(10)
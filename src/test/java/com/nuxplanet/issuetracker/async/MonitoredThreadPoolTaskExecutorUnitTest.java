@@ -0,0 +1,81 @@
+package com.nuxplanet.issuetracker.async;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for the MonitoredThreadPoolTaskExecutor.
+ *
+ * @see MonitoredThreadPoolTaskExecutor
+ */
+public class MonitoredThreadPoolTaskExecutorUnitTest {
+
+    private static final String PREFIX = "com.nuxplanet.issuetracker.async.executor.test.";
+
+    private MetricRegistry metricRegistry;
+
+    private MonitoredThreadPoolTaskExecutor executor;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Before
+    public void setup() {
+        metricRegistry = new MetricRegistry();
+        executor = new MonitoredThreadPoolTaskExecutor("test", metricRegistry);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+    }
+
+    @After
+    public void cleanup() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void startsAllThreadsBeforeQueueingThenRejects() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(2);
+        for (int i = 0; i < 3; i++) {
+            executor.execute(() -> {
+                started.countDown();
+                awaitRelease();
+            });
+        }
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(gauge("active")).isEqualTo(2);
+        assertThat(gauge("queue-depth")).isEqualTo(1);
+
+        assertThatThrownBy(() -> executor.execute(this::awaitRelease))
+            .isInstanceOf(RejectedExecutionException.class);
+        assertThat(metricRegistry.meter(PREFIX + "rejected").getCount()).isEqualTo(1);
+
+        release.countDown();
+        executor.getThreadPoolExecutor().shutdown();
+        executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS);
+        assertThat(metricRegistry.timer(PREFIX + "run").getCount()).isEqualTo(3);
+        assertThat(metricRegistry.timer(PREFIX + "wait").getCount()).isEqualTo(3);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Object gauge(String name) {
+        return ((Gauge<?>) metricRegistry.getGauges().get(PREFIX + name)).getValue();
+    }
+}
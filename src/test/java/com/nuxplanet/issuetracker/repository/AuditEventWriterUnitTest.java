@@ -0,0 +1,148 @@
+package com.nuxplanet.issuetracker.repository;
+
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
+import com.nuxplanet.issuetracker.domain.PersistentAuditEvent;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the AuditEventWriter, against a mocked entity manager.
+ *
+ * @see AuditEventWriter
+ */
+public class AuditEventWriterUnitTest {
+
+    private static final String PREFIX = "com.nuxplanet.issuetracker.repository.AuditEventWriter.";
+
+    @Mock
+    private EntityManager em;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final JHipsterProperties jHipsterProperties = new JHipsterProperties();
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private AuditEventWriter auditEventWriter;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        jHipsterProperties.getAudit().setAsync(false);
+        jHipsterProperties.getAudit().setMaxRetries(2);
+        jHipsterProperties.getAudit().setRetryBackoffMs(1);
+    }
+
+    @After
+    public void cleanup() throws InterruptedException {
+        release.countDown();
+        auditEventWriter.destroy();
+    }
+
+    @Test
+    public void retriesAFailedBatch() {
+        start();
+        PersistentAuditEvent event = auditEvent();
+        doThrow(new DataAccessResourceFailureException("connection lost")).doAnswer(invocation -> {
+            // Persisting again a detached event would fail
+            assertThat(((PersistentAuditEvent) invocation.getArguments()[0]).getId()).isNull();
+            return null;
+        }).when(em).persist(event);
+
+        auditEventWriter.write(event);
+
+        verify(em, times(2)).persist(event);
+        assertThat(metricRegistry.counter(PREFIX + "retries").getCount()).isEqualTo(1);
+        assertThat(metricRegistry.meter(PREFIX + "written").getCount()).isEqualTo(1);
+        assertThat(metricRegistry.meter(PREFIX + "failed").getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void dropsABatchAfterTheRetries() {
+        start();
+        PersistentAuditEvent event = auditEvent();
+        doThrow(new DataAccessResourceFailureException("connection lost")).when(em).persist(event);
+
+        auditEventWriter.write(event);
+
+        verify(em, times(3)).persist(event);
+        assertThat(metricRegistry.meter(PREFIX + "written").getCount()).isEqualTo(0);
+        assertThat(metricRegistry.meter(PREFIX + "failed").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void blocksWritersUntilTheTimeout() throws Exception {
+        JHipsterProperties.Audit audit = jHipsterProperties.getAudit();
+        audit.setAsync(true);
+        audit.setQueueCapacity(1);
+        audit.setBatchSize(1);
+        audit.setOverflowPolicy(JHipsterProperties.Audit.OverflowPolicy.BLOCK);
+        audit.setBlockTimeoutMs(100);
+        CountDownLatch persisting = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            persisting.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).doNothing().when(em).persist(any());
+        start();
+        auditEventWriter.write(auditEvent());
+        assertThat(persisting.await(5, TimeUnit.SECONDS)).isTrue();
+        auditEventWriter.write(auditEvent());
+
+        // The queue is full: the writer waits for the timeout, then drops its event
+        long start = System.nanoTime();
+        auditEventWriter.write(auditEvent());
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(metricRegistry.meter(PREFIX + "dropped").getCount()).isEqualTo(1);
+
+        release.countDown();
+        auditEventWriter.destroy();
+        assertThat(metricRegistry.meter(PREFIX + "written").getCount()).isEqualTo(2);
+    }
+
+    private void start() {
+        auditEventWriter = new AuditEventWriter();
+        ReflectionTestUtils.setField(auditEventWriter, "jHipsterProperties", jHipsterProperties);
+        ReflectionTestUtils.setField(auditEventWriter, "em", em);
+        ReflectionTestUtils.setField(auditEventWriter, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(auditEventWriter, "metricRegistry", metricRegistry);
+        auditEventWriter.init();
+    }
+
+    private static PersistentAuditEvent auditEvent() {
+        PersistentAuditEvent event = new PersistentAuditEvent();
+        event.setId(1L);
+        event.setPrincipal("test-user");
+        event.setAuditEventType("AUTHENTICATION_SUCCESS");
+        event.setAuditEventDate(LocalDateTime.now());
+        event.setData(Collections.singletonMap("remoteAddress", "127.0.0.1"));
+        return event;
+    }
+}
@@ -0,0 +1,114 @@
+package com.nuxplanet.issuetracker.repository;
+
+import com.nuxplanet.issuetracker.IssueTrackerApp;
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
+import com.nuxplanet.issuetracker.domain.PersistentAuditEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the CustomAuditEventRepository.
+ *
+ * @see CustomAuditEventRepository
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = IssueTrackerApp.class)
+@Transactional
+public class CustomAuditEventRepositoryIntTest {
+
+    private static final LocalDateTime SAMPLE_TIMESTAMP = LocalDateTime.parse("2015-08-04T10:11:30");
+
+    @Inject
+    private StreamingAuditEventRepository customAuditEventRepository;
+
+    @Inject
+    private PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    @Inject
+    private EntityManager em;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Before
+    public void setup() {
+        persistenceAuditEventRepository.deleteAll();
+        persistenceAuditEventRepository.save(auditEvent("test-user", "AUTHENTICATION_SUCCESS", SAMPLE_TIMESTAMP));
+        persistenceAuditEventRepository.save(auditEvent("test-user", "AUTHENTICATION_FAILURE", SAMPLE_TIMESTAMP));
+        persistenceAuditEventRepository.save(
+            auditEvent("test-user", "AUTHENTICATION_SUCCESS", SAMPLE_TIMESTAMP.minusDays(2)));
+        persistenceAuditEventRepository.save(auditEvent("other-user", "AUTHENTICATION_SUCCESS", SAMPLE_TIMESTAMP));
+        persistenceAuditEventRepository.flush();
+        em.clear();
+    }
+
+    @Test
+    public void findByPrincipalDateAndType() {
+        List<AuditEvent> auditEvents = customAuditEventRepository.find("test-user",
+            toDate(SAMPLE_TIMESTAMP.minusDays(1)), "AUTHENTICATION_SUCCESS");
+
+        assertThat(auditEvents).hasSize(1);
+        AuditEvent auditEvent = auditEvents.get(0);
+        assertThat(auditEvent.getPrincipal()).isEqualTo("test-user");
+        assertThat(auditEvent.getType()).isEqualTo("AUTHENTICATION_SUCCESS");
+        assertThat(auditEvent.getTimestamp()).isEqualTo(toDate(SAMPLE_TIMESTAMP));
+        assertThat(auditEvent.getData()).containsEntry("remoteAddress", "127.0.0.1");
+    }
+
+    @Test
+    public void findAll() {
+        assertThat(customAuditEventRepository.find(null, null)).hasSize(4);
+        assertThat(customAuditEventRepository.find(toDate(SAMPLE_TIMESTAMP.minusDays(1)))).hasSize(3);
+    }
+
+    @Test
+    public void streamByPrincipal() {
+        try (Stream<AuditEvent> auditEvents = customAuditEventRepository.stream("test-user", null, null)) {
+            assertThat(auditEvents.map(AuditEvent::getType).collect(Collectors.toList()))
+                .containsExactly("AUTHENTICATION_SUCCESS", "AUTHENTICATION_FAILURE", "AUTHENTICATION_SUCCESS");
+        }
+    }
+
+    @Test
+    public void streamKeepsTheNewestEvents() {
+        int maxQueryResults = jHipsterProperties.getAudit().getMaxQueryResults();
+        jHipsterProperties.getAudit().setMaxQueryResults(2);
+        try (Stream<AuditEvent> auditEvents = customAuditEventRepository.stream(null, null, null)) {
+            assertThat(auditEvents.map(AuditEvent::getPrincipal).collect(Collectors.toList()))
+                .containsExactly("other-user", "test-user");
+        } finally {
+            jHipsterProperties.getAudit().setMaxQueryResults(maxQueryResults);
+        }
+    }
+
+    private static PersistentAuditEvent auditEvent(String principal, String type, LocalDateTime date) {
+        PersistentAuditEvent auditEvent = new PersistentAuditEvent();
+        auditEvent.setPrincipal(principal);
+        auditEvent.setAuditEventType(type);
+        auditEvent.setAuditEventDate(date);
+        auditEvent.setData(Collections.singletonMap("remoteAddress", "127.0.0.1"));
+        return auditEvent;
+    }
+
+    private static Date toDate(LocalDateTime date) {
+        return Date.from(date.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,88 @@
+package com.nuxplanet.issuetracker.security;
+
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+* Test class for the ConfigurablePasswordEncoder.
+*
+* @see ConfigurablePasswordEncoder
+*/
+public class ConfigurablePasswordEncoderUnitTest {
+
+    private JHipsterProperties.Security.Password password;
+
+    private ConfigurablePasswordEncoder passwordEncoder;
+
+    @Before
+    public void init() {
+        password = new JHipsterProperties.Security.Password();
+        password.setBcryptStrength(4);
+        password.setPbkdf2Iterations(1000);
+        password.setPoolSize(2);
+    }
+
+    @After
+    public void destroy() {
+        passwordEncoder.destroy();
+    }
+
+    @Test
+    public void testBcrypt() {
+        passwordEncoder = new ConfigurablePasswordEncoder(password, new MetricRegistry());
+        String hash = passwordEncoder.encode("secret");
+        assertThat(hash).startsWith("$2a$04$").hasSize(60);
+        assertThat(passwordEncoder.matches("secret", hash)).isTrue();
+        assertThat(passwordEncoder.matches("wrong", hash)).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    public void testPbkdf2() {
+        password.setAlgorithm(ConfigurablePasswordEncoder.PBKDF2);
+        passwordEncoder = new ConfigurablePasswordEncoder(password, new MetricRegistry());
+        String hash = passwordEncoder.encode("secret");
+        assertThat(hash).startsWith("{pbkdf2:1000}").hasSize(93);
+        assertThat(passwordEncoder.matches("secret", hash)).isTrue();
+        assertThat(passwordEncoder.matches("wrong", hash)).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    public void testUpgradeEncoding() {
+        passwordEncoder = new ConfigurablePasswordEncoder(password, new MetricRegistry());
+        String bcryptHash = passwordEncoder.encode("secret");
+        passwordEncoder.destroy();
+
+        password.setAlgorithm(ConfigurablePasswordEncoder.PBKDF2);
+        passwordEncoder = new ConfigurablePasswordEncoder(password, new MetricRegistry());
+        String pbkdf2Hash = passwordEncoder.encode("secret");
+        assertThat(passwordEncoder.matches("secret", bcryptHash)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(bcryptHash)).isTrue();
+        passwordEncoder.destroy();
+
+        password.setPbkdf2Iterations(2000);
+        passwordEncoder = new ConfigurablePasswordEncoder(password, new MetricRegistry());
+        assertThat(passwordEncoder.matches("secret", pbkdf2Hash)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(pbkdf2Hash)).isTrue();
+    }
+
+    @Test
+    public void testTimeout() {
+        password.setBcryptStrength(12);
+        password.setTimeoutMs(1);
+        MetricRegistry metricRegistry = new MetricRegistry();
+        passwordEncoder = new ConfigurablePasswordEncoder(password, metricRegistry);
+        assertThatThrownBy(() -> passwordEncoder.encode("secret"))
+            .isInstanceOf(PasswordHashingRejectedException.class);
+        assertThat(metricRegistry.meter(MetricRegistry.name(ConfigurablePasswordEncoder.class, "rejected")).getCount())
+            .isEqualTo(1);
+    }
+}
@@ -0,0 +1,88 @@
+package com.nuxplanet.issuetracker.security;
+
+import com.nuxplanet.issuetracker.IssueTrackerApp;
+import com.nuxplanet.issuetracker.domain.PersistentToken;
+import com.nuxplanet.issuetracker.repository.PersistentTokenRepository;
+import com.nuxplanet.issuetracker.repository.UserRepository;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.inject.Inject;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the PersistentTokenWriter, and the compare-and-set refresh of the remember-me tokens.
+ *
+ * @see PersistentTokenWriter
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = IssueTrackerApp.class)
+public class PersistentTokenWriterIntTest {
+
+    private static final String SERIES = "writer-series";
+
+    @Inject
+    private PersistentTokenWriter persistentTokenWriter;
+
+    @Inject
+    private PersistentTokenRepository persistentTokenRepository;
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Before
+    public void setup() {
+        PersistentToken token = new PersistentToken();
+        token.setSeries(SERIES);
+        token.setUser(userRepository.findOneByLogin("user").get());
+        token.setTokenValue("value-1");
+        token.setTokenDate(LocalDate.now().minusDays(1));
+        token.setIpAddress("127.0.0.1");
+        token.setUserAgent("Test agent");
+        persistentTokenRepository.saveAndFlush(token);
+    }
+
+    @After
+    public void cleanup() {
+        persistentTokenWriter.remove(SERIES);
+        persistentTokenRepository.delete(SERIES);
+    }
+
+    @Test
+    public void refreshIfTokenValueOnlyRefreshesTheExpectedValue() {
+        assertThat(persistentTokenRepository.refreshIfTokenValue(SERIES, "value-1", "value-2", LocalDate.now(),
+            "127.0.0.2", "Other agent")).isEqualTo(1);
+        assertThat(persistentTokenRepository.refreshIfTokenValue(SERIES, "value-1", "value-3", LocalDate.now(),
+            "127.0.0.3", "Other agent")).isEqualTo(0);
+        assertThat(persistentTokenRepository.findOne(SERIES).getTokenValue()).isEqualTo("value-2");
+    }
+
+    @Test
+    public void pendingRefreshesAreAppliedThenWritten() {
+        PersistentToken token = persistentTokenRepository.findOne(SERIES);
+        token.setTokenValue("value-2");
+        token.setTokenDate(LocalDate.now());
+        persistentTokenWriter.refresh(token, "value-1");
+        token.setTokenValue("value-3");
+        token.setIpAddress("127.0.0.3");
+        persistentTokenWriter.refresh(token, "value-2");
+
+        PersistentToken read = persistentTokenRepository.findOne(SERIES);
+        assertThat(read.getTokenValue()).isEqualTo("value-1");
+        persistentTokenWriter.applyPending(read);
+        assertThat(read.getTokenValue()).isEqualTo("value-3");
+
+        persistentTokenWriter.flush();
+        PersistentToken written = persistentTokenRepository.findOne(SERIES);
+        assertThat(written.getTokenValue()).isEqualTo("value-3");
+        assertThat(written.getTokenDate()).isEqualTo(LocalDate.now());
+        assertThat(written.getIpAddress()).isEqualTo("127.0.0.3");
+    }
+}
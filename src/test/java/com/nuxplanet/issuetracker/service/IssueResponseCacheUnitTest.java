@@ -0,0 +1,168 @@
+package com.nuxplanet.issuetracker.service;
+
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
+import com.nuxplanet.issuetracker.domain.Issue;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for the IssueResponseCache.
+ *
+ * @see IssueResponseCache
+ */
+public class IssueResponseCacheUnitTest {
+
+    private static final String PREFIX = "com.nuxplanet.issuetracker.service.IssueResponseCache.";
+
+    private MetricRegistry metricRegistry;
+
+    private IssueResponseCache issueResponseCache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        metricRegistry = new MetricRegistry();
+        issueResponseCache = new IssueResponseCache();
+        ReflectionTestUtils.setField(issueResponseCache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(issueResponseCache, "metricRegistry", metricRegistry);
+        ReflectionTestUtils.setField(issueResponseCache, "jHipsterProperties", new JHipsterProperties());
+        issueResponseCache.init();
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void cleanup() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void coalescesConcurrentMisses() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Optional<byte[]>>> results = new ArrayList<>();
+        results.add(executor.submit(() -> get(1L, id -> {
+            loading.countDown();
+            await(release);
+            return load(id);
+        })));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 7; i++) {
+            results.add(executor.submit(() -> get(1L, this::load)));
+        }
+        while (metricRegistry.meter(PREFIX + "coalesced").getCount() < 7) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        for (Future<Optional<byte[]>> result : results) {
+            assertThat(new String(result.get(5, TimeUnit.SECONDS).get(), StandardCharsets.UTF_8))
+                .contains("\"name\":\"Issue 1\"");
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(metricRegistry.meter(PREFIX + "misses").getCount()).isEqualTo(8);
+
+        // Answered from the cache
+        get(1L, this::load);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(metricRegistry.meter(PREFIX + "hits").getCount()).isEqualTo(1);
+        assertThat(metricRegistry.getGauges().get(PREFIX + "size").getValue()).isEqualTo(1);
+    }
+
+    @Test
+    public void loadsAgainAfterAnEviction() {
+        get(1L, this::load);
+        get(2L, this::load);
+        issueResponseCache.evict(1L);
+
+        get(1L, this::load);
+        get(2L, this::load);
+        assertThat(loads.get()).isEqualTo(3);
+
+        issueResponseCache.evictAll();
+        get(2L, this::load);
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void doesNotJoinALoadStartedBeforeAnEviction() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Optional<byte[]>> stale = executor.submit(() -> get(1L, id -> {
+            loading.countDown();
+            await(release);
+            return load(id);
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        issueResponseCache.evict(1L);
+
+        get(1L, this::load);
+        release.countDown();
+        stale.get(5, TimeUnit.SECONDS);
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(metricRegistry.meter(PREFIX + "coalesced").getCount()).isEqualTo(0);
+
+        // The response of the load started before the eviction was not kept
+        get(1L, this::load);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void doesNotCacheMissingIssuesNorFailures() {
+        assertThat(get(1L, id -> null)).isEmpty();
+        assertThatThrownBy(() -> get(1L, id -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(get(1L, this::load)).isPresent();
+        assertThat(loads.get()).isEqualTo(1);
+        @SuppressWarnings("unchecked")
+        Gauge<Double> coalescingRatio = metricRegistry.getGauges().get(PREFIX + "coalescing-ratio");
+        assertThat(coalescingRatio.getValue()).isEqualTo(0.0);
+    }
+
+    private Optional<byte[]> get(Long id, Function<Long, Issue> loader) {
+        Optional<IssueResponseCache.Response> response =
+            issueResponseCache.get(id, loader, issue -> "\"" + issue.getId() + "\"");
+        response.ifPresent(cached -> assertThat(cached.getETag()).isEqualTo("\"" + id + "\""));
+        return response.map(IssueResponseCache.Response::getBody);
+    }
+
+    private Issue load(Long id) {
+        loads.incrementAndGet();
+        Issue issue = new Issue().name("Issue " + id);
+        issue.setId(id);
+        return issue;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.nuxplanet.issuetracker.service;
+
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
+import com.nuxplanet.issuetracker.domain.Issue;
+import com.nuxplanet.issuetracker.repository.IssueRepository;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the attachments of the IssueService, against a mocked attachment store.
+ *
+ * @see IssueService
+ */
+public class IssueServiceUnitTest {
+
+    @Mock
+    private IssueRepository issueRepository;
+
+    @Mock
+    private AttachmentStore attachmentStore;
+
+    @Mock
+    private SearchIndexingService searchIndexingService;
+
+    @Mock
+    private IssueResponseCache issueResponseCache;
+
+    private IssueService issueService;
+
+    @Before
+    public void setup() throws IOException {
+        MockitoAnnotations.initMocks(this);
+        issueService = new IssueService();
+        ReflectionTestUtils.setField(issueService, "issueRepository", issueRepository);
+        ReflectionTestUtils.setField(issueService, "attachmentStore", attachmentStore);
+        ReflectionTestUtils.setField(issueService, "searchIndexingService", searchIndexingService);
+        ReflectionTestUtils.setField(issueService, "issueResponseCache", issueResponseCache);
+        ReflectionTestUtils.setField(issueService, "jHipsterProperties", new JHipsterProperties());
+        Issue issue = new Issue();
+        issue.setId(1L);
+        when(issueRepository.findOne(1L)).thenReturn(issue);
+        when(attachmentStore.store(anyString(), any(InputStream.class), anyLong()))
+            .thenReturn(new AttachmentStore.StoredAttachment(3, "checksum"));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @After
+    public void cleanup() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    public void movesTheStagedAttachmentAfterTheCommit() throws IOException {
+        String stagingKey = storeAttachment();
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(attachmentStore).move(stagingKey, "issue/1");
+        verify(attachmentStore, never()).delete(anyString());
+    }
+
+    @Test
+    public void deletesTheStagedAttachmentAfterARollback() throws IOException {
+        String stagingKey = storeAttachment();
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(attachmentStore, never()).move(anyString(), anyString());
+        verify(attachmentStore).delete(stagingKey);
+    }
+
+    @Test
+    public void keepsTheStagedAttachmentWhenItCannotBeMoved() throws IOException {
+        doThrow(new IOException("disk full")).when(attachmentStore).move(anyString(), eq("issue/1"));
+        String stagingKey = storeAttachment();
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Retried, then left in place: it is the only copy of the committed attachment
+        verify(attachmentStore, times(3)).move(stagingKey, "issue/1");
+        verify(attachmentStore, never()).delete(anyString());
+    }
+
+    private String storeAttachment() throws IOException {
+        issueService.storeAttachment(1L, "image/png", new ByteArrayInputStream(new byte[] {1, 2, 3}));
+        ArgumentCaptor<String> stagingKey = ArgumentCaptor.forClass(String.class);
+        verify(attachmentStore).store(stagingKey.capture(), any(InputStream.class), anyLong());
+        assertThat(stagingKey.getValue()).startsWith("issue/1.").isNotEqualTo("issue/1");
+        return stagingKey.getValue();
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+        }
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+    }
+}
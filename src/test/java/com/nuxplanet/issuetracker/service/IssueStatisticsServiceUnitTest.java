@@ -0,0 +1,86 @@
+package com.nuxplanet.issuetracker.service;
+
+import com.nuxplanet.issuetracker.domain.Issue;
+import com.nuxplanet.issuetracker.domain.enumeration.Priority;
+import com.nuxplanet.issuetracker.domain.enumeration.State;
+import com.nuxplanet.issuetracker.repository.IssueRepository;
+import com.nuxplanet.issuetracker.service.dto.IssueCountDTO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the IssueStatisticsService.
+ *
+ * @see IssueStatisticsService
+ */
+public class IssueStatisticsServiceUnitTest {
+
+    @Mock
+    private IssueRepository issueRepository;
+
+    private IssueStatisticsService issueStatisticsService;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        issueStatisticsService = new IssueStatisticsService();
+        ReflectionTestUtils.setField(issueStatisticsService, "issueRepository", issueRepository);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void cleanup() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void replaysTheChangesAppliedDuringAReload() throws Exception {
+        when(issueRepository.countByStateAndPriorityAndAssignee()).thenReturn(Collections.singletonList(
+            new IssueCountDTO(State.OPEN, Priority.NORMAL, null, 2L)));
+        issueStatisticsService.rebuild();
+
+        CountDownLatch counting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(issueRepository.countByStateAndPriorityAndAssignee()).thenAnswer(invocation -> {
+            counting.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Collections.singletonList(new IssueCountDTO(State.OPEN, Priority.NORMAL, null, 2L));
+        });
+        Future<?> rebuild = executor.submit(issueStatisticsService::rebuild);
+        assertThat(counting.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Applied while the query runs, without waiting for it
+        issueStatisticsService.record(null, issueStatisticsService.keyOf(issue(State.CLOSED)));
+        issueStatisticsService.record(issueStatisticsService.keyOf(issue(State.OPEN)), null);
+        assertThat(issueStatisticsService.getStatistics(null).getTotal()).isEqualTo(2);
+        assertThat(issueStatisticsService.getStatistics(null).getByState()).containsEntry(State.CLOSED, 1L);
+
+        release.countDown();
+        rebuild.get(5, TimeUnit.SECONDS);
+        assertThat(issueStatisticsService.getStatistics(null).getTotal()).isEqualTo(2);
+        assertThat(issueStatisticsService.getStatistics(null).getByState())
+            .containsEntry(State.OPEN, 1L)
+            .containsEntry(State.CLOSED, 1L);
+    }
+
+    private static Issue issue(State state) {
+        return new Issue().state(state).priority(Priority.NORMAL);
+    }
+}
@@ -0,0 +1,87 @@
+package com.nuxplanet.issuetracker.service;
+
+import com.nuxplanet.issuetracker.IssueTrackerApp;
+import com.nuxplanet.issuetracker.domain.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.inject.Inject;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the MailService, sending to a stand-in of the SMTP server.
+ *
+ * @see MailService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = IssueTrackerApp.class)
+public class MailServiceIntTest {
+
+    @Inject
+    private MailService mailService;
+
+    @Inject
+    private JavaMailSenderImpl javaMailSender;
+
+    private RecordingMailSender recordingMailSender;
+
+    @Before
+    public void setup() {
+        recordingMailSender = new RecordingMailSender();
+        ReflectionTestUtils.setField(mailService, "javaMailSender", recordingMailSender);
+    }
+
+    @After
+    public void cleanup() {
+        ReflectionTestUtils.setField(mailService, "javaMailSender", javaMailSender);
+    }
+
+    @Test
+    public void sendActivationEmail() throws MessagingException, IOException {
+        User user = new User();
+        user.setLogin("john");
+        user.setEmail("john.doe@example.com");
+        user.setLangKey("en");
+        user.setActivationKey("12345");
+
+        mailService.sendActivationEmail(user, "http://127.0.0.1:8080");
+
+        assertThat(recordingMailSender.connections).isEqualTo(1);
+        assertThat(recordingMailSender.messages).hasSize(1);
+        MimeMessage message = recordingMailSender.messages.get(0);
+        assertThat(message.getAllRecipients()[0].toString()).isEqualTo("john.doe@example.com");
+        assertThat(message.getSubject()).isEqualTo("IssueTracker account activation");
+        assertThat(message.getContent().toString()).contains("http://127.0.0.1:8080/#/activate?key=12345");
+    }
+
+    /**
+     * Records the messages it is given, instead of sending them, and counts the SMTP connections it would open.
+     */
+    private static class RecordingMailSender extends JavaMailSenderImpl {
+
+        private final List<MimeMessage> messages = new ArrayList<>();
+
+        private int connections;
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+            connections++;
+            messages.addAll(Arrays.asList(mimeMessages));
+        }
+    }
+}
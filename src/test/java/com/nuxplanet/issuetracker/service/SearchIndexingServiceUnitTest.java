@@ -0,0 +1,283 @@
+package com.nuxplanet.issuetracker.service;
+
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
+import com.nuxplanet.issuetracker.domain.Issue;
+
+import com.codahale.metrics.MetricRegistry;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.bulk.BulkAction;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteAction;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.delete.DeleteRequestBuilder;
+import org.elasticsearch.action.delete.DeleteResponse;
+import org.elasticsearch.action.index.IndexAction;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.client.Client;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the asynchronous indexing of the SearchIndexingService, against a mocked Elasticsearch client.
+ *
+ * @see SearchIndexingService
+ */
+public class SearchIndexingServiceUnitTest {
+
+    private static final String PREFIX = "com.nuxplanet.issuetracker.service.SearchIndexingService.";
+
+    @Mock
+    private Client client;
+
+    @Mock
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Mock
+    private EntityMapper entityMapper;
+
+    private final JHipsterProperties jHipsterProperties = new JHipsterProperties();
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+
+    private SearchIndexingService searchIndexingService;
+
+    /** The items of each bulk request sent, as "id=name" for an index and "id" for a delete. */
+    private final List<List<String>> bulks = new CopyOnWriteArrayList<>();
+
+    /** The items whose next bulk request fails. */
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+
+    private final CountDownLatch sending = new CountDownLatch(1);
+
+    /** Holds the response of the next bulk request, until it is counted down. */
+    private volatile CountDownLatch hold;
+
+    private final List<CountDownLatch> holds = new CopyOnWriteArrayList<>();
+
+    private ExecutorService executor;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        JHipsterProperties.Elasticsearch.Indexing indexing = jHipsterProperties.getElasticsearch().getIndexing();
+        indexing.setAsync(true);
+        indexing.setBulkSize(2);
+        indexing.setFlushIntervalMs(50);
+        indexing.setRetryBackoffMs(10);
+        ElasticsearchPersistentEntity<?> entity = mock(ElasticsearchPersistentEntity.class);
+        when(entity.getIndexName()).thenReturn("issue");
+        when(entity.getIndexType()).thenReturn("issue");
+        doReturn(entity).when(elasticsearchTemplate).getPersistentEntityFor(Issue.class);
+        when(elasticsearchTemplate.getClient()).thenReturn(client);
+        when(entityMapper.mapToString(any())).thenAnswer(invocation ->
+            "{\"name\":\"" + ((Issue) invocation.getArguments()[0]).getName() + "\"}");
+        when(client.prepareBulk()).thenAnswer(invocation -> new BulkRequestBuilder(client, BulkAction.INSTANCE));
+        when(client.prepareIndex(anyString(), anyString(), anyString())).thenAnswer(invocation ->
+            new IndexRequestBuilder(client, IndexAction.INSTANCE, (String) invocation.getArguments()[0])
+                .setType((String) invocation.getArguments()[1]).setId((String) invocation.getArguments()[2]));
+        when(client.prepareDelete(anyString(), anyString(), anyString())).thenAnswer(invocation ->
+            new DeleteRequestBuilder(client, DeleteAction.INSTANCE, (String) invocation.getArguments()[0])
+                .setType((String) invocation.getArguments()[1]).setId((String) invocation.getArguments()[2]));
+        doAnswer(invocation -> {
+            ((ActionListener<BulkResponse>) invocation.getArguments()[2])
+                .onResponse(bulk((BulkRequest) invocation.getArguments()[1]));
+            return null;
+        }).when(client).execute(any(BulkAction.class), any(BulkRequest.class), any(ActionListener.class));
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        holds.forEach(CountDownLatch::countDown);
+        executor.shutdownNow();
+        searchIndexingService.destroy();
+    }
+
+    @Test
+    public void coalescesTheDocumentsWaitingForABulkRequest() throws Exception {
+        start(100);
+        CountDownLatch release = holdNextBulk();
+        searchIndexingService.index(issue(1L, "a"));
+        awaitSending();
+
+        searchIndexingService.index(issue(2L, "a"));
+        searchIndexingService.index(issue(2L, "b"));
+        searchIndexingService.delete(Issue.class, 3L);
+        assertThat(searchIndexingService.getQueueDepth()).isEqualTo(2);
+        release.countDown();
+
+        awaitBulks(2);
+        assertThat(bulks.get(0)).containsExactly("1=a");
+        assertThat(bulks.get(1)).containsExactly("2=b", "3");
+        assertThat(metricRegistry.meter(PREFIX + "indexed").getCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void retriesTheFailedItems() throws Exception {
+        start(100);
+        failing.add("2=a");
+        searchIndexingService.indexAll(Arrays.asList(issue(1L, "a"), issue(2L, "a")));
+
+        awaitBulks(2);
+        assertThat(bulks.get(0)).containsExactly("1=a", "2=a");
+        assertThat(bulks.get(1)).containsExactly("2=a");
+        assertThat(metricRegistry.counter(PREFIX + "retries").getCount()).isEqualTo(1);
+        assertThat(metricRegistry.meter(PREFIX + "indexed").getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void doesNotRetryADocumentReplacedByANewerOne() throws Exception {
+        jHipsterProperties.getElasticsearch().getIndexing().setRetryBackoffMs(500);
+        start(100);
+        failing.add("1=a");
+        searchIndexingService.index(issue(1L, "a"));
+        // Changed again while the failed item waits to be retried
+        awaitBulks(1);
+        searchIndexingService.index(issue(1L, "b"));
+
+        awaitBulks(2);
+        Thread.sleep(600);
+        assertThat(bulks).containsExactly(Collections.singletonList("1=a"), Collections.singletonList("1=b"));
+    }
+
+    @Test
+    public void makesWritersWaitWhenTheQueueIsFull() throws Exception {
+        jHipsterProperties.getElasticsearch().getIndexing().setBulkSize(1);
+        start(1);
+        CountDownLatch release = holdNextBulk();
+        searchIndexingService.index(issue(1L, "a"));
+        awaitSending();
+        searchIndexingService.index(issue(2L, "a"));
+
+        // The queue is full: the writer waits for the background thread, instead of sending its document itself
+        Future<?> writer = executor.submit(() -> searchIndexingService.index(issue(3L, "a")));
+        assertThatThrownBy(() -> writer.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+        assertThat(bulks).hasSize(1);
+
+        release.countDown();
+        writer.get(5, TimeUnit.SECONDS);
+        awaitBulks(3);
+        assertThat(bulks).containsExactly(Collections.singletonList("1=a"), Collections.singletonList("2=a"),
+            Collections.singletonList("3=a"));
+    }
+
+    @Test
+    public void flushesTheWaitingDocumentsOnShutdown() throws Exception {
+        jHipsterProperties.getElasticsearch().getIndexing().setBulkSize(10);
+        jHipsterProperties.getElasticsearch().getIndexing().setFlushIntervalMs(60000);
+        start(100);
+        searchIndexingService.index(issue(1L, "a"));
+        searchIndexingService.index(issue(2L, "a"));
+
+        searchIndexingService.destroy();
+        assertThat(bulks).hasSize(1);
+        assertThat(bulks.get(0)).containsExactly("1=a", "2=a");
+        assertThat(searchIndexingService.getQueueDepth()).isEqualTo(0);
+    }
+
+    private void start(int queueCapacity) {
+        jHipsterProperties.getElasticsearch().getIndexing().setQueueCapacity(queueCapacity);
+        searchIndexingService = new SearchIndexingService();
+        ReflectionTestUtils.setField(searchIndexingService, "jHipsterProperties", jHipsterProperties);
+        ReflectionTestUtils.setField(searchIndexingService, "elasticsearchTemplate", elasticsearchTemplate);
+        ReflectionTestUtils.setField(searchIndexingService, "entityMapper", entityMapper);
+        ReflectionTestUtils.setField(searchIndexingService, "metricRegistry", metricRegistry);
+        searchIndexingService.init();
+    }
+
+    /**
+     * @return the latch holding the response of the next bulk request, until it is counted down
+     */
+    private CountDownLatch holdNextBulk() {
+        hold = new CountDownLatch(1);
+        holds.add(hold);
+        return hold;
+    }
+
+    private void awaitSending() throws InterruptedException {
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private void awaitBulks(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (bulks.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(bulks).hasSize(count);
+    }
+
+    private BulkResponse bulk(BulkRequest request) throws InterruptedException {
+        List<String> items = new ArrayList<>();
+        List<BulkItemResponse> responses = new ArrayList<>();
+        for (ActionRequest item : request.requests()) {
+            int itemId = responses.size();
+            if (item instanceof IndexRequest) {
+                IndexRequest index = (IndexRequest) item;
+                String name = index.sourceAsMap().get("name").toString();
+                String description = index.id() + "=" + name;
+                items.add(description);
+                responses.add(failing.remove(description) ?
+                    new BulkItemResponse(itemId, "index", new BulkItemResponse.Failure(index.index(), index.type(),
+                        index.id(), new IllegalStateException("rejected"))) :
+                    new BulkItemResponse(itemId, "index",
+                        new IndexResponse(index.index(), index.type(), index.id(), 1, true)));
+            } else {
+                DeleteRequest delete = (DeleteRequest) item;
+                items.add(delete.id());
+                responses.add(new BulkItemResponse(itemId, "delete",
+                    new DeleteResponse(delete.index(), delete.type(), delete.id(), 1, true)));
+            }
+        }
+        bulks.add(items);
+        sending.countDown();
+        CountDownLatch held = hold;
+        hold = null;
+        if (held != null) {
+            held.await(5, TimeUnit.SECONDS);
+        }
+        return new BulkResponse(responses.toArray(new BulkItemResponse[responses.size()]), 1);
+    }
+
+    private static Issue issue(Long id, String name) {
+        Issue issue = new Issue().name(name);
+        issue.setId(id);
+        return issue;
+    }
+}
@@ -41,6 +41,9 @@ public class SocialServiceIntTest {
     @Inject
     private UserRepository userRepository;
 
+    @Inject
+    private SearchIndexingService searchIndexingService;
+
     @Mock
     private MailService mockMailService;
 
@@ -64,6 +67,7 @@ public class SocialServiceIntTest {
         ReflectionTestUtils.setField(socialService, "passwordEncoder", passwordEncoder);
         ReflectionTestUtils.setField(socialService, "mailService", mockMailService);
         ReflectionTestUtils.setField(socialService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(socialService, "searchIndexingService", searchIndexingService);
         ReflectionTestUtils.setField(socialService, "usersConnectionRepository", mockUsersConnectionRepository);
     }
 
@@ -11,6 +11,11 @@ import java.time.LocalDate;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.test.context.junit4.SpringRunner;
 
@@ -39,6 +44,9 @@ public class UserServiceIntTest {
     @Inject
     private UserService userService;
 
+    @Inject
+    private UserDetailsService userDetailsService;
+
     @Test
     public void testRemoveOldPersistentTokens() {
         User admin = userRepository.findOneByLogin("admin").get();
@@ -51,6 +59,21 @@ public class UserServiceIntTest {
         assertThat(persistentTokenRepository.findByUser(admin)).hasSize(existingCount + 1);
     }
 
+    @Test
+    public void assertThatDeletedUserIsRemovedFromUserDetailsCache() {
+        User user = userService.createUser("johndoe", "johndoe", "John", "Doe", "john.doe@localhost", "en-US");
+        user.setActivated(true);
+        userRepository.saveAndFlush(user);
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername("johndoe");
+        ((CredentialsContainer) userDetails).eraseCredentials();
+        assertThat(userDetailsService.loadUserByUsername("johndoe").getPassword()).isEqualTo(user.getPassword());
+
+        userService.deleteUser("johndoe");
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername("johndoe"))
+            .isInstanceOf(UsernameNotFoundException.class);
+    }
+
     @Test
     public void assertThatUserMustExistToResetPassword() {
         Optional<User> maybeUser = userService.requestPasswordReset("john.doe@localhost");
@@ -132,6 +155,19 @@ public class UserServiceIntTest {
         assertThat(users).isEmpty();
     }
 
+    @Test
+    public void assertThatOldNotActivatedUsersAreRemovedWithTheirAuthorities() {
+        User user = userService.createUser("johndoe", "johndoe", "John", "Doe", "john.doe@localhost", "en-US");
+        user.setCreatedDate(ZonedDateTime.now().minusDays(4));
+        userRepository.saveAndFlush(user);
+        generateUserToken(user, "3333-3333", LocalDate.now());
+
+        userService.removeNotActivatedUsers();
+        assertThat(userRepository.findOneByLogin("johndoe")).isEmpty();
+        assertThat(persistentTokenRepository.findSeriesByTokenDateBefore(LocalDate.now().plusDays(1),
+            new PageRequest(0, 100))).doesNotContain("3333-3333");
+    }
+
     private void generateUserToken(User user, String tokenSeries, LocalDate localDate) {
         PersistentToken token = new PersistentToken();
         token.setSeries(tokenSeries);
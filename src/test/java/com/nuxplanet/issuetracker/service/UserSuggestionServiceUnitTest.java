@@ -0,0 +1,59 @@
+package com.nuxplanet.issuetracker.service;
+
+import com.nuxplanet.issuetracker.repository.UserRepository;
+import com.nuxplanet.issuetracker.service.dto.UserSuggestionDTO;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the UserSuggestionService.
+ *
+ * @see UserSuggestionService
+ */
+public class UserSuggestionServiceUnitTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserSuggestionService userSuggestionService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        userSuggestionService = new UserSuggestionService();
+        ReflectionTestUtils.setField(userSuggestionService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userSuggestionService, "transactionManager", transactionManager);
+        userSuggestionService.init();
+    }
+
+    @Test
+    public void retriesAFailedLoad() {
+        when(userRepository.findAllSuggestions())
+            .thenThrow(new DataAccessResourceFailureException("database down"))
+            .thenReturn(Arrays.asList(
+                new UserSuggestionDTO(1L, "john", "John", "Doe"),
+                new UserSuggestionDTO(2L, "jane", "Jane", "Doe")));
+
+        assertThatThrownBy(() -> userSuggestionService.suggest("doe", 10))
+            .isInstanceOf(DataAccessResourceFailureException.class);
+        // Changed after the failed load: its row must not be skipped by the next one
+        userSuggestionService.delete(2L);
+
+        assertThat(userSuggestionService.suggest("doe", 10)).extracting("login").containsOnly("jane", "john");
+    }
+}
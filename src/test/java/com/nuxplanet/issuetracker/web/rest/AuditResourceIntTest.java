@@ -1,8 +1,10 @@
 package com.nuxplanet.issuetracker.web.rest;
 
 import com.nuxplanet.issuetracker.IssueTrackerApp;
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
 import com.nuxplanet.issuetracker.config.audit.AuditEventConverter;
 import com.nuxplanet.issuetracker.domain.PersistentAuditEvent;
+import com.nuxplanet.issuetracker.repository.AuditEventPartitionRepository;
 import com.nuxplanet.issuetracker.repository.PersistenceAuditEventRepository;
 import com.nuxplanet.issuetracker.service.AuditEventService;
 import org.junit.Before;
@@ -20,8 +22,10 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import javax.inject.Inject;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -43,9 +47,15 @@ public class AuditResourceIntTest {
     @Inject
     private PersistenceAuditEventRepository auditEventRepository;
 
+    @Inject
+    private AuditEventPartitionRepository auditEventPartitionRepository;
+
     @Inject
     private AuditEventConverter auditEventConverter;
 
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -60,7 +70,8 @@ public class AuditResourceIntTest {
     public void setup() {
         MockitoAnnotations.initMocks(this);
         AuditEventService auditEventService =
-                new AuditEventService(auditEventRepository, auditEventConverter);
+                new AuditEventService(auditEventRepository, auditEventPartitionRepository, auditEventConverter,
+                    jHipsterProperties);
         AuditResource auditResource = new AuditResource(auditEventService);
         this.restAuditMockMvc = MockMvcBuilders.standaloneSetup(auditResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
@@ -132,6 +143,24 @@ public class AuditResourceIntTest {
             .andExpect(header().string("X-Total-Count", "0"));
     }
 
+    @Test
+    public void removeOldAudits() throws Exception {
+        // Initialize the database
+        auditEvent.getData().put("remoteAddress", "127.0.0.1");
+        auditEventRepository.save(auditEvent);
+        PersistentAuditEvent recentAuditEvent = new PersistentAuditEvent();
+        recentAuditEvent.setAuditEventType(SAMPLE_TYPE);
+        recentAuditEvent.setPrincipal(SAMPLE_PRINCIPAL);
+        recentAuditEvent.setAuditEventDate(SAMPLE_TIMESTAMP.plusMonths(1));
+        auditEventRepository.saveAndFlush(recentAuditEvent);
+
+        // Remove the audits before the month of the recent audit
+        auditEventPartitionRepository.deleteBefore(YearMonth.from(recentAuditEvent.getAuditEventDate()));
+
+        assertThat(auditEventRepository.findAll()).extracting(PersistentAuditEvent::getId)
+            .containsExactly(recentAuditEvent.getId());
+    }
+
     @Test
     public void getNonExistingAudit() throws Exception {
         // Get the audit
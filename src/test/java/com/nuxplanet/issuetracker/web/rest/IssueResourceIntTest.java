@@ -2,33 +2,62 @@ package com.nuxplanet.issuetracker.web.rest;
 
 import com.nuxplanet.issuetracker.IssueTrackerApp;
 
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
 import com.nuxplanet.issuetracker.domain.Issue;
+import com.nuxplanet.issuetracker.domain.User;
 import com.nuxplanet.issuetracker.repository.IssueRepository;
+import com.nuxplanet.issuetracker.service.IssueBulkService;
+import com.nuxplanet.issuetracker.service.IssueResponseCache;
 import com.nuxplanet.issuetracker.service.IssueService;
+import com.nuxplanet.issuetracker.service.IssueStatisticsService;
 import com.nuxplanet.issuetracker.repository.search.IssueSearchRepository;
+import com.nuxplanet.issuetracker.web.rest.errors.ErrorConstants;
+import com.nuxplanet.issuetracker.web.rest.errors.ExceptionTranslator;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.transaction.AfterTransaction;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.Base64Utils;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -60,9 +89,9 @@ public class IssueResourceIntTest {
     private static final Priority DEFAULT_PRIORITY = Priority.MINOR;
     private static final Priority UPDATED_PRIORITY = Priority.NORMAL;
 
-    private static final byte[] DEFAULT_ATTACHMENT = TestUtil.createByteArray(1, "0");
+    private static final byte[] DEFAULT_ATTACHMENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
     private static final byte[] UPDATED_ATTACHMENT = TestUtil.createByteArray(2, "1");
-    private static final String DEFAULT_ATTACHMENT_CONTENT_TYPE = "image/jpg";
+    private static final String DEFAULT_ATTACHMENT_CONTENT_TYPE = "image/jpeg";
     private static final String UPDATED_ATTACHMENT_CONTENT_TYPE = "image/png";
 
     private static final String DEFAULT_COMMENT = "AAAAA";
@@ -74,9 +103,21 @@ public class IssueResourceIntTest {
     @Inject
     private IssueService issueService;
 
+    @Inject
+    private IssueBulkService issueBulkService;
+
+    @Inject
+    private IssueStatisticsService issueStatisticsService;
+
+    @Inject
+    private IssueResponseCache issueResponseCache;
+
     @Inject
     private IssueSearchRepository issueSearchRepository;
 
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -86,6 +127,9 @@ public class IssueResourceIntTest {
     @Inject
     private EntityManager em;
 
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
     private MockMvc restIssueMockMvc;
 
     private Issue issue;
@@ -95,9 +139,13 @@ public class IssueResourceIntTest {
         MockitoAnnotations.initMocks(this);
         IssueResource issueResource = new IssueResource();
         ReflectionTestUtils.setField(issueResource, "issueService", issueService);
+        ReflectionTestUtils.setField(issueResource, "issueBulkService", issueBulkService);
+        ReflectionTestUtils.setField(issueResource, "issueStatisticsService", issueStatisticsService);
+        ReflectionTestUtils.setField(issueResource, "issueResponseCache", issueResponseCache);
         this.restIssueMockMvc = MockMvcBuilders.standaloneSetup(issueResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
-            .setMessageConverters(jacksonMessageConverter).build();
+            .setControllerAdvice(new ExceptionTranslator())
+            .setMessageConverters(new ByteArrayHttpMessageConverter(), jacksonMessageConverter).build();
     }
 
     /**
@@ -113,8 +161,6 @@ public class IssueResourceIntTest {
                 .created(DEFAULT_CREATED)
                 .state(DEFAULT_STATE)
                 .priority(DEFAULT_PRIORITY)
-                .attachment(DEFAULT_ATTACHMENT)
-                .attachmentContentType(DEFAULT_ATTACHMENT_CONTENT_TYPE)
                 .comment(DEFAULT_COMMENT);
         return issue;
     }
@@ -146,8 +192,6 @@ public class IssueResourceIntTest {
         assertThat(testIssue.getCreated()).isEqualTo(DEFAULT_CREATED);
         assertThat(testIssue.getState()).isEqualTo(DEFAULT_STATE);
         assertThat(testIssue.getPriority()).isEqualTo(DEFAULT_PRIORITY);
-        assertThat(testIssue.getAttachment()).isEqualTo(DEFAULT_ATTACHMENT);
-        assertThat(testIssue.getAttachmentContentType()).isEqualTo(DEFAULT_ATTACHMENT_CONTENT_TYPE);
         assertThat(testIssue.getComment()).isEqualTo(DEFAULT_COMMENT);
 
         // Validate the Issue in ElasticSearch
@@ -225,11 +269,295 @@ public class IssueResourceIntTest {
                 .andExpect(jsonPath("$.[*].created").value(hasItem(DEFAULT_CREATED.toString())))
                 .andExpect(jsonPath("$.[*].state").value(hasItem(DEFAULT_STATE.toString())))
                 .andExpect(jsonPath("$.[*].priority").value(hasItem(DEFAULT_PRIORITY.toString())))
-                .andExpect(jsonPath("$.[*].attachmentContentType").value(hasItem(DEFAULT_ATTACHMENT_CONTENT_TYPE)))
-                .andExpect(jsonPath("$.[*].attachment").value(hasItem(Base64Utils.encodeToString(DEFAULT_ATTACHMENT))))
                 .andExpect(jsonPath("$.[*].comment").value(hasItem(DEFAULT_COMMENT.toString())));
     }
 
+    @Test
+    @Transactional
+    public void getAllIssueSummaries() throws Exception {
+        // Initialize the database
+        User assignee = UserResourceIntTest.createEntity(em);
+        issue.setAssignee(assignee);
+        issueRepository.saveAndFlush(issue);
+
+        // Get all the issue summaries
+        restIssueMockMvc.perform(get("/api/issues?sort=id,desc&fields="))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+                .andExpect(jsonPath("$.[*].id").value(hasItem(issue.getId().intValue())))
+                .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)))
+                .andExpect(jsonPath("$.[*].created").value(hasItem(DEFAULT_CREATED.toString())))
+                .andExpect(jsonPath("$.[*].state").value(hasItem(DEFAULT_STATE.toString())))
+                .andExpect(jsonPath("$.[*].priority").value(hasItem(DEFAULT_PRIORITY.toString())))
+                .andExpect(jsonPath("$.[*].assigneeLogin").value(hasItem(assignee.getLogin())))
+                .andExpect(jsonPath("$.[*].description").doesNotExist())
+                .andExpect(jsonPath("$.[*].assignee").doesNotExist());
+
+        // Get only some fields
+        restIssueMockMvc.perform(get("/api/issues").param("sort", "id,desc").param("fields", "id, name"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link", containsString("fields=id,name&")))
+                .andExpect(jsonPath("$.[0].id").value(issue.getId().intValue()))
+                .andExpect(jsonPath("$.[0].name").value(DEFAULT_NAME))
+                .andExpect(jsonPath("$.[0].state").doesNotExist())
+                .andExpect(jsonPath("$.[0].assigneeLogin").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssueSummariesWithNullFields() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        // A requested field is sent even if it is null
+        restIssueMockMvc.perform(get("/api/issues?sort=id,desc&fields=id,assigneeLogin"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].id").value(issue.getId().intValue()))
+                .andExpect(jsonPath("$.[0]", hasKey("assigneeLogin")))
+                .andExpect(jsonPath("$.[0]", not(hasKey("name"))));
+
+        // The logins of the summaries can be sorted on
+        restIssueMockMvc.perform(get("/api/issues?sort=assigneeLogin,desc&sort=originatorLogin&fields=id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(issue.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssueSummariesByCriteria() throws Exception {
+        // Initialize the database
+        User assignee = UserResourceIntTest.createEntity(em);
+        issue.setAssignee(assignee);
+        issueRepository.saveAndFlush(issue);
+
+        restIssueMockMvc.perform(get("/api/issues?sort=id,desc&fields=id&state=" + DEFAULT_STATE +
+            "&assigneeId=" + assignee.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(issue.getId().intValue())))
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(header().string("Link", containsString(
+                    "/api/issues?state=" + DEFAULT_STATE + "&assigneeId=" + assignee.getId() + "&fields=id&page=")));
+        restIssueMockMvc.perform(get("/api/issues?sort=id,desc&fields=id&state=" + UPDATED_STATE +
+            "&assigneeId=" + assignee.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(issue.getId().intValue()))));
+        restIssueMockMvc.perform(get("/api/issues?sort=id,desc&fields=id&assigneeId=" + (assignee.getId() + 1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(issue.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssueSummariesWithUnknownField() throws Exception {
+        restIssueMockMvc.perform(get("/api/issues?fields=id,description"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(ErrorConstants.ERR_INVALID_FIELDS));
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssuesByCriteria() throws Exception {
+        // Initialize the database
+        User assignee = UserResourceIntTest.createEntity(em);
+        issue.setAssignee(assignee);
+        issueRepository.saveAndFlush(issue);
+
+        defaultIssueShouldBeFound("state=" + DEFAULT_STATE);
+        defaultIssueShouldBeFound("state=" + DEFAULT_STATE + "," + UPDATED_STATE);
+        defaultIssueShouldNotBeFound("state=" + UPDATED_STATE);
+
+        defaultIssueShouldBeFound("priority=" + DEFAULT_PRIORITY);
+        defaultIssueShouldNotBeFound("priority=" + UPDATED_PRIORITY);
+
+        defaultIssueShouldBeFound("assigneeId=" + assignee.getId());
+        defaultIssueShouldNotBeFound("assigneeId=" + (assignee.getId() + 1));
+        defaultIssueShouldNotBeFound("originatorId=" + assignee.getId());
+
+        defaultIssueShouldBeFound("createdFrom=" + DEFAULT_CREATED + "&createdTo=" + DEFAULT_CREATED);
+        defaultIssueShouldNotBeFound("createdFrom=" + DEFAULT_CREATED.plusDays(1));
+        defaultIssueShouldNotBeFound("createdTo=" + DEFAULT_CREATED.minusDays(1));
+
+        defaultIssueShouldBeFound("state=" + DEFAULT_STATE + "&priority=" + DEFAULT_PRIORITY +
+            "&createdFrom=" + DEFAULT_CREATED);
+        defaultIssueShouldNotBeFound("state=" + DEFAULT_STATE + "&priority=" + UPDATED_PRIORITY);
+
+        // The criteria are kept in the pagination links
+        restIssueMockMvc.perform(get("/api/issues?state=" + DEFAULT_STATE + "&createdFrom=" + DEFAULT_CREATED))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Link",
+                containsString("/api/issues?state=" + DEFAULT_STATE + "&createdFrom=" + DEFAULT_CREATED + "&page=")));
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssuesWithInvalidCriteria() throws Exception {
+        restIssueMockMvc.perform(get("/api/issues?state=UNKNOWN"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value(ErrorConstants.ERR_VALIDATION))
+            .andExpect(jsonPath("$.fieldErrors.[0].field").value("state"));
+    }
+
+    private void defaultIssueShouldBeFound(String filter) throws Exception {
+        restIssueMockMvc.perform(get("/api/issues?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(issue.getId().intValue())))
+            .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)));
+    }
+
+    private void defaultIssueShouldNotBeFound(String filter) throws Exception {
+        restIssueMockMvc.perform(get("/api/issues?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(issue.getId().intValue()))));
+    }
+
+    /**
+     * Count the issues again once the test data is rolled back.
+     */
+    @AfterTransaction
+    public void rebuildIssueStatistics() {
+        issueStatisticsService.rebuild();
+    }
+
+    @Test
+    @Transactional
+    public void getIssueStatistics() throws Exception {
+        // Initialize the database
+        User assignee = UserResourceIntTest.createEntity(em);
+        issue.setAssignee(assignee);
+        issueRepository.saveAndFlush(issue);
+        issueRepository.saveAndFlush(createEntity(em).state(UPDATED_STATE));
+        issueStatisticsService.rebuild();
+
+        // Get the statistics of all the issues
+        restIssueMockMvc.perform(get("/api/issues/_stats"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.total").value(2))
+            .andExpect(jsonPath("$.byState." + DEFAULT_STATE).value(1))
+            .andExpect(jsonPath("$.byState." + UPDATED_STATE).value(1))
+            .andExpect(jsonPath("$.byPriority." + DEFAULT_PRIORITY).value(2));
+
+        // Get the statistics of the issues of one assignee
+        restIssueMockMvc.perform(get("/api/issues/_stats").param("assigneeId", assignee.getId().toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(1))
+            .andExpect(jsonPath("$.counts.[0].state").value(DEFAULT_STATE.toString()))
+            .andExpect(jsonPath("$.counts.[0].priority").value(DEFAULT_PRIORITY.toString()))
+            .andExpect(jsonPath("$.counts.[0].assigneeId").value(assignee.getId().intValue()))
+            .andExpect(jsonPath("$.counts.[0].count").value(1));
+
+        // Changes are counted once committed
+        IssueStatisticsService.Key before = issueStatisticsService.keyOf(issue);
+        issue.setState(UPDATED_STATE);
+        new TransactionTemplate(transactionManager, new DefaultTransactionDefinition(
+            TransactionDefinition.PROPAGATION_REQUIRES_NEW)).execute(status -> {
+                issueStatisticsService.record(before, issueStatisticsService.keyOf(issue));
+                return null;
+            });
+        restIssueMockMvc.perform(get("/api/issues/_stats"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(2))
+            .andExpect(jsonPath("$.byState." + DEFAULT_STATE).doesNotExist())
+            .andExpect(jsonPath("$.byState." + UPDATED_STATE).value(2));
+    }
+
+    @Test
+    @Transactional
+    public void getIssuesAssignedToMe() throws Exception {
+        // Initialize the database
+        User user = UserResourceIntTest.createEntity(em);
+        issue.setAssignee(user);
+        issueRepository.saveAndFlush(issue);
+        Issue otherIssue = createEntity(em).state(UPDATED_STATE);
+        otherIssue.setAssignee(user);
+        issueRepository.saveAndFlush(otherIssue);
+        issueRepository.saveAndFlush(createEntity(em));
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(user.getLogin(), user.getPassword()));
+
+        try {
+            // Get the issues assigned to the current user
+            restIssueMockMvc.perform(get("/api/issues/assigned-to-me?sort=id,asc"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andExpect(jsonPath("$.[*].id").value(contains(issue.getId().intValue(), otherIssue.getId().intValue())))
+                .andExpect(jsonPath("$.[0].assignee.login").value(user.getLogin()));
+
+            // Get only the ones in a given state
+            restIssueMockMvc.perform(get("/api/issues/assigned-to-me").param("state", UPDATED_STATE.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(header().string("Link", containsString("state=" + UPDATED_STATE + "&")))
+                .andExpect(jsonPath("$.[*].id").value(contains(otherIssue.getId().intValue())));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    @Transactional
+    public void getIssuesCreatedByMe() throws Exception {
+        // Initialize the database
+        User user = UserResourceIntTest.createEntity(em);
+        issue.setOriginator(user);
+        issueRepository.saveAndFlush(issue);
+        issueRepository.saveAndFlush(createEntity(em));
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(user.getLogin(), user.getPassword()));
+
+        try {
+            // Get the issues created by the current user
+            restIssueMockMvc.perform(get("/api/issues/created-by-me"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$.[*].id").value(contains(issue.getId().intValue())))
+                .andExpect(jsonPath("$.[0].originator.login").value(user.getLogin()));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssuesWithKeysetCursor() throws Exception {
+        // Initialize the database
+        Issue first = issueRepository.saveAndFlush(createEntity(em));
+        Issue second = issueRepository.saveAndFlush(createEntity(em));
+        Issue third = issueRepository.saveAndFlush(createEntity(em));
+
+        // Get the first slice, starting just before the first issue
+        MvcResult result = restIssueMockMvc.perform(get("/api/issues?after=&size=2&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("Link", containsString("rel=\"next\"")))
+            .andExpect(jsonPath("$.[0].id").value(third.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(second.getId().intValue()))
+            .andReturn();
+
+        // Follow the "next" link
+        Matcher next = Pattern.compile("<([^>]*)>; rel=\"next\"").matcher(result.getResponse().getHeader("Link"));
+        assertThat(next.find()).isTrue();
+        String after = UriComponentsBuilder.fromUriString(next.group(1)).build().getQueryParams().getFirst("after");
+        restIssueMockMvc.perform(get("/api/issues?size=2&count=true&after=" + after))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", String.valueOf(issueRepository.count())))
+            .andExpect(jsonPath("$.[0].id").value(first.getId().intValue()))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(second.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssuesWithInvalidCursor() throws Exception {
+        restIssueMockMvc.perform(get("/api/issues?after=not-a-cursor"))
+            .andExpect(status().isBadRequest());
+        restIssueMockMvc.perform(get("/api/issues?after=&sort=name,asc"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     public void getIssue() throws Exception {
@@ -246,8 +574,6 @@ public class IssueResourceIntTest {
             .andExpect(jsonPath("$.created").value(DEFAULT_CREATED.toString()))
             .andExpect(jsonPath("$.state").value(DEFAULT_STATE.toString()))
             .andExpect(jsonPath("$.priority").value(DEFAULT_PRIORITY.toString()))
-            .andExpect(jsonPath("$.attachmentContentType").value(DEFAULT_ATTACHMENT_CONTENT_TYPE))
-            .andExpect(jsonPath("$.attachment").value(Base64Utils.encodeToString(DEFAULT_ATTACHMENT)))
             .andExpect(jsonPath("$.comment").value(DEFAULT_COMMENT.toString()));
     }
 
@@ -275,8 +601,6 @@ public class IssueResourceIntTest {
                 .created(UPDATED_CREATED)
                 .state(UPDATED_STATE)
                 .priority(UPDATED_PRIORITY)
-                .attachment(UPDATED_ATTACHMENT)
-                .attachmentContentType(UPDATED_ATTACHMENT_CONTENT_TYPE)
                 .comment(UPDATED_COMMENT);
 
         restIssueMockMvc.perform(put("/api/issues")
@@ -293,8 +617,6 @@ public class IssueResourceIntTest {
         assertThat(testIssue.getCreated()).isEqualTo(UPDATED_CREATED);
         assertThat(testIssue.getState()).isEqualTo(UPDATED_STATE);
         assertThat(testIssue.getPriority()).isEqualTo(UPDATED_PRIORITY);
-        assertThat(testIssue.getAttachment()).isEqualTo(UPDATED_ATTACHMENT);
-        assertThat(testIssue.getAttachmentContentType()).isEqualTo(UPDATED_ATTACHMENT_CONTENT_TYPE);
         assertThat(testIssue.getComment()).isEqualTo(UPDATED_COMMENT);
 
         // Validate the Issue in ElasticSearch
@@ -302,6 +624,108 @@ public class IssueResourceIntTest {
         assertThat(issueEs).isEqualToComparingFieldByField(testIssue);
     }
 
+    @Test
+    @Transactional
+    public void updateIssueWithStaleVersion() throws Exception {
+        // Initialize the database
+        issueService.save(issue);
+        em.flush();
+        em.detach(issue);
+
+        // Another client has updated the issue since it was read
+        Issue staleIssue = issueRepository.findOne(issue.getId());
+        em.detach(staleIssue);
+        staleIssue.setVersion(staleIssue.getVersion() - 1);
+        staleIssue.setName(UPDATED_NAME);
+
+        restIssueMockMvc.perform(put("/api/issues")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(staleIssue)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value(ErrorConstants.ERR_CONCURRENCY_FAILURE));
+    }
+
+    @Test
+    @Transactional
+    public void updateIssueWithIfMatch() throws Exception {
+        // Initialize the database
+        issueService.save(issue);
+        em.flush();
+
+        MvcResult read = restIssueMockMvc.perform(get("/api/issues/{id}", issue.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("\"")))
+                .andReturn();
+        String eTag = read.getResponse().getHeader("ETag");
+
+        Issue updatedIssue = issueRepository.findOne(issue.getId());
+        updatedIssue.name(UPDATED_NAME);
+
+        restIssueMockMvc.perform(put("/api/issues")
+                .header("If-Match", "\"0123456789abcdef\"")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(updatedIssue)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string("X-issueTrackerApp-error", "error.preconditionfailed"));
+
+        restIssueMockMvc.perform(put("/api/issues")
+                .header("If-Match", eTag)
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(updatedIssue)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(UPDATED_NAME));
+    }
+
+    @Test
+    @Transactional
+    public void getIssueWithIfNoneMatch() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        String eTag = restIssueMockMvc.perform(get("/api/issues/{id}", issue.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        restIssueMockMvc.perform(get("/api/issues/{id}", issue.getId())
+                .header("If-None-Match", "\"0123456789abcdef\", W/" + eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().string(""));
+
+        // The ETag changes with the version of the issue
+        issue.setName(UPDATED_NAME);
+        issueRepository.saveAndFlush(issue);
+        restIssueMockMvc.perform(get("/api/issues/{id}", issue.getId())
+                .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)))
+                .andExpect(jsonPath("$.name").value(UPDATED_NAME));
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssuesWithIfNoneMatch() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        String eTag = restIssueMockMvc.perform(get("/api/issues?sort=id,desc"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        restIssueMockMvc.perform(get("/api/issues?sort=id,desc")
+                .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(content().string(""));
+
+        issue.setComment(UPDATED_COMMENT);
+        issueRepository.saveAndFlush(issue);
+        restIssueMockMvc.perform(get("/api/issues?sort=id,desc")
+                .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].comment").value(hasItem(UPDATED_COMMENT)));
+    }
+
     @Test
     @Transactional
     public void deleteIssue() throws Exception {
@@ -324,6 +748,251 @@ public class IssueResourceIntTest {
         assertThat(issues).hasSize(databaseSizeBeforeDelete - 1);
     }
 
+    @Test
+    @Transactional
+    public void uploadAndDownloadIssueAttachment() throws Exception {
+        // Initialize the database
+        issueService.save(issue);
+
+        restIssueMockMvc.perform(put("/api/issues/{id}/attachment", issue.getId())
+                .contentType(DEFAULT_ATTACHMENT_CONTENT_TYPE)
+                .content(DEFAULT_ATTACHMENT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.attachmentContentType").value(DEFAULT_ATTACHMENT_CONTENT_TYPE))
+                .andExpect(jsonPath("$.attachmentSize").value(DEFAULT_ATTACHMENT.length))
+                .andExpect(jsonPath("$.attachmentChecksum").value(
+                    "84d89877f0d4041efb6bf91a16f0248f2fd573e6af05c19f96bedb9f882f7882"));
+
+        // Download the whole attachment
+        restIssueMockMvc.perform(get("/api/issues/{id}/attachment", issue.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(DEFAULT_ATTACHMENT_CONTENT_TYPE))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"issue-" + issue.getId() + "\""))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(content().bytes(DEFAULT_ATTACHMENT));
+
+        // Download a range of the attachment
+        restIssueMockMvc.perform(get("/api/issues/{id}/attachment", issue.getId())
+                .header("Range", "bytes=2-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 2-4/10"))
+                .andExpect(content().bytes("234".getBytes(StandardCharsets.US_ASCII)));
+        restIssueMockMvc.perform(get("/api/issues/{id}/attachment", issue.getId())
+                .header("Range", "bytes=10-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */10"));
+
+        // Updating the issue keeps its attachment
+        em.flush();
+        Issue updatedIssue = issueRepository.findOne(issue.getId());
+        em.detach(updatedIssue);
+        updatedIssue.name(UPDATED_NAME).attachmentContentType(UPDATED_ATTACHMENT_CONTENT_TYPE).attachmentSize(null);
+        restIssueMockMvc.perform(put("/api/issues")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(updatedIssue)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.attachmentContentType").value(DEFAULT_ATTACHMENT_CONTENT_TYPE))
+                .andExpect(jsonPath("$.attachmentSize").value(DEFAULT_ATTACHMENT.length));
+
+        // The attachment is not part of the issue listing
+        restIssueMockMvc.perform(get("/api/issues?sort=id,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].attachment").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    public void uploadIssueAttachmentWithDisallowedContentType() throws Exception {
+        // Initialize the database
+        issueService.save(issue);
+
+        restIssueMockMvc.perform(put("/api/issues/{id}/attachment", issue.getId())
+                .contentType(MediaType.TEXT_HTML)
+                .content("<script>alert(document.cookie)</script>"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.attachmentContentType").value(MediaType.APPLICATION_OCTET_STREAM_VALUE));
+
+        restIssueMockMvc.perform(get("/api/issues/{id}/attachment", issue.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"issue-" + issue.getId() + "\""))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"));
+    }
+
+    @Test
+    public void rolledBackIssueAttachmentKeepsThePreviousOne() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Issue saved = transaction.execute(status -> issueService.save(issue));
+        try {
+            transaction.execute(status -> storeAttachment(saved.getId(), DEFAULT_ATTACHMENT));
+            transaction.execute(status -> {
+                storeAttachment(saved.getId(), UPDATED_ATTACHMENT);
+                status.setRollbackOnly();
+                return null;
+            });
+
+            restIssueMockMvc.perform(get("/api/issues/{id}/attachment", saved.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag",
+                        "\"84d89877f0d4041efb6bf91a16f0248f2fd573e6af05c19f96bedb9f882f7882\""))
+                    .andExpect(content().bytes(DEFAULT_ATTACHMENT));
+        } finally {
+            transaction.execute(status -> {
+                issueService.delete(saved.getId());
+                return null;
+            });
+        }
+    }
+
+    private Issue storeAttachment(Long id, byte[] content) {
+        try {
+            return issueService.storeAttachment(id, DEFAULT_ATTACHMENT_CONTENT_TYPE, new ByteArrayInputStream(content))
+                .get();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    @Transactional
+    public void uploadTooLargeIssueAttachment() throws Exception {
+        // Initialize the database
+        issueService.save(issue);
+
+        long maxSize = jHipsterProperties.getAttachments().getMaxSize();
+        jHipsterProperties.getAttachments().setMaxSize(DEFAULT_ATTACHMENT.length - 1);
+        try {
+            restIssueMockMvc.perform(put("/api/issues/{id}/attachment", issue.getId())
+                    .contentType(DEFAULT_ATTACHMENT_CONTENT_TYPE)
+                    .content(DEFAULT_ATTACHMENT))
+                    .andExpect(status().isPayloadTooLarge());
+        } finally {
+            jHipsterProperties.getAttachments().setMaxSize(maxSize);
+        }
+        assertThat(issueRepository.findOne(issue.getId()).getAttachmentSize()).isNull();
+    }
+
+    @Test
+    @Transactional
+    public void deleteIssueAttachment() throws Exception {
+        // Initialize the database
+        issueService.save(issue);
+        restIssueMockMvc.perform(put("/api/issues/{id}/attachment", issue.getId())
+                .contentType(DEFAULT_ATTACHMENT_CONTENT_TYPE)
+                .content(UPDATED_ATTACHMENT))
+                .andExpect(status().isOk());
+
+        restIssueMockMvc.perform(delete("/api/issues/{id}/attachment", issue.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.attachmentContentType").doesNotExist());
+
+        restIssueMockMvc.perform(get("/api/issues/{id}/attachment", issue.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void getNonExistingIssueAttachment() throws Exception {
+        restIssueMockMvc.perform(get("/api/issues/{id}/attachment", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+        restIssueMockMvc.perform(put("/api/issues/{id}/attachment", Long.MAX_VALUE)
+                .contentType(DEFAULT_ATTACHMENT_CONTENT_TYPE)
+                .content(DEFAULT_ATTACHMENT))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void importIssuesAsNdjson() throws Exception {
+        int databaseSizeBeforeImport = issueRepository.findAll().size();
+
+        String content =
+            "{\"name\":\"imported-1\",\"description\":\"AAAAA\",\"created\":\"2016-11-20\",\"state\":\"OPEN\",\"assigneeLogin\":\"admin\"}\n" +
+            "{\"description\":\"missing name\",\"created\":\"2016-11-20\"}\n" +
+            "{\"name\":\"imported-2\",\"description\":\"AAAAA\",\"created\":\"2016-11-21\",\"originatorLogin\":\"nobody\"}\n" +
+            "{\"name\":\"imported-3\",\"description\":\"AAAAA\",\"created\":\"2016-11-22\",\"priority\":\"MAJOR\"}\n";
+        restIssueMockMvc.perform(post("/api/issues/_bulk")
+                .contentType(IssueResource.APPLICATION_NDJSON_VALUE)
+                .content(content))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.completed").value(true))
+                .andExpect(jsonPath("$.errors[0]").value(containsString("line 2")))
+                .andExpect(jsonPath("$.errors[1]").value(containsString("unknown user nobody")));
+
+        // Validate the Issues in the database
+        List<Issue> issues = issueRepository.findAll();
+        assertThat(issues).hasSize(databaseSizeBeforeImport + 2);
+        Issue imported = issues.stream().filter(i -> "imported-1".equals(i.getName())).findFirst().get();
+        assertThat(imported.getState()).isEqualTo(State.OPEN);
+        assertThat(imported.getAssignee().getLogin()).isEqualTo("admin");
+
+        // Validate the Issues in ElasticSearch
+        assertThat(issueSearchRepository.findOne(imported.getId())).isNotNull();
+    }
+
+    @Test
+    @Transactional
+    public void importIssuesAsCsv() throws Exception {
+        int databaseSizeBeforeImport = issueRepository.findAll().size();
+
+        String content = "name,description,created,state,priority,assigneeLogin\n" +
+            "imported-csv,AAAAA,2016-11-20,,BLOCKER,\n";
+        restIssueMockMvc.perform(post("/api/issues/_bulk")
+                .contentType(IssueResource.TEXT_CSV_VALUE)
+                .content(content))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(0));
+
+        List<Issue> issues = issueRepository.findAll();
+        assertThat(issues).hasSize(databaseSizeBeforeImport + 1);
+        Issue imported = issues.get(issues.size() - 1);
+        assertThat(imported.getName()).isEqualTo("imported-csv");
+        assertThat(imported.getPriority()).isEqualTo(Priority.BLOCKER);
+        assertThat(imported.getState()).isNull();
+        assertThat(imported.getAssignee()).isNull();
+    }
+
+    @Test
+    @Transactional
+    public void importMalformedIssues() throws Exception {
+        String content =
+            "{\"name\":\"imported-1\",\"description\":\"AAAAA\",\"created\":\"2016-11-20\"}\n" +
+            "{\"name\":\n";
+        restIssueMockMvc.perform(post("/api/issues/_bulk")
+                .contentType(IssueResource.APPLICATION_NDJSON_VALUE)
+                .content(content))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.completed").value(false));
+    }
+
+    @Test
+    @Transactional
+    public void exportIssues() throws Exception {
+        // Initialize the database
+        issue.setAssignee(UserResourceIntTest.createEntity(em));
+        issueRepository.saveAndFlush(issue);
+
+        restIssueMockMvc.perform(get("/api/issues/_export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(IssueResource.APPLICATION_NDJSON_VALUE + ";charset=UTF-8"))
+                .andExpect(content().string(containsString("{\"id\":" + issue.getId() + ",\"name\":\"" + DEFAULT_NAME + "\"")))
+                .andExpect(content().string(containsString("\"assigneeLogin\":\"test\"")))
+                .andExpect(content().string(endsWith("}\n")));
+
+        restIssueMockMvc.perform(get("/api/issues/_export?format=csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(startsWith(
+                    "id,name,description,created,state,priority,comment,originatorLogin,assigneeLogin\n")))
+                .andExpect(content().string(containsString(issue.getId() + "," + DEFAULT_NAME + "," +
+                    DEFAULT_DESCRIPTION + "," + DEFAULT_CREATED + "," + DEFAULT_STATE + "," + DEFAULT_PRIORITY + "," +
+                    DEFAULT_COMMENT + ",,test\n")));
+    }
+
     @Test
     @Transactional
     public void searchIssue() throws Exception {
@@ -340,8 +1009,41 @@ public class IssueResourceIntTest {
             .andExpect(jsonPath("$.[*].created").value(hasItem(DEFAULT_CREATED.toString())))
             .andExpect(jsonPath("$.[*].state").value(hasItem(DEFAULT_STATE.toString())))
             .andExpect(jsonPath("$.[*].priority").value(hasItem(DEFAULT_PRIORITY.toString())))
-            .andExpect(jsonPath("$.[*].attachmentContentType").value(hasItem(DEFAULT_ATTACHMENT_CONTENT_TYPE)))
-            .andExpect(jsonPath("$.[*].attachment").value(hasItem(Base64Utils.encodeToString(DEFAULT_ATTACHMENT))))
             .andExpect(jsonPath("$.[*].comment").value(hasItem(DEFAULT_COMMENT.toString())));
     }
+
+    @Test
+    @Transactional
+    public void searchIssueSummariesWithKeysetCursor() throws Exception {
+        // Initialize the database
+        Issue first = issueService.save(createEntity(em));
+        Issue second = issueService.save(createEntity(em));
+        Issue third = issueService.save(createEntity(em));
+
+        // Search the first slice, starting just before the first issue
+        MvcResult result = restIssueMockMvc.perform(get("/api/_search/issues?query=" + DEFAULT_NAME +
+            "&after=&size=2&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(header().string("Link", containsString("rel=\"next\"")))
+            .andExpect(jsonPath("$.[0].id").value(third.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(second.getId().intValue()))
+            .andExpect(jsonPath("$.[0].name").value(DEFAULT_NAME))
+            .andExpect(jsonPath("$.[0].state").value(DEFAULT_STATE.toString()))
+            .andExpect(jsonPath("$.[0].highlights.name[0]").value("<em>" + DEFAULT_NAME + "</em>"))
+            .andExpect(jsonPath("$.[0].description").doesNotExist())
+            .andExpect(jsonPath("$.[0].originator").doesNotExist())
+            .andReturn();
+
+        // Follow the "next" link
+        Matcher next = Pattern.compile("<([^>]*)>; rel=\"next\"").matcher(result.getResponse().getHeader("Link"));
+        assertThat(next.find()).isTrue();
+        UriComponents nextUri = UriComponentsBuilder.fromUriString(next.group(1)).build();
+        assertThat(nextUri.getQueryParams().getFirst("query")).isEqualTo(DEFAULT_NAME);
+        restIssueMockMvc.perform(get("/api/_search/issues?query=" + DEFAULT_NAME + "&size=2&after=" +
+            nextUri.getQueryParams().getFirst("after")))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Link", not(containsString("rel=\"next\""))))
+            .andExpect(jsonPath("$.[*].id").value(contains(first.getId().intValue())));
+    }
 }
@@ -0,0 +1,122 @@
+package com.nuxplanet.issuetracker.web.rest;
+
+import com.nuxplanet.issuetracker.IssueTrackerApp;
+import com.nuxplanet.issuetracker.domain.Issue;
+import com.nuxplanet.issuetracker.repository.IssueRepository;
+import com.nuxplanet.issuetracker.repository.UserRepository;
+import com.nuxplanet.issuetracker.repository.search.IssueSearchRepository;
+import com.nuxplanet.issuetracker.service.SearchReindexService;
+import com.nuxplanet.issuetracker.service.dto.ReindexStatusDTO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.inject.Inject;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for the ReindexResource REST controller, which rebuilds the Elasticsearch indexes behind aliases.
+ *
+ * @see ReindexResource
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = IssueTrackerApp.class)
+public class ReindexResourceIntTest {
+
+    @Inject
+    private SearchReindexService searchReindexService;
+
+    @Inject
+    private IssueRepository issueRepository;
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Inject
+    private IssueSearchRepository issueSearchRepository;
+
+    @Inject
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Inject
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    private MockMvc restReindexMockMvc;
+
+    private Issue issue;
+
+    @Before
+    public void setup() {
+        ReindexResource reindexResource = new ReindexResource();
+        ReflectionTestUtils.setField(reindexResource, "searchReindexService", searchReindexService);
+        this.restReindexMockMvc = MockMvcBuilders.standaloneSetup(reindexResource)
+            .setMessageConverters(jacksonMessageConverter).build();
+        // Only in the database, as if Elasticsearch had missed it
+        issue = issueRepository.saveAndFlush(new Issue()
+            .name("Reindexed")
+            .description("Missing from the index")
+            .created(LocalDate.now()));
+    }
+
+    @After
+    public void cleanup() {
+        issueRepository.delete(issue.getId());
+        issueSearchRepository.delete(issue.getId());
+    }
+
+    @Test
+    public void reindexMovesTheAliasesToNewIndexes() throws Exception {
+        restReindexMockMvc.perform(post("/management/reindex"))
+            .andExpect(status().isAccepted());
+
+        ReindexStatusDTO reindexStatus = awaitReindex();
+        assertThat(reindexStatus.getIndexes()).extracting("alias").containsExactly("issue", "user");
+        assertThat(reindexStatus.getIndexes().get(0).getIndexed()).isEqualTo(issueRepository.count());
+        assertThat(reindexStatus.getIndexes().get(1).getIndexed()).isEqualTo(userRepository.count());
+
+        assertThat(elasticsearchTemplate.getClient().admin().cluster().prepareState().get().getState()
+            .getMetaData().getAliasAndIndexLookup().get("issue").isAlias()).isTrue();
+        assertThat(issueSearchRepository.findOne(issue.getId()).getName()).isEqualTo("Reindexed");
+
+        restReindexMockMvc.perform(get("/management/reindex"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.state").value(ReindexStatusDTO.State.COMPLETED.toString()))
+            .andExpect(jsonPath("$.indexes[0].index").value(reindexStatus.getIndexes().get(0).getIndex()));
+
+        // Rebuild again: the alias is moved, and the previous index deleted
+        restReindexMockMvc.perform(post("/management/reindex"))
+            .andExpect(status().isAccepted());
+        ReindexStatusDTO nextStatus = awaitReindex();
+        assertThat(elasticsearchTemplate.indexExists(reindexStatus.getIndexes().get(0).getIndex())).isFalse();
+        assertThat(elasticsearchTemplate.getClient().admin().cluster().prepareState().get().getState()
+            .getMetaData().getAliasAndIndexLookup().get("issue").getIndices()).extracting("index")
+            .containsExactly(nextStatus.getIndexes().get(0).getIndex());
+        assertThat(issueSearchRepository.findOne(issue.getId())).isNotNull();
+    }
+
+    private ReindexStatusDTO awaitReindex() throws InterruptedException {
+        ReindexStatusDTO reindexStatus = searchReindexService.getStatus().get();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (reindexStatus.getState() == ReindexStatusDTO.State.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(reindexStatus.getState()).isEqualTo(ReindexStatusDTO.State.COMPLETED);
+        return reindexStatus;
+    }
+}
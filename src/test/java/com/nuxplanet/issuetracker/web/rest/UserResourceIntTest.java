@@ -4,6 +4,8 @@ import com.nuxplanet.issuetracker.IssueTrackerApp;
 import com.nuxplanet.issuetracker.domain.User;
 import com.nuxplanet.issuetracker.repository.UserRepository;
 import com.nuxplanet.issuetracker.service.UserService;
+import com.nuxplanet.issuetracker.service.UserSuggestionService;
+import com.nuxplanet.issuetracker.web.rest.vm.ManagedUserVM;
 
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.Before;
@@ -18,10 +20,16 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
+import java.util.Collections;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
@@ -39,6 +47,9 @@ public class UserResourceIntTest {
     @Inject
     private UserService userService;
 
+    @Inject
+    private UserSuggestionService userSuggestionService;
+
     private MockMvc restUserMockMvc;
 
     /**
@@ -66,6 +77,7 @@ public class UserResourceIntTest {
         UserResource userResource = new UserResource();
         ReflectionTestUtils.setField(userResource, "userRepository", userRepository);
         ReflectionTestUtils.setField(userResource, "userService", userService);
+        ReflectionTestUtils.setField(userResource, "userSuggestionService", userSuggestionService);
         this.restUserMockMvc = MockMvcBuilders.standaloneSetup(userResource).build();
     }
 
@@ -78,6 +90,37 @@ public class UserResourceIntTest {
                 .andExpect(jsonPath("$.lastName").value("Administrator"));
     }
 
+    @Test
+    public void testGetExistingUserWithIfNoneMatch() throws Exception {
+        String eTag = restUserMockMvc.perform(get("/api/users/admin")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("\"")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        restUserMockMvc.perform(get("/api/users/admin")
+                .header("If-None-Match", eTag)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void testUpdateUserWithStaleIfMatch() throws Exception {
+        User admin = userService.getUserWithAuthoritiesByLogin("admin").get();
+        ManagedUserVM managedUserVM = new ManagedUserVM(admin.getId(), admin.getLogin(), null, admin.getFirstName(),
+            "Changed", admin.getEmail(), admin.getActivated(), admin.getLangKey(), Collections.singleton("ROLE_ADMIN"),
+            null, null, null, null);
+
+        restUserMockMvc.perform(put("/api/users")
+                .header("If-Match", "\"0123456789abcdef\"")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(managedUserVM)))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(userRepository.findOneByLogin("admin").get().getLastName()).isEqualTo("Administrator");
+    }
+
     @Test
     public void testGetUnknownUser() throws Exception {
         restUserMockMvc.perform(get("/api/users/unknown")
@@ -110,4 +153,29 @@ public class UserResourceIntTest {
 
         userRepository.delete(user);
     }
+
+    @Test
+    public void testSuggestUsers() throws Exception {
+        restUserMockMvc.perform(get("/api/users/_suggest?prefix=ADM")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+                .andExpect(jsonPath("$.[*].login").value(hasItem("admin")));
+
+        User user = userService.createUser("jane.roe", "janeroe", "Jane", "Roe", "jane.roe@localhost.com", "en-US");
+        user.setActivated(true);
+        userSuggestionService.update(user);
+
+        restUserMockMvc.perform(get("/api/users/_suggest?prefix=jane r")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].login").value(contains("jane.roe")));
+
+        userService.deleteUser("jane.roe");
+
+        restUserMockMvc.perform(get("/api/users/_suggest?prefix=roe")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].login").value(not(hasItem("jane.roe"))));
+    }
 }
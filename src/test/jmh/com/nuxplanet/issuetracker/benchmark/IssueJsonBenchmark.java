@@ -0,0 +1,100 @@
+package com.nuxplanet.issuetracker.benchmark;
+
+import com.nuxplanet.issuetracker.domain.Issue;
+import com.nuxplanet.issuetracker.domain.User;
+import com.nuxplanet.issuetracker.domain.enumeration.Priority;
+import com.nuxplanet.issuetracker.domain.enumeration.State;
+import com.nuxplanet.issuetracker.service.dto.IssueSummaryDTO;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.hibernate4.Hibernate4Module;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the JSON serialization of a page of issues, as returned by GET /api/issues, with and without
+ * the "fields" projection.
+ * <p>
+ * The object mapper is configured like the application one: Java time and Hibernate modules, ISO dates.
+ * </p>
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class IssueJsonBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private List<Issue> issues;
+
+    private List<IssueSummaryDTO> summaries;
+
+    private ObjectWriter issuesWriter;
+
+    private ObjectWriter summariesWriter;
+
+    @Setup
+    public void setUp() {
+        User originator = new User();
+        originator.setId(1L);
+        originator.setLogin("originator");
+        User assignee = new User();
+        assignee.setId(2L);
+        assignee.setLogin("assignee");
+        issues = new ArrayList<>(pageSize);
+        summaries = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Issue issue = new Issue()
+                .name("issue " + i)
+                .description("a description long enough to look like the ones typed by real users, issue " + i)
+                .created(LocalDate.ofEpochDay(16000 + i))
+                .state(State.OPEN)
+                .priority(Priority.NORMAL)
+                .comment("comment " + i)
+                .originator(originator)
+                .assignee(assignee);
+            issue.setId((long) i);
+            issues.add(issue);
+            summaries.add(new IssueSummaryDTO(issue.getId(), issue.getName(), issue.getState(), issue.getPriority(),
+                issue.getCreated(), assignee.getLogin(), originator.getLogin()));
+        }
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new Hibernate4Module())
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        issuesWriter = mapper.writerFor(new TypeReference<List<Issue>>() { });
+        summariesWriter = mapper.writerFor(new TypeReference<List<IssueSummaryDTO>>() { });
+    }
+
+    @Benchmark
+    public byte[] serializeIssues() throws JsonProcessingException {
+        return issuesWriter.writeValueAsBytes(issues);
+    }
+
+    @Benchmark
+    public byte[] serializeSummaries() throws JsonProcessingException {
+        return summariesWriter.writeValueAsBytes(summaries);
+    }
+}
@@ -0,0 +1,120 @@
+package com.nuxplanet.issuetracker.benchmark;
+
+import com.nuxplanet.issuetracker.IssueTrackerApp;
+import com.nuxplanet.issuetracker.domain.Issue;
+import com.nuxplanet.issuetracker.domain.enumeration.Priority;
+import com.nuxplanet.issuetracker.domain.enumeration.State;
+import com.nuxplanet.issuetracker.service.IssueService;
+import com.nuxplanet.issuetracker.service.SearchIndexingService;
+import com.nuxplanet.issuetracker.service.dto.IssueCriteria;
+import com.nuxplanet.issuetracker.service.dto.IssueSummaryDTO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the IssueService read and write paths, against the test configuration: an in-memory H2 database
+ * and an embedded Elasticsearch node, with asynchronous indexing as in production.
+ * <p>
+ * The database is seeded with {@link #ISSUES} issues once per fork. The absolute figures say little about a real
+ * PostgreSQL server, but the allocation rates reported by "-prof gc" and the relative costs of the operations do.
+ * </p>
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class IssueServiceBenchmark {
+
+    private static final int ISSUES = 1000;
+
+    private final Pageable firstPage = new PageRequest(0, 20, Sort.Direction.ASC, "id");
+
+    private ConfigurableApplicationContext context;
+
+    private IssueService issueService;
+
+    private long firstId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        context = new SpringApplicationBuilder(IssueTrackerApp.class)
+            .web(false)
+            .properties("jhipster.elasticsearch.indexing.async=true")
+            .run();
+        issueService = context.getBean(IssueService.class);
+        for (int i = 0; i < ISSUES; i++) {
+            Issue issue = issueService.save(newIssue(i));
+            if (i == 0) {
+                firstId = issue.getId();
+            }
+        }
+        SearchIndexingService searchIndexingService = context.getBean(SearchIndexingService.class);
+        while (searchIndexingService.getQueueDepth() > 0) {
+            Thread.sleep(100);
+        }
+        context.getBean(ElasticsearchTemplate.class).refresh(Issue.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Issue save() {
+        return issueService.save(newIssue(ThreadLocalRandom.current().nextInt(ISSUES)));
+    }
+
+    @Benchmark
+    public Issue findOne() {
+        return issueService.findOne(firstId + ThreadLocalRandom.current().nextInt(ISSUES));
+    }
+
+    @Benchmark
+    public Page<Issue> findAll() {
+        return issueService.findAll(firstPage);
+    }
+
+    @Benchmark
+    public Page<IssueSummaryDTO> findAllSummaries() {
+        return issueService.findAllSummaries(new IssueCriteria(), firstPage);
+    }
+
+    @Benchmark
+    public Page<Issue> search() {
+        return issueService.search("name:issue*", firstPage);
+    }
+
+    private static Issue newIssue(int i) {
+        return new Issue()
+            .name("issue " + i)
+            .description("description of issue " + i)
+            .created(LocalDate.ofEpochDay(16000 + i % 365))
+            .state(State.values()[i % State.values().length])
+            .priority(Priority.values()[i % Priority.values().length])
+            .comment("comment " + i);
+    }
+}
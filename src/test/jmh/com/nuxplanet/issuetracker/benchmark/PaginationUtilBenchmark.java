@@ -0,0 +1,46 @@
+package com.nuxplanet.issuetracker.benchmark;
+
+import com.nuxplanet.issuetracker.web.rest.util.PaginationUtil;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+
+import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the Link and X-Total-Count headers built for every page of issues.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PaginationUtilBenchmark {
+
+    private final Page<Object> page = new PageImpl<>(Collections.emptyList(), new PageRequest(5, 20), 1000);
+
+    private final Slice<Object> slice = new SliceImpl<>(Collections.emptyList(), new PageRequest(0, 20), true);
+
+    @Benchmark
+    public HttpHeaders paginationHeaders() throws URISyntaxException {
+        return PaginationUtil.generatePaginationHttpHeaders(page, "/api/issues");
+    }
+
+    @Benchmark
+    public HttpHeaders keysetPaginationHeaders() throws URISyntaxException {
+        return PaginationUtil.generateKeysetPaginationHttpHeaders(slice, "", "MTIzNDU6Njc4OTA", null, "/api/issues");
+    }
+
+    @Benchmark
+    public HttpHeaders searchPaginationHeaders() throws URISyntaxException {
+        return PaginationUtil.generateSearchPaginationHttpHeaders("name:issue*", page, "/api/_search/issues");
+    }
+}
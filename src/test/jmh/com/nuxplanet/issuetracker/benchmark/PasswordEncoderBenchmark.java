@@ -0,0 +1,58 @@
+package com.nuxplanet.issuetracker.benchmark;
+
+import com.nuxplanet.issuetracker.config.JHipsterProperties;
+import com.nuxplanet.issuetracker.security.ConfigurablePasswordEncoder;
+
+import com.codahale.metrics.MetricRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of password hashing, to choose the algorithm and cost of jhipster.security.password: a login should
+ * not spend much more than 100 ms hashing on the production hardware.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    /**
+     * The algorithm and its cost: the BCrypt strength, or the PBKDF2 iterations.
+     */
+    @Param({"bcrypt:10", "bcrypt:11", "bcrypt:12", "pbkdf2:100000", "pbkdf2:185000"})
+    private String encoder;
+
+    private ConfigurablePasswordEncoder passwordEncoder;
+
+    private String hash;
+
+    @Setup
+    public void setup() {
+        String[] algorithmAndCost = encoder.split(":");
+        JHipsterProperties.Security.Password password = new JHipsterProperties.Security.Password();
+        password.setAlgorithm(algorithmAndCost[0]);
+        password.setBcryptStrength(Integer.parseInt(algorithmAndCost[1]));
+        password.setPbkdf2Iterations(Integer.parseInt(algorithmAndCost[1]));
+        passwordEncoder = new ConfigurablePasswordEncoder(password, new MetricRegistry());
+        hash = passwordEncoder.encode("user-password");
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordEncoder.destroy();
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordEncoder.encode("user-password");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches("user-password", hash);
+    }
+}
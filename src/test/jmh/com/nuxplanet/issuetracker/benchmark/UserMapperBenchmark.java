@@ -0,0 +1,76 @@
+package com.nuxplanet.issuetracker.benchmark;
+
+import com.nuxplanet.issuetracker.domain.Authority;
+import com.nuxplanet.issuetracker.domain.User;
+import com.nuxplanet.issuetracker.security.AuthoritiesConstants;
+import com.nuxplanet.issuetracker.service.dto.UserDTO;
+import com.nuxplanet.issuetracker.service.mapper.UserMapper;
+import com.nuxplanet.issuetracker.service.mapper.UserMapperImpl;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmark of the conversions between users and their DTOs, on a page of users.
+ * <p>
+ * UserDTO is read-only, so users are converted to DTOs by its constructor, as the REST resources do, and DTOs are
+ * converted back to users by the UserMapper.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private final UserMapper userMapper = new UserMapperImpl();
+
+    private List<User> users;
+
+    private List<UserDTO> userDTOs;
+
+    @Setup
+    public void setUp() {
+        Authority userAuthority = new Authority();
+        userAuthority.setName(AuthoritiesConstants.USER);
+        Authority adminAuthority = new Authority();
+        adminAuthority.setName(AuthoritiesConstants.ADMIN);
+        users = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setLogin("user" + i);
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setEmail("user" + i + "@localhost");
+            user.setActivated(true);
+            user.setLangKey("en");
+            user.setAuthorities(new HashSet<>(i % 2 == 0 ?
+                Collections.singleton(userAuthority) :
+                Arrays.asList(userAuthority, adminAuthority)));
+            users.add(user);
+        }
+        userDTOs = usersToUserDTOs();
+    }
+
+    @Benchmark
+    public List<UserDTO> usersToUserDTOs() {
+        return users.stream().map(UserDTO::new).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<User> userDTOsToUsers() {
+        return userMapper.userDTOsToUsers(userDTOs);
+    }
+}